@@ -0,0 +1,104 @@
+package org.aion.api.dispatch;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import org.aion.api.RpcException;
+import org.aion.api.serialization.MethodExamples.ExampleDeserializer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * Throughput of requests whose method blocks for a while (standing in for a
+ * database read or VM execution), with {@link RpcDispatcher} on a fixed pool
+ * of platform threads against {@link VirtualThreadRpcDispatcher}.  Each
+ * invocation dispatches {@link #REQUESTS} requests at once and waits for all
+ * of them; scores are in requests per second.
+ *
+ * Without virtual threads (before Java 21), the latter falls back to two
+ * fixed pools of maxConcurrency platform threads, one for requests and one
+ * for batches.  Since the benchmark passes maxConcurrency = REQUESTS, every
+ * request then gets a platform thread of its own (these requests aren't
+ * batches, so the batch pool stays idle), and what gets measured is a pool of
+ * {@link #REQUESTS} platform threads against one of {@link #platformThreads}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class VirtualThreadDispatchBenchmark {
+    static final int REQUESTS = 1000;
+
+    private static final String PAYLOAD =
+        "{\"jsonrpc\": \"2.0\", \"method\": \"getseed\", \"params\": [], \"id\": \"1\"}";
+
+    /** Result of getseed, a DATA64 */
+    private static final byte[] SEED = new byte[64];
+
+    /** How long each call blocks */
+    @Param({"1", "10"})
+    public int latencyMillis;
+
+    /** Size of the fixed pool */
+    @Param({"64"})
+    public int platformThreads;
+
+    private ExecutorService platformPool;
+    private RpcDispatcher platform;
+    private VirtualThreadRpcDispatcher virtual;
+
+    @Setup
+    public void setup() {
+        RequestProcessor blocking = req -> {
+            try {
+                Thread.sleep(latencyMillis);
+            } catch (InterruptedException ie) {
+                Thread.currentThread().interrupt();
+                throw RpcException.internalError("Interrupted");
+            }
+            return SEED;
+        };
+        platformPool = Executors.newFixedThreadPool(platformThreads);
+        platform = new RpcDispatcher(blocking, new ExampleDeserializer(), platformPool);
+        virtual = new VirtualThreadRpcDispatcher(blocking, new ExampleDeserializer(), REQUESTS);
+
+        String response = virtual.dispatch(PAYLOAD).join();
+        if (!response.contains("\"result\"")) {
+            throw new IllegalStateException("Expected a result, got " + response);
+        }
+    }
+
+    @TearDown
+    public void teardown() {
+        platformPool.shutdownNow();
+        virtual.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(REQUESTS)
+    public void platformPool() {
+        CompletableFuture<?>[] responses = new CompletableFuture<?>[REQUESTS];
+        for (int ix = 0; ix < REQUESTS; ++ix) {
+            responses[ix] = CompletableFuture.supplyAsync(() -> platform.dispatch(PAYLOAD), platformPool);
+        }
+        CompletableFuture.allOf(responses).join();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(REQUESTS)
+    public void virtualThreads() {
+        CompletableFuture<?>[] responses = new CompletableFuture<?>[REQUESTS];
+        for (int ix = 0; ix < REQUESTS; ++ix) {
+            responses[ix] = virtual.dispatch(PAYLOAD);
+        }
+        CompletableFuture.allOf(responses).join();
+    }
+}
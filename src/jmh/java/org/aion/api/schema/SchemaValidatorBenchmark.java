@@ -0,0 +1,49 @@
+package org.aion.api.schema;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import java.util.concurrent.TimeUnit;
+import org.aion.api.serialization.MethodExamples;
+import org.aion.api.serialization.MethodExamples.ExampleValue;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * {@link SchemaValidator#validate} of a value of each root type, taken from
+ * the method examples (see {@link MethodExamples#ofRootType}), with each engine.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class SchemaValidatorBenchmark {
+    @Param({"DATA", "QUANTITY", "BOOLEAN", "OBJECT"})
+    public String rootType;
+
+    @Param({"EVERIT", "JACKSON"})
+    public SchemaValidator.Engine engine;
+
+    private SchemaValidator validator;
+    private JsonNode schema;
+    private JsonNode value;
+
+    @Setup
+    public void setup() throws Exception {
+        ExampleValue example = MethodExamples.ofRootType(rootType);
+        validator = new SchemaValidator(engine);
+        schema = example.getType().getDefinition();
+        value = example.getValue();
+        if (!validator.validate(schema, value)) {
+            throw new IllegalStateException("Example " + value + " isn't valid");
+        }
+    }
+
+    @Benchmark
+    public boolean validate() throws Exception {
+        return validator.validate(schema, value);
+    }
+}
@@ -0,0 +1,47 @@
+package org.aion.api.serialization;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+import org.aion.api.serialization.MethodExamples.ExampleDeserializer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * {@link RequestDeserializer#deserialize} of the example request of each
+ * method that has one (see {@link MethodExamples}), from a String and from
+ * its UTF-8 bytes.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ExampleRequestBenchmark {
+    @Param({"eth_call2", "eth_getTransactionByHash2"})
+    public String method;
+
+    private RequestDeserializer deserializer;
+    private String payload;
+    private byte[] utf8;
+
+    @Setup
+    public void setup() throws Exception {
+        deserializer = new RequestDeserializer(new ExampleDeserializer(), MethodExamples.loader());
+        payload = MethodExamples.of(method).getRequests().get(0);
+        utf8 = payload.getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public JsonRpcRequest fromString() throws Exception {
+        return deserializer.deserialize(payload);
+    }
+
+    @Benchmark
+    public JsonRpcRequest fromBytes() throws Exception {
+        return deserializer.deserialize(utf8, 0, utf8.length);
+    }
+}
@@ -0,0 +1,49 @@
+package org.aion.api.serialization;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Hex conversion of a DATA from the method examples (see
+ * {@link MethodExamples#ofRootType}): {@link SerializationUtils} against
+ * {@link HexCodec}, which the request and response paths use.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class HexConversionBenchmark {
+    private String hex;
+    private byte[] bytes;
+
+    @Setup
+    public void setup() throws Exception {
+        hex = MethodExamples.ofRootType("DATA").getValue().asText();
+        bytes = SerializationUtils.hexStringToByteArray(hex);
+    }
+
+    @Benchmark
+    public byte[] hexStringToByteArray() {
+        return SerializationUtils.hexStringToByteArray(hex);
+    }
+
+    @Benchmark
+    public String bytesToHex() {
+        return SerializationUtils.bytesToHex(bytes);
+    }
+
+    @Benchmark
+    public byte[] decodeData() {
+        return HexCodec.decodeData(hex);
+    }
+
+    @Benchmark
+    public String toData() {
+        return HexCodec.toData(bytes);
+    }
+}
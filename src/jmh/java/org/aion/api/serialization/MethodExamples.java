@@ -0,0 +1,202 @@
+package org.aion.api.serialization;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import java.io.IOException;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.nio.file.FileSystem;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import org.aion.api.schema.Field;
+import org.aion.api.schema.JsonSchemaTypeResolver;
+import org.aion.api.schema.NamedRpcType;
+import org.aion.api.schema.RootTypes;
+import org.aion.api.schema.SchemaValidationException;
+
+/**
+ * Inputs for the benchmarks: the {@code examples} of the request and response
+ * schemas of each method under schemas/method/.
+ *
+ * The method field of an example request is replaced by the name of the
+ * schema it came from, since some examples use the name of the eth_ method
+ * that theirs is modelled on.  Methods that aren't in methods.txt yet are
+ * included too; use {@link #loader()} so that the deserializer knows them.
+ */
+public final class MethodExamples {
+    private static final String METHOD_DIR = "schemas/method";
+    private static final ObjectMapper OM = new ObjectMapper();
+
+    private final String method;
+    private final List<String> requests;
+    private final List<JsonNode> results;
+
+    private MethodExamples(String method, List<String> requests, List<JsonNode> results) {
+        this.method = method;
+        this.requests = requests;
+        this.results = results;
+    }
+
+    /** @return examples of the given method */
+    public static MethodExamples of(String method) throws IOException {
+        MethodDescriptor md = new RpcSchemaLoader().loadMethod(method);
+
+        List<String> requests = new ArrayList<>();
+        for (JsonNode example : md.getRequest().path("examples")) {
+            ObjectNode request = example.deepCopy();
+            request.put("method", method);
+            requests.add(OM.writeValueAsString(request));
+        }
+        List<JsonNode> results = new ArrayList<>();
+        for (JsonNode example : md.getResponse().path("examples")) {
+            results.add(example.get("result"));
+        }
+        return new MethodExamples(method, requests, results);
+    }
+
+    /** @return names of all the methods that have a schema, whether or not they have examples */
+    public static List<String> methods() throws IOException {
+        try {
+            URI dir = MethodExamples.class.getClassLoader().getResource(METHOD_DIR).toURI();
+            if (dir.getScheme().equals("jar")) {
+                try (FileSystem jar = FileSystems.newFileSystem(dir, Map.of())) {
+                    return methods(jar.getPath(METHOD_DIR));
+                }
+            }
+            return methods(Paths.get(dir));
+        } catch (URISyntaxException use) {
+            throw new IOException(use);
+        }
+    }
+
+    private static List<String> methods(Path dir) throws IOException {
+        try (Stream<Path> files = Files.list(dir)) {
+            return files
+                .map(file -> file.getFileName().toString())
+                .filter(name -> name.endsWith(".json"))
+                .map(name -> name.substring(0, name.length() - ".json".length()))
+                .sorted()
+                .collect(Collectors.toList());
+        }
+    }
+
+    /** @return schema loader whose method list is every method that has a schema */
+    public static RpcSchemaLoader loader() {
+        return new CachingRpcSchemaLoader() {
+            @Override
+            public List<String> loadMethodList() throws IOException {
+                return methods();
+            }
+        };
+    }
+
+    public String getMethod() {
+        return method;
+    }
+
+    /** @return JSON of each example request */
+    public List<String> getRequests() {
+        return requests;
+    }
+
+    /** @return result of each example response */
+    public List<JsonNode> getResults() {
+        return results;
+    }
+
+    /**
+     * @return the i-th param of the first example request, with its type
+     * according to the method's request schema
+     */
+    public ExampleValue param(int ix) throws IOException {
+        JsonNode items = new RpcSchemaLoader().loadRequestSchema(method).get("items");
+        JsonNode value = OM.readTree(requests.get(0)).get("params").get(ix);
+        return new ExampleValue(new JsonSchemaTypeResolver().resolveNamedSchema(items.get(ix)), value);
+    }
+
+    /**
+     * @return the result of the i-th example response, with its type
+     * according to the method's response schema
+     */
+    public ExampleValue result(int ix) throws IOException {
+        JsonNode schema = new RpcSchemaLoader().loadResponseSchema(method);
+        return new ExampleValue(new JsonSchemaTypeResolver().resolveNamedSchema(schema), results.get(ix));
+    }
+
+    /**
+     * @return an example value of a type rooted in the given root type.  None
+     * of the examples has a BOOLEAN, so that's just {@code true}.
+     */
+    public static ExampleValue ofRootType(String rootType) throws IOException {
+        switch (rootType) {
+            case "DATA":
+                return of("eth_getTransactionByHash2").param(0);
+            case "QUANTITY":
+                return of("eth_getTransactionByHash2").result(0).field("nrgPrice");
+            case "BOOLEAN":
+                return new ExampleValue(RootTypes.BOOLEAN, OM.getNodeFactory().booleanNode(true));
+            case "OBJECT":
+                return of("eth_call2").param(0);
+            default:
+                throw new IllegalArgumentException("No root type " + rootType);
+        }
+    }
+
+    /** A value from an example, with its type */
+    public static final class ExampleValue {
+        private final NamedRpcType type;
+        private final JsonNode value;
+
+        ExampleValue(NamedRpcType type, JsonNode value) {
+            this.type = type;
+            this.value = value;
+        }
+
+        public NamedRpcType getType() {
+            return type;
+        }
+
+        public JsonNode getValue() {
+            return value;
+        }
+
+        /** @return a field of this object */
+        public ExampleValue field(String name) {
+            for (Field field : type.getContainedFields()) {
+                if (field.getName().equals(name)) {
+                    return new ExampleValue(field.getType(), value.get(name));
+                }
+            }
+            throw new IllegalArgumentException(type.getName() + " has no field " + name);
+        }
+    }
+
+    /**
+     * Deserializes objects into maps from field name to value, standing in for
+     * the generated deserializer and its data holders.  The maps serialize to
+     * the same JSON as the data holders would.
+     */
+    public static class ExampleDeserializer extends RpcTypeDeserializer {
+        @Override
+        protected Object deserializeObject(JsonNode node, NamedRpcType type)
+        throws SchemaValidationException {
+            Map<String, Object> fields = new LinkedHashMap<>();
+            for (Field field : type.getContainedFields()) {
+                JsonNode value = node.get(field.getName());
+                if (value != null) {
+                    fields.put(field.getName(), deserialize(value, field.getType()));
+                }
+            }
+            return fields;
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package org.aion.api.serialization;
+
+import java.math.BigInteger;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Compares {@link HexCodec#decodeQuantity(CharSequence)} against the previous
+ * QUANTITY decoding in {@link RpcTypeDeserializer}, for a nonce, a gas amount
+ * and a wei amount.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class QuantityDecodeBenchmark {
+    @Param({"0x7", "0x5208", "0x56bc75e2d63100000"})
+    public String quantity;
+
+    @Benchmark
+    public BigInteger hexCodec() {
+        return HexCodec.decodeQuantity(quantity);
+    }
+
+    @Benchmark
+    public BigInteger regexAndBigInteger() {
+        String nodeVal = quantity;
+        if(nodeVal.length() % 2 != 0) {
+            nodeVal = nodeVal.replaceFirst("0x", "0");
+        } else {
+            nodeVal = nodeVal.replaceFirst("0x", "");
+        }
+        return new BigInteger(nodeVal, 16);
+    }
+}
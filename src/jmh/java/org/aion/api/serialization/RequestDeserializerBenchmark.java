@@ -0,0 +1,75 @@
+package org.aion.api.serialization;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.util.concurrent.TimeUnit;
+import org.aion.api.RpcException;
+import org.aion.api.schema.JsonSchemaTypeResolver;
+import org.aion.api.serialization.MethodExamples.ExampleDeserializer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Compares the streaming {@link RequestDeserializer} against the previous
+ * implementation, which parsed the payload twice (once into the envelope and
+ * once into a tree to get at the params).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class RequestDeserializerBenchmark {
+    private static final String PAYLOAD = "{"
+        + "\"jsonrpc\": \"2.0\", "
+        + "\"method\": \"submitsignature\", "
+        + "\"params\": ["
+        + "\"0x0123456789abcdef0123456789abcdef0123456789abcdef0123456789abcdef"
+        + "0123456789abcdef0123456789abcdef0123456789abcdef0123456789abcdef\", "
+        + "\"0x0123456789abcdef0123456789abcdef0123456789abcdef0123456789abcdef\""
+        + "], "
+        + "\"id\": \"1\""
+        + "}";
+
+    private ObjectMapper om;
+    private RpcSchemaLoader loader;
+    private JsonSchemaTypeResolver resolver;
+    private RpcTypeDeserializer typeDeserializer;
+    private RequestDeserializer streaming;
+
+    @Setup
+    public void setup() {
+        om = new ObjectMapper();
+        loader = new CachingRpcSchemaLoader();
+        resolver = new JsonSchemaTypeResolver(loader);
+        typeDeserializer = new ExampleDeserializer();
+        streaming = new RequestDeserializer(om, loader, typeDeserializer, resolver);
+    }
+
+    @Benchmark
+    public JsonRpcRequest streaming() throws Exception {
+        return streaming.deserialize(PAYLOAD);
+    }
+
+    @Benchmark
+    public JsonRpcRequest twoPass() throws Exception {
+        final JsonRpcRequest req = om.readValue(PAYLOAD, JsonRpcRequest.class);
+
+        JsonNode params = om.readTree(PAYLOAD).get("params");
+        JsonNode items = loader.loadRequestSchema(req.getMethod()).get("items");
+        if (items.size() != params.size()) {
+            throw RpcException.invalidParams("Wrong number of arguments");
+        }
+
+        Object[] reqParams = new Object[params.size()];
+        for (int ix = 0; ix < params.size(); ++ix) {
+            reqParams[ix] = typeDeserializer.deserialize(
+                params.get(ix), resolver.resolveNamedSchema(items.get(ix)));
+        }
+        req.setParams(reqParams);
+        return req;
+    }
+}
@@ -0,0 +1,56 @@
+package org.aion.api.serialization;
+
+import java.util.concurrent.TimeUnit;
+import org.aion.api.serialization.MethodExamples.ExampleDeserializer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Allocation of the envelope path of {@link RequestDeserializer}: a request
+ * for a method without params, deserialized and then released.  Compares
+ * pooled requests against allocating a new request each time.
+ *
+ * Run with the GC profiler (-prof gc) for the bytes per request.  The pooled
+ * path comes to about 550: about 500 for Jackson's parser, its IOContext,
+ * TextBuffer, symbol table and parsing contexts, and 48 for the id String,
+ * none of which can be reused.  Without pooling it's about 600.  The budget
+ * is enforced by RequestEnvelopeAllocationTest.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class RequestEnvelopeAllocationBenchmark {
+    private static final String PAYLOAD =
+        "{\"jsonrpc\": \"2.0\", \"method\": \"getseed\", \"params\": [], \"id\": \"1\"}";
+
+    private RequestDeserializer pooled;
+    private RequestDeserializer unpooled;
+
+    @Setup
+    public void setup() {
+        RpcSchemaLoader loader = new CachingRpcSchemaLoader();
+        pooled = new RequestDeserializer(new ExampleDeserializer(), loader, true);
+        unpooled = new RequestDeserializer(new ExampleDeserializer(), loader, false);
+    }
+
+    @Benchmark
+    public String pooled() throws Exception {
+        JsonRpcRequest req = pooled.deserialize(PAYLOAD);
+        String method = req.getMethod();
+        pooled.release(req);
+        return method;
+    }
+
+    @Benchmark
+    public String unpooled() throws Exception {
+        JsonRpcRequest req = unpooled.deserialize(PAYLOAD);
+        String method = req.getMethod();
+        unpooled.release(req);
+        return method;
+    }
+}
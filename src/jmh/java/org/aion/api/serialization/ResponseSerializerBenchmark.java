@@ -0,0 +1,54 @@
+package org.aion.api.serialization;
+
+import java.util.concurrent.TimeUnit;
+import org.aion.api.RpcException;
+import org.aion.api.serialization.MethodExamples.ExampleDeserializer;
+import org.aion.api.serialization.MethodExamples.ExampleValue;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * {@link ResponseSerializer#serialize} of the example result of each method
+ * that has one (see {@link MethodExamples}), and
+ * {@link ResponseSerializer#serializeError} of an invalid params error.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ResponseSerializerBenchmark {
+    @Param({"eth_call2", "eth_getTransactionByHash2"})
+    public String method;
+
+    private ResponseSerializer serializer;
+    private JsonRpcResponse response;
+    private JsonRpcError error;
+
+    @Setup
+    public void setup() throws Exception {
+        serializer = new ResponseSerializer(MethodExamples.loader());
+
+        ExampleValue example = MethodExamples.of(method).result(0);
+        Object result = new ExampleDeserializer().deserialize(example.getValue(), example.getType());
+        response = new JsonRpcResponse(result, "1");
+        error = new JsonRpcError(RpcException.invalidParams("Wrong number of arguments"), "1");
+
+        // make sure the example survives validation, or this would measure the failure
+        serializer.serialize(response, method);
+    }
+
+    @Benchmark
+    public String serialize() throws Exception {
+        return serializer.serialize(response, method);
+    }
+
+    @Benchmark
+    public String serializeError() {
+        return serializer.serializeError(error);
+    }
+}
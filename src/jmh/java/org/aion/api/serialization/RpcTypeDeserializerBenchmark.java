@@ -0,0 +1,58 @@
+package org.aion.api.serialization;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.JsonNode;
+import java.util.concurrent.TimeUnit;
+import org.aion.api.schema.NamedRpcType;
+import org.aion.api.serialization.MethodExamples.ExampleDeserializer;
+import org.aion.api.serialization.MethodExamples.ExampleValue;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * {@link RpcTypeDeserializer} for a value of each root type, taken from the
+ * method examples (see {@link MethodExamples#ofRootType}), from a tree and
+ * from a parser.  The latter includes creating the parser.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class RpcTypeDeserializerBenchmark {
+    @Param({"DATA", "QUANTITY", "BOOLEAN", "OBJECT"})
+    public String rootType;
+
+    private final JsonFactory factory = new JsonFactory();
+    private RpcTypeDeserializer deserializer;
+    private NamedRpcType type;
+    private JsonNode tree;
+    private String json;
+
+    @Setup
+    public void setup() throws Exception {
+        ExampleValue example = MethodExamples.ofRootType(rootType);
+        deserializer = new ExampleDeserializer();
+        type = example.getType();
+        tree = example.getValue();
+        json = tree.toString();
+    }
+
+    @Benchmark
+    public Object fromTree() throws Exception {
+        return deserializer.deserialize(tree, type);
+    }
+
+    @Benchmark
+    public Object fromParser() throws Exception {
+        try (JsonParser parser = factory.createParser(json)) {
+            parser.nextToken();
+            return deserializer.deserialize(parser, type);
+        }
+    }
+}
@@ -1,6 +1,8 @@
 package org.aion.api;
 
 import java.util.Optional;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
 
 /**
  * Represents an exception in the RPC server.  It can be represented as a
@@ -54,4 +56,25 @@ public class RpcException extends Exception {
         // a kind of internal error -- in the 'implementation-defined server errors' range
         return new RpcException(-32001, "Schema validation error", data);
     }
+
+    /**
+     * @return the RpcException (possibly one of the generated *RpcExceptions)
+     * that the throwable is, or that it wraps -- such as the exception that an
+     * asynchronous call completed with; an internal error if there isn't one.
+     * The internal error has no data, so that nothing about the failure gets
+     * sent to clients; it's kept as the cause instead, for logging.
+     */
+    public static RpcException fromThrowable(Throwable t) {
+        Throwable cause = t;
+        while ((cause instanceof CompletionException || cause instanceof ExecutionException)
+                && cause.getCause() != null) {
+            cause = cause.getCause();
+        }
+        if (cause instanceof RpcException) {
+            return (RpcException) cause;
+        }
+        RpcException internal = internalError(null);
+        internal.initCause(cause);
+        return internal;
+    }
 }
@@ -2,12 +2,12 @@ package org.aion.api.codegen;
 
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import com.google.common.base.Charsets;
 import com.google.common.io.Resources;
 import freemarker.template.Configuration;
 import freemarker.template.TemplateExceptionHandler;
 import freemarker.template.Version;
 import org.aion.api.schema.*;
+import org.aion.api.serialization.RpcSchemaLoader;
 
 import java.io.IOException;
 import java.net.URL;
@@ -26,14 +26,20 @@ public class CodeGenUtils {
     }
 
     static List<String> loadMethodList() throws IOException {
-        URL methodsUrl = Resources.getResource("methods.txt");
-        String methods = Resources.toString(methodsUrl, Charsets.UTF_8);
-        String[] methodList = methods.split("\n");
-        return Arrays.asList(methodList);
+        return new RpcSchemaLoader().loadMethodList();
     }
 
     static List<NamedRpcType> retrieveObjectDerivedRpcTypes(ObjectMapper om,
                                                             JsonSchemaTypeResolver resolver)
+    throws IOException {
+        return retrieveDerivedRpcTypes(om, resolver)
+            .stream()
+            .filter(type -> type.getRootType().equals(RootTypes.OBJECT))
+            .collect(Collectors.toCollection(LinkedList::new));
+    }
+
+    static List<NamedRpcType> retrieveDerivedRpcTypes(ObjectMapper om,
+                                                      JsonSchemaTypeResolver resolver)
     throws IOException {
         // as per AionRpc convention, all non-root types live in
         // the resource schemas/type/derived.json.
@@ -41,21 +47,48 @@ public class CodeGenUtils {
         JsonNode derivedTypesRoot = om.readTree(url);
         JsonNode defs = derivedTypesRoot.get("definitions");
 
-        List<NamedRpcType> objectDerived = new LinkedList<>();
+        List<NamedRpcType> derived = new LinkedList<>();
         for (Iterator<Map.Entry<String,JsonNode>> it = defs.fields(); it.hasNext(); ) {
             Map.Entry<String,JsonNode> entry = it.next();
             String name = entry.getKey();
             JsonNode def = entry.getValue();
 
             RpcType type = resolver.resolveSchema(def, name);
+            derived.add(new NamedRpcType(name, type));
+        }
 
-            if(type.getRootType().equals(RootTypes.OBJECT)) {
-                objectDerived.add(new NamedRpcType(name, type));
-            }
+        return derived;
+    }
 
+    /**
+     * @return specs for the types that get a generated validator: the root
+     * types that users may refer to and every derived type
+     */
+    static List<ValidatorSpec> retrieveValidatorSpecs(ObjectMapper om,
+                                                      JsonSchemaTypeResolver resolver)
+    throws IOException {
+        List<ValidatorSpec> specs = new LinkedList<>();
+        specs.add(new ValidatorSpec(RootTypes.DATA));
+        specs.add(new ValidatorSpec(RootTypes.QUANTITY));
+        specs.add(new ValidatorSpec(RootTypes.BOOLEAN));
+        for(NamedRpcType type : retrieveDerivedRpcTypes(om, resolver)) {
+            specs.add(new ValidatorSpec(type));
         }
+        return specs;
+    }
 
-        return objectDerived;
+    /**
+     * @return specs for generating the streaming readers of the object types
+     * (see {@link ReaderSpec})
+     */
+    static List<ReaderSpec> retrieveReaderSpecs(ObjectMapper om,
+                                                JsonSchemaTypeResolver resolver)
+    throws IOException {
+        List<ReaderSpec> specs = new LinkedList<>();
+        for(NamedRpcType type : retrieveObjectDerivedRpcTypes(om, resolver)) {
+            specs.add(new ReaderSpec(type));
+        }
+        return specs;
     }
 
     static Map<String, RpcError> retrieveErrorDefinitions(ObjectMapper om)
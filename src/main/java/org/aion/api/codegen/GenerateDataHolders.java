@@ -51,18 +51,25 @@ public class GenerateDataHolders {
                     new FileOutputStream(outputRoot.toString() + "/" + filename));
             }
 
-            List<Field> fields = type.getContainedFields();
-
-            Map<String, Object> ftlMap = new HashMap<>();
-            ftlMap.put("javaClassName", type.getName());
-            ftlMap.put("fields", fields);
-
             System.out.println("creating " + filename);
 
-            freemarker.getTemplate("RpcDataHolder.java.ftl").process(ftlMap, consoleWriter);
+            generate(freemarker, type, consoleWriter);
         }
 
         return 0;
     }
 
+    /** Write the source of the data holder of an OBJECT type */
+    static void generate(Configuration freemarker, NamedRpcType type, Writer out)
+    throws IOException, TemplateException {
+        List<Field> fields = type.getContainedFields();
+
+        Map<String, Object> ftlMap = new HashMap<>();
+        ftlMap.put("javaClassName", type.getName());
+        ftlMap.put("fields", fields);
+        ftlMap.put("writer", new WriterSpec(type));
+
+        freemarker.getTemplate("RpcDataHolder.java.ftl").process(ftlMap, out);
+    }
+
 }
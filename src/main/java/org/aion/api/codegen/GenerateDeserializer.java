@@ -8,6 +8,7 @@ import java.io.OutputStreamWriter;
 import java.io.Writer;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.stream.Collectors;
 
 public class GenerateDeserializer {
     private final ObjectMapper om;
@@ -27,6 +28,13 @@ public class GenerateDeserializer {
 
         Map<String, Object> ftlMap = new HashMap<>();
         ftlMap.put("types", CodeGenUtils.retrieveObjectDerivedRpcTypes(om, resolver));
+        // DATA and QUANTITY params are validated while they're decoded (see
+        // RpcTypeDeserializer.deserializeHex), so their validators are only
+        // used by the validators of the OBJECT types they're fields of
+        ftlMap.put("validators", CodeGenUtils.retrieveValidatorSpecs(om, resolver).stream()
+            .filter(spec -> ! spec.getRootKind().equals("DATA") && ! spec.getRootKind().equals("QUANTITY"))
+            .collect(Collectors.toList()));
+        ftlMap.put("readers", CodeGenUtils.retrieveReaderSpecs(om, resolver));
 
         // Apply Freemarker template; output the result
         System.out.println("// == TemplatedDeserializer.java == ");
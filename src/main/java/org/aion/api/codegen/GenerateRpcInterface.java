@@ -10,6 +10,7 @@ import org.aion.api.serialization.RpcSchemaLoader;
 
 import java.io.OutputStreamWriter;
 import java.io.Writer;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.LinkedList;
 import java.util.List;
@@ -17,13 +18,17 @@ import java.util.Map;
 import java.util.stream.Collectors;
 
 public class GenerateRpcInterface {
+    /**
+     * Prints Rpc, or with {@code --async}, AsyncRpc: the same methods
+     * returning a CompletableFuture of their result, for AsyncRpcProcessor2
+     */
     public static void main(String[] args) throws Exception {
-        new GenerateRpcInterface().generateRpcInterface();
+        new GenerateRpcInterface().generateRpcInterface(Arrays.asList(args).contains("--async"));
     }
 
     private GenerateRpcInterface() { }
 
-    private void generateRpcInterface() throws Exception {
+    private void generateRpcInterface(boolean async) throws Exception {
         Configuration freemarker = CodeGenUtils.configureFreemarker();
 
         List<String> methods = CodeGenUtils.loadMethodList();
@@ -66,9 +71,10 @@ public class GenerateRpcInterface {
         ftlMap.put("javaMethodDeclarations", declarations);
 
         // Apply Freemarker template; output the result
-        System.out.println("// == Rpc.java == ");
+        String name = async ? "AsyncRpc" : "Rpc";
+        System.out.println("// == " + name + ".java == ");
         Writer consoleWriter = new OutputStreamWriter(System.out);
-        freemarker.getTemplate("Rpc.java.ftl").process(ftlMap, consoleWriter);
+        freemarker.getTemplate(name + ".java.ftl").process(ftlMap, consoleWriter);
     }
 
     public class JavaInterfaceMethodDeclaration {
@@ -95,6 +101,15 @@ public class GenerateRpcInterface {
             return returnType;
         }
 
+        /** @return the return type, boxed if it's primitive, i.e. for a CompletableFuture */
+        public String getBoxedReturnType() {
+            switch (returnType) {
+                case "boolean": return "Boolean";
+                case "long": return "Long";
+                default: return returnType;
+            }
+        }
+
         public List<String> getArgs() {
             return args;
         }
@@ -12,7 +12,9 @@ import java.io.IOException;
 import java.io.OutputStreamWriter;
 import java.io.Writer;
 import java.net.URL;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Comparator;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.LinkedList;
@@ -20,51 +22,114 @@ import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import org.aion.api.schema.JsonSchemaTypeResolver;
+import org.aion.api.schema.RootTypes;
+import org.aion.api.schema.RpcError;
 import org.aion.api.schema.RpcType;
 import org.aion.api.schema.SchemaException;
 import org.aion.api.schema.TypeRegistry;
 import org.aion.api.serialization.MethodDescriptor;
+import org.aion.api.serialization.MethodTable;
 import org.aion.api.serialization.RpcSchemaLoader;
 
 public class GenerateRpcProcessor {
 
+    /**
+     * Prints RpcProcessor2, or a variant of it:
+     *
+     * {@code --fused}: FusedRpcProcessor2, which reads each param straight
+     * into a typed local (see {@link org.aion.api.serialization.CallBinder}).
+     * It can be swapped for RpcProcessor2 to compare them.
+     *
+     * {@code --async}: AsyncRpcProcessor2, which calls the methods of AsyncRpc
+     * (see {@link GenerateRpcInterface}) without waiting for them to complete.
+     *
+     * {@code --metered}: MeteredRpcProcessor2, which wraps any of the above to
+     * record per-method latencies and per-code error counts (see
+     * {@link org.aion.api.dispatch.MeteredRequestProcessor}).
+     */
     public static void main(String[] args) throws Exception {
         GenerateRpcProcessor generateRpcProcessor = new GenerateRpcProcessor();
-        System.out.println("// === RpcProcessor2.java ===");
-        generateRpcProcessor.generateRpcProcessor2();
+        List<String> options = Arrays.asList(args);
+        if (options.contains("--fused")) {
+            System.out.println("// === FusedRpcProcessor2.java ===");
+            generateRpcProcessor.generate("FusedRpcProcessor2.java.ftl");
+        } else if (options.contains("--async")) {
+            System.out.println("// === AsyncRpcProcessor2.java ===");
+            generateRpcProcessor.generate("AsyncRpcProcessor2.java.ftl");
+        } else if (options.contains("--metered")) {
+            System.out.println("// === MeteredRpcProcessor2.java ===");
+            generateRpcProcessor.generate("MeteredRpcProcessor2.java.ftl");
+        } else {
+            System.out.println("// === RpcProcessor2.java ===");
+            generateRpcProcessor.generateRpcProcessor2();
+        }
     }
 
     public GenerateRpcProcessor() { }
 
     public void generateRpcProcessor2() throws IOException, TemplateException {
+        generate("RpcProcessor2.java.ftl");
+    }
+
+    private void generate(String template) throws IOException, TemplateException {
         JsonSchemaTypeResolver resolver = new JsonSchemaTypeResolver();
         Configuration freemarker = CodeGenUtils.configureFreemarker();
 
         List<JavaMethodCall> javaMethodCalls = new LinkedList<>();
-        List<String> methods = CodeGenUtils.loadMethodList();
+        // in id order, so that the generated switch agrees with the deserializer
+        List<String> methods = new MethodTable(CodeGenUtils.loadMethodList()).getMethods();
 
         for(String method: methods) {
             MethodDescriptor md = new RpcSchemaLoader().loadMethod(method);
-            List<String> paramTypes = resolveParamTypes(md.getRequest(), resolver);
+            List<RpcType> params = resolveParamTypes(md.getRequest(), resolver);
+            List<String> paramTypes = new LinkedList<>();
+            List<String> paramReaders = new LinkedList<>();
+            for (RpcType param : params) {
+                paramTypes.add(param.getJavaTypeName());
+                paramReaders.add(paramReader(param));
+            }
             RpcType retType = resolver.resolveSchema(md.getResponse());
             javaMethodCalls.add(new JavaMethodCall(
-                    paramTypes, retType.getJavaTypeName(), method));
+                    paramTypes, paramReaders, retType.getJavaTypeName(), method));
         }
 
-        Map<String, Object> ftlMap = Map.of("javaMethodCalls", javaMethodCalls);
+        // in order of code, so that the output doesn't depend on hash order
+        List<RpcError> errors = new ArrayList<>(
+            CodeGenUtils.retrieveErrorDefinitions(new ObjectMapper()).values());
+        errors.sort(Comparator.comparingInt(RpcError::getCode));
+
+        Map<String, Object> ftlMap = Map.of("javaMethodCalls", javaMethodCalls, "errors", errors);
         Writer consoleWriter = new OutputStreamWriter(System.out);
-        freemarker.getTemplate("RpcProcessor2.java.ftl")
+        freemarker.getTemplate(template)
                 .process(ftlMap, consoleWriter);
     }
 
-    private List<String> resolveParamTypes(JsonNode requestSchema,
+    /**
+     * @return expression that reads a param of the type from a ParamReader
+     * named params, without boxing or casting unless the type is an object
+     */
+    private static String paramReader(RpcType type) {
+        RpcType root = type.getRootType();
+        if (root.equals(RootTypes.BOOLEAN)) {
+            return "params.nextBoolean()";
+        } else if (root.equals(RootTypes.DATA)) {
+            return "params.nextData()";
+        } else if (root.equals(RootTypes.QUANTITY)) {
+            return type.getJavaTypeName().equals("long")
+                ? "params.nextLongQuantity()"
+                : "params.nextQuantity()";
+        }
+        return "(" + type.getJavaTypeName() + ") params.next()";
+    }
+
+    private List<RpcType> resolveParamTypes(JsonNode requestSchema,
                                            JsonSchemaTypeResolver resolver) {
         // process each parameter in the param list using the JsonSchemaTypeResolver.
         // the top-level schema for the request itself can't use the resolver though,
         // because of its restriction on arrays.  so, handle the array manually.
         JsonNode items = requestSchema.get("items");
         // need a set of types for each param since overloads are allowed
-        List<String> paramTypes = new LinkedList<>();
+        List<RpcType> paramTypes = new LinkedList<>();
 
         if(items == null || ! items.isArray()) {
             throw new SchemaException("items must be an array.");
@@ -72,7 +137,7 @@ public class GenerateRpcProcessor {
         for(Iterator<JsonNode> it = items.elements(); it.hasNext(); ) {
             JsonNode param = it.next();
             RpcType t = resolver.resolveSchema(param);
-            paramTypes.add(t.getJavaTypeName()); //
+            paramTypes.add(t);
         }
 
         return paramTypes;
@@ -0,0 +1,62 @@
+package org.aion.api.codegen;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import freemarker.template.Configuration;
+import freemarker.template.TemplateException;
+import org.aion.api.schema.JsonSchemaTypeResolver;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.util.HashMap;
+import java.util.Map;
+
+public class GenerateValidators {
+    private final ObjectMapper om;
+    private final JsonSchemaTypeResolver resolver;
+
+    public static void main(String[] args) throws Exception {
+         System.exit(new GenerateValidators().go(args));
+    }
+
+    public GenerateValidators() {
+        this.om = new ObjectMapper();
+        this.resolver = new JsonSchemaTypeResolver();
+    }
+
+    String subpath = "/modApiServer/src/org/aion/api/server/rpc2/autogen/validators/";
+
+    public int go(String[] args) throws IOException, TemplateException {
+        boolean useStdout = args.length != 1;
+
+        File outputRoot = null;
+        Writer consoleWriter = null;
+        if(useStdout) {
+            consoleWriter = new OutputStreamWriter(System.out);
+        } else {
+            outputRoot = new File(args[0] + subpath);
+            if(! Files.exists(outputRoot.toPath())) {
+                System.out.println("Directory does not exist, so giving up: " + outputRoot.toString());
+            }
+        }
+
+        Configuration freemarker = CodeGenUtils.configureFreemarker();
+
+        for(ValidatorSpec spec : CodeGenUtils.retrieveValidatorSpecs(om, resolver)) {
+            String filename = spec.getName() + "Validator.java";
+            if(outputRoot != null) {
+                consoleWriter = new OutputStreamWriter(
+                    new FileOutputStream(outputRoot.toString() + "/" + filename));
+            }
+
+            Map<String, Object> ftlMap = new HashMap<>();
+            ftlMap.put("type", spec);
+
+            System.out.println("creating " + filename);
+
+            freemarker.getTemplate("RpcTypeValidator.java.ftl").process(ftlMap, consoleWriter);
+        }
+
+        return 0;
+    }
+
+}
@@ -4,6 +4,8 @@ import java.util.List;
 
 public class JavaMethodCall {
     private final List<String> inputTypes;
+    /** Expression that reads each param from a ParamReader named params; see FusedRpcProcessor2 */
+    private final List<String> paramReaders;
     private final String outputType;
     private final String methodName;
 
@@ -11,6 +13,10 @@ public class JavaMethodCall {
         return inputTypes;
     }
 
+    public List<String> getParamReaders() {
+        return paramReaders;
+    }
+
     public String getOutputType() {
         return outputType;
     }
@@ -20,7 +26,15 @@ public class JavaMethodCall {
     }
 
     public JavaMethodCall(List<String> inputTypes, String outputType, String methodName) {
+        this(inputTypes, List.of(), outputType, methodName);
+    }
+
+    public JavaMethodCall(List<String> inputTypes,
+                          List<String> paramReaders,
+                          String outputType,
+                          String methodName) {
         this.inputTypes = inputTypes;
+        this.paramReaders = paramReaders;
         this.outputType = outputType;
         this.methodName = methodName;
     }
@@ -0,0 +1,158 @@
+package org.aion.api.codegen;
+
+import org.aion.api.schema.Field;
+import org.aion.api.schema.LengthConstraints;
+import org.aion.api.schema.NamedRpcType;
+import org.aion.api.schema.RootTypes;
+import org.aion.api.schema.RpcType;
+import org.aion.api.schema.SchemaRestrictionException;
+
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * What the deserializer template needs to know about an OBJECT type in order
+ * to generate a method that binds its fields straight from a JsonParser.
+ *
+ * For each field, this works out the Java expression that reads it: DATA and
+ * QUANTITY fields whose types only have length constraints, and BOOLEAN
+ * fields, are read with the static readers of RpcTypeDeserializer (so the
+ * bounds end up as constants in the generated code); anything else goes back
+ * through RpcTypeDeserializer.deserialize(JsonParser, NamedRpcType).  Nullable
+ * fields are read as null when they're null.
+ */
+public class ReaderSpec {
+    /** Names used by the generated method itself, which fields can't be named */
+    private static final Set<String> RESERVED = Set.of("parser", "type", "fieldTypes", "seen", "field");
+
+    private final String name;
+    private final List<FieldReader> fields;
+    private final boolean usesFieldTypes;
+
+    public ReaderSpec(NamedRpcType type) {
+        if(! type.getRootType().equals(RootTypes.OBJECT)) {
+            throw new IllegalArgumentException("Not an object type: " + type.getName());
+        }
+        this.name = type.getName();
+        this.fields = new LinkedList<>();
+
+        List<Field> typeFields = type.getContainedFields();
+        if(typeFields.size() > Long.SIZE) {
+            // the generated code tracks which fields it has seen in a long
+            throw new SchemaRestrictionException(
+                "Can't generate reader for type " + name + ": more than 64 fields");
+        }
+
+        boolean generic = false;
+        for(int ix = 0; ix < typeFields.size(); ++ix) {
+            FieldReader reader = new FieldReader(typeFields.get(ix), ix);
+            generic |= reader.isGeneric();
+            fields.add(reader);
+        }
+        this.usesFieldTypes = generic;
+    }
+
+    /** @return name of the RPC type; also the name of the POD class */
+    public String getName() {
+        return name;
+    }
+
+    public List<FieldReader> getFields() {
+        return fields;
+    }
+
+    /** @return whether any field is read through the generic deserializer */
+    public boolean isUsesFieldTypes() {
+        return usesFieldTypes;
+    }
+
+    /** @return bitmask with one bit set per field */
+    public String getAllFieldsMask() {
+        return fields.size() == Long.SIZE ? "-1L" : ((1L << fields.size()) - 1) + "L";
+    }
+
+    /** A field of an OBJECT type and how to read it */
+    public static class FieldReader {
+        private final String name;
+        private final String variableName;
+        private final String javaTypeName;
+        private final int index;
+        private final String readExpression;
+        private final boolean generic;
+
+        private FieldReader(Field field, int index) {
+            this.name = field.getName();
+            this.variableName = RESERVED.contains(name) ? name + "_" : name;
+            this.javaTypeName = field.getType().getJavaTypeName();
+            this.index = index;
+
+            NamedRpcType type = field.getType();
+            RpcType root = type.getRootType();
+            LengthConstraints lengths = LengthConstraints.of(type);
+            String read;
+            if(lengths != null) {
+                String bounds = lengths.getMinLength() + ", " + (lengths.hasMaxLength()
+                    ? String.valueOf(lengths.getMaxLength())
+                    : "Integer.MAX_VALUE");
+                if(root.equals(RootTypes.DATA)) {
+                    read = "readData(parser, " + bounds + ")";
+                } else if(javaTypeName.equals("long")) {
+                    read = "readLongQuantity(parser, " + bounds + ")";
+                } else {
+                    read = "readQuantity(parser, " + bounds + ")";
+                }
+                this.generic = false;
+            } else if(type.equals(RootTypes.BOOLEAN)) {
+                read = "readBoolean(parser)";
+                this.generic = false;
+            } else {
+                read = String.format(
+                    "(%s) deserialize(parser, fieldTypes[%d])", javaTypeName, index);
+                this.generic = true;
+            }
+            this.readExpression = field.isNullable()
+                ? "parser.currentToken() == JsonToken.VALUE_NULL ? null : " + read
+                : read;
+        }
+
+        /** @return name of the property in JSON */
+        public String getName() {
+            return name;
+        }
+
+        /** @return name of the local variable the field is read into */
+        public String getVariableName() {
+            return variableName;
+        }
+
+        public String getJavaTypeName() {
+            return javaTypeName;
+        }
+
+        public int getIndex() {
+            return index;
+        }
+
+        /** @return Java expression that reads the field from {@code parser} */
+        public String getReadExpression() {
+            return readExpression;
+        }
+
+        /** @return initial value of the local variable, before the field is read */
+        public String getDefaultValue() {
+            switch(javaTypeName) {
+                case "long":
+                    return "0L";
+                case "boolean":
+                    return "false";
+                default:
+                    return "null";
+            }
+        }
+
+        public boolean isGeneric() {
+            return generic;
+        }
+    }
+}
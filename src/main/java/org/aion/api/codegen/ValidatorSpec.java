@@ -0,0 +1,140 @@
+package org.aion.api.codegen;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import org.aion.api.schema.Field;
+import org.aion.api.schema.LengthConstraints;
+import org.aion.api.schema.NamedRpcType;
+import org.aion.api.schema.RootTypes;
+import org.aion.api.schema.RpcType;
+import org.aion.api.schema.SchemaRestrictionException;
+
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * What the validator template needs to know about an {@link RpcType} in order
+ * to generate a validator class for it.
+ *
+ * Only types whose schema can be expressed as a handful of straight-line
+ * checks are supported: DATA and QUANTITY types with length constraints and
+ * OBJECT types with properties (and optionally required properties).  Anything
+ * else results in {@link SchemaRestrictionException} so that we never generate
+ * a validator that's more lenient than the schema.
+ */
+public class ValidatorSpec {
+    private static final Set<String> OBJECT_KEYWORDS = Set.of(
+        "type", "properties", "required", "description", "$comment", "title", "examples");
+
+    private final String name;
+    private final String rootKind;
+    private final int minLength;
+    private final int maxLength;
+    private final List<FieldSpec> fields;
+    private final List<String> required;
+
+    public ValidatorSpec(NamedRpcType type) {
+        this.name = type.getName();
+        this.fields = new LinkedList<>();
+        this.required = new LinkedList<>();
+
+        RpcType root = type.getRootType();
+        if(root.equals(RootTypes.DATA) || root.equals(RootTypes.QUANTITY)) {
+            LengthConstraints lengths = LengthConstraints.of(type);
+            if(lengths == null) {
+                throw new SchemaRestrictionException(
+                    "Can't generate validator for type " + name
+                        + ": only minLength and maxLength constraints are supported");
+            }
+            this.rootKind = root.equals(RootTypes.DATA) ? "DATA" : "QUANTITY";
+            this.minLength = lengths.getMinLength();
+            this.maxLength = lengths.getMaxLength();
+        } else if(root.equals(RootTypes.BOOLEAN)) {
+            this.rootKind = "BOOLEAN";
+            this.minLength = 0;
+            this.maxLength = Integer.MAX_VALUE;
+        } else if(root.equals(RootTypes.OBJECT)) {
+            this.rootKind = "OBJECT";
+            this.minLength = 0;
+            this.maxLength = Integer.MAX_VALUE;
+
+            JsonNode def = type.getDefinition();
+            for(Iterator<String> it = def.fieldNames(); it.hasNext(); ) {
+                String keyword = it.next();
+                if(! OBJECT_KEYWORDS.contains(keyword)) {
+                    throw new SchemaRestrictionException(
+                        "Can't generate validator for type " + name
+                            + ": unsupported keyword " + keyword);
+                }
+            }
+            for(Field f : type.getContainedFields()) {
+                fields.add(new FieldSpec(f.getName(), f.getType().getName(), f.isNullable()));
+            }
+            if(def.has("required")) {
+                for(JsonNode r : def.get("required")) {
+                    required.add(r.asText());
+                }
+            }
+        } else {
+            throw new SchemaRestrictionException(
+                "Can't generate validator for type " + name + ": unknown root type");
+        }
+    }
+
+    /** @return name of the RPC type; the validator class is named after it */
+    public String getName() {
+        return name;
+    }
+
+    /** @return name of the root type: DATA, QUANTITY, BOOLEAN, or OBJECT */
+    public String getRootKind() {
+        return rootKind;
+    }
+
+    public int getMinLength() {
+        return minLength;
+    }
+
+    public int getMaxLength() {
+        return maxLength;
+    }
+
+    public boolean isMaxLengthBounded() {
+        return maxLength != Integer.MAX_VALUE;
+    }
+
+    public List<FieldSpec> getFields() {
+        return fields;
+    }
+
+    public List<String> getRequired() {
+        return required;
+    }
+
+    /** A property of an OBJECT type and the name of the type it must conform to */
+    public static class FieldSpec {
+        private final String name;
+        private final String typeName;
+        private final boolean nullable;
+
+        public FieldSpec(String name, String typeName, boolean nullable) {
+            this.name = name;
+            this.typeName = typeName;
+            this.nullable = nullable;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public String getTypeName() {
+            return typeName;
+        }
+
+        /** @return whether the property may also be null */
+        public boolean isNullable() {
+            return nullable;
+        }
+    }
+}
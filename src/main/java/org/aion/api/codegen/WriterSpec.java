@@ -0,0 +1,105 @@
+package org.aion.api.codegen;
+
+import org.aion.api.schema.Field;
+import org.aion.api.schema.LengthConstraints;
+import org.aion.api.schema.NamedRpcType;
+import org.aion.api.schema.RootTypes;
+import org.aion.api.schema.RpcType;
+
+import java.util.LinkedList;
+import java.util.List;
+
+/**
+ * What the data holder template needs to know about an OBJECT type in order
+ * to generate its {@code writeTo} and {@code validate} methods (see
+ * org.aion.api.serialization.JsonWritable).
+ *
+ * For each field, this works out the statement that writes it and the
+ * statement that checks it.  Only DATA and QUANTITY fields whose types have
+ * nothing but length constraints get their bounds checked; other fields are
+ * only checked for being present.  Nullable fields are only checked when
+ * they aren't null.
+ */
+public class WriterSpec {
+    private final List<FieldWriter> fields;
+
+    public WriterSpec(NamedRpcType type) {
+        if(! type.getRootType().equals(RootTypes.OBJECT)) {
+            throw new IllegalArgumentException("Not an object type: " + type.getName());
+        }
+        this.fields = new LinkedList<>();
+        for(Field field : type.getContainedFields()) {
+            fields.add(new FieldWriter(field));
+        }
+    }
+
+    /** @return the fields, in schema order */
+    public List<FieldWriter> getFields() {
+        return fields;
+    }
+
+    /** A field of an OBJECT type and how to write it */
+    public static class FieldWriter {
+        private final String name;
+        private final String writeStatement;
+        private final String checkStatement;
+
+        private FieldWriter(Field field) {
+            this.name = field.getName();
+
+            NamedRpcType type = field.getType();
+            RpcType root = type.getRootType();
+            String value = "this." + name;
+            LengthConstraints lengths = LengthConstraints.of(type);
+            String bounds = lengths == null
+                ? null
+                : lengths.getMinLength() + ", " + (lengths.hasMaxLength()
+                    ? String.valueOf(lengths.getMaxLength())
+                    : "Integer.MAX_VALUE");
+
+            String check;
+            if(type.equals(RootTypes.BOOLEAN)) {
+                this.writeStatement = String.format("gen.writeBoolean(%s);", value);
+                check = null;
+            } else if(root.equals(RootTypes.DATA) || root.equals(RootTypes.QUANTITY)) {
+                String suffix = root.equals(RootTypes.DATA) ? "Data" : "Quantity";
+                this.writeStatement = String.format(
+                    "JsonWritable.write%s(gen, %s);", suffix, value);
+                if(bounds != null) {
+                    check = String.format(
+                        "JsonWritable.check%s(\"%s\", %s, %s);", suffix, name, value, bounds);
+                } else if(field.isNullable()) {
+                    // null or any value of the root type, so nothing to check
+                    check = null;
+                } else {
+                    check = String.format(
+                        "JsonWritable.checkPresent(\"%s\", %s);", name, value);
+                }
+            } else {
+                this.writeStatement = String.format("JsonWritable.writeObject(gen, %s);", value);
+                check = String.format(
+                    "JsonWritable.checkObject(\"%s\", %s);", name, value);
+            }
+
+            // the checks all start by checking that the value is present
+            this.checkStatement = check != null && field.isNullable()
+                ? String.format("if (%s != null) { %s }", value, check)
+                : check;
+        }
+
+        /** @return name of the property in JSON; also the name of the field */
+        public String getName() {
+            return name;
+        }
+
+        /** @return Java statement that writes the field's value to {@code gen} */
+        public String getWriteStatement() {
+            return writeStatement;
+        }
+
+        /** @return Java statement that checks the field's value, or null if there's nothing to check */
+        public String getCheckStatement() {
+            return checkStatement;
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package org.aion.api.dispatch;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import org.aion.api.RpcException;
+import org.aion.api.serialization.JsonRpcRequest;
+
+/**
+ * Executes a deserialized JsonRpc request without blocking the calling
+ * thread.  Implemented by the generated AsyncRpcProcessor2, which calls the
+ * corresponding method of the kernel's AsyncRpc implementation.
+ *
+ * {@link RpcDispatcher#dispatchAsync(String)} uses this so that a call that
+ * waits on something (i.e. the VM) doesn't hold on to a thread meanwhile.
+ */
+public interface AsyncRequestProcessor extends RequestProcessor {
+    /**
+     * @param req request with its params already deserialized; it, and its
+     * params, must not be used once the returned future has completed
+     * @return result of the method call, to be serialized into the response;
+     * completes exceptionally with an RpcException if the call failed
+     * @throws RpcException if the call couldn't be started, i.e. because the
+     * method doesn't exist
+     */
+    CompletableFuture<Object> executeAsync(JsonRpcRequest req) throws RpcException;
+
+    /** Blocks until {@link #executeAsync} completes */
+    @Override
+    default Object execute(JsonRpcRequest req) throws RpcException {
+        try {
+            return executeAsync(req).join();
+        } catch (CompletionException ce) {
+            throw RpcException.fromThrowable(ce);
+        }
+    }
+
+    /**
+     * @return future of the result of an asynchronous call that completes
+     * exceptionally with an RpcException (see {@link RpcException#fromThrowable})
+     * whenever the call does
+     */
+    static CompletableFuture<Object> completion(CompletionStage<?> call) {
+        CompletableFuture<Object> result = new CompletableFuture<>();
+        if (call == null) {
+            result.completeExceptionally(RpcException.internalError("Method returned no future"));
+            return result;
+        }
+        call.whenComplete((value, error) -> {
+            if (error == null) {
+                result.complete(value);
+            } else {
+                result.completeExceptionally(RpcException.fromThrowable(error));
+            }
+        });
+        return result;
+    }
+}
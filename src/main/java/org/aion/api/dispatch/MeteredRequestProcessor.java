@@ -0,0 +1,119 @@
+package org.aion.api.dispatch;
+
+import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+import org.aion.api.RpcException;
+import org.aion.api.metrics.RpcMetrics;
+import org.aion.api.serialization.BoundCall;
+import org.aion.api.serialization.CallBinder;
+import org.aion.api.serialization.JsonRpcRequest;
+import org.aion.api.serialization.MethodTable;
+import org.aion.api.serialization.ParamReader;
+
+/**
+ * Executes requests with another processor, recording the latency and the
+ * outcome of each call into {@link RpcMetrics}: the call counts and latency
+ * histogram of its method, and the code of the error if it failed.  Recording
+ * is lock-free and doesn't allocate, so this can stay on in production.
+ *
+ * Create one with {@link #wrap}, which keeps whatever else the processor is
+ * -- a {@link CallBinder} or an {@link AsyncRequestProcessor} -- so that the
+ * {@link RpcDispatcher} handles it the same way as the processor itself.
+ * The generated MeteredRpcProcessor2 does so with metrics for all methods
+ * and for the errors in errors.json.
+ */
+public class MeteredRequestProcessor implements RequestProcessor {
+    final RequestProcessor processor;
+    final RpcMetrics metrics;
+
+    private MeteredRequestProcessor(RequestProcessor processor, RpcMetrics metrics) {
+        this.processor = processor;
+        this.metrics = metrics;
+    }
+
+    /**
+     * @param processor executes requests, i.e. the generated RpcProcessor2,
+     * FusedRpcProcessor2 or AsyncRpcProcessor2
+     * @param metrics where to record the calls
+     * @return processor that executes requests with the given one
+     */
+    public static MeteredRequestProcessor wrap(RequestProcessor processor, RpcMetrics metrics) {
+        if (processor instanceof AsyncRequestProcessor) {
+            return new Async(processor, metrics);
+        }
+        if (processor instanceof CallBinder) {
+            return new Binding(processor, metrics);
+        }
+        return new MeteredRequestProcessor(processor, metrics);
+    }
+
+    public RpcMetrics getMetrics() {
+        return metrics;
+    }
+
+    @Override
+    public Object execute(JsonRpcRequest req) throws RpcException {
+        int methodId = methodId(req);
+        long start = System.nanoTime();
+        try {
+            Object result = processor.execute(req);
+            metrics.recordCall(methodId, System.nanoTime() - start);
+            return result;
+        } catch (RpcException rx) {
+            metrics.recordError(methodId, rx.getCode(), System.nanoTime() - start);
+            throw rx;
+        } catch (RuntimeException rx) {
+            // the dispatcher turns it into an internal error
+            metrics.recordError(methodId, RpcMetrics.INTERNAL_ERROR, System.nanoTime() - start);
+            throw rx;
+        }
+    }
+
+    int methodId(JsonRpcRequest req) {
+        int methodId = req.getMethodId();
+        return methodId != MethodTable.UNKNOWN ? methodId : metrics.methodId(req.getMethod());
+    }
+
+    /** For FusedRpcProcessor2: binds calls with it, and meters their execution */
+    private static class Binding extends MeteredRequestProcessor implements CallBinder {
+        private Binding(RequestProcessor processor, RpcMetrics metrics) {
+            super(processor, metrics);
+        }
+
+        @Override
+        public BoundCall bind(int methodId, ParamReader params) throws IOException {
+            return ((CallBinder) processor).bind(methodId, params);
+        }
+    }
+
+    /** For AsyncRpcProcessor2: records each call once its future completes */
+    private static class Async extends MeteredRequestProcessor implements AsyncRequestProcessor {
+        private Async(RequestProcessor processor, RpcMetrics metrics) {
+            super(processor, metrics);
+        }
+
+        @Override
+        public CompletableFuture<Object> executeAsync(JsonRpcRequest req) throws RpcException {
+            int methodId = methodId(req);
+            long start = System.nanoTime();
+            final CompletableFuture<Object> result;
+            try {
+                result = ((AsyncRequestProcessor) processor).executeAsync(req);
+            } catch (RpcException rx) {
+                metrics.recordError(methodId, rx.getCode(), System.nanoTime() - start);
+                throw rx;
+            } catch (RuntimeException rx) {
+                metrics.recordError(methodId, RpcMetrics.INTERNAL_ERROR, System.nanoTime() - start);
+                throw rx;
+            }
+            return result.whenComplete((value, error) -> {
+                long nanos = System.nanoTime() - start;
+                if (error == null) {
+                    metrics.recordCall(methodId, nanos);
+                } else {
+                    metrics.recordError(methodId, RpcException.fromThrowable(error).getCode(), nanos);
+                }
+            });
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package org.aion.api.dispatch;
+
+import org.aion.api.RpcException;
+import org.aion.api.serialization.JsonRpcRequest;
+
+/**
+ * Executes a deserialized JsonRpc request.  Implemented by the generated
+ * RpcProcessor2, which calls the corresponding method of the kernel's Rpc
+ * implementation.
+ */
+public interface RequestProcessor {
+    /**
+     * @param req request with its params already deserialized
+     * @return result of the method call, to be serialized into the response
+     * @throws RpcException if the method call failed
+     */
+    Object execute(JsonRpcRequest req) throws RpcException;
+}
@@ -0,0 +1,429 @@
+package org.aion.api.dispatch;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.google.common.annotations.VisibleForTesting;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import org.aion.api.RpcException;
+import org.aion.api.jfr.RpcEvents;
+import org.aion.api.jfr.RpcExecutionEvent;
+import org.aion.api.jfr.RpcSerializationEvent;
+import org.aion.api.metrics.RpcPhase;
+import org.aion.api.metrics.RpcTracer;
+import org.aion.api.schema.SchemaValidationException;
+import org.aion.api.serialization.CachingRpcSchemaLoader;
+import org.aion.api.serialization.CallBinder;
+import org.aion.api.serialization.JsonRpcError;
+import org.aion.api.serialization.JsonRpcRequest;
+import org.aion.api.serialization.JsonRpcResponse;
+import org.aion.api.serialization.RequestDeserializer;
+import org.aion.api.serialization.ResponseSerializer;
+import org.aion.api.serialization.RpcSchemaLoader;
+import org.aion.api.serialization.RpcTypeDeserializer;
+
+/**
+ * Takes a JsonRpc payload all the way to the response payload: deserializes
+ * the request, executes it with a {@link RequestProcessor}, and serializes
+ * the result or error.
+ *
+ * Batches (see https://www.jsonrpc.org/specification#batch) are supported.
+ * The requests of a batch are executed concurrently on the given executor and
+ * the responses are returned in the same order as the requests.  As per the
+ * spec, requests in a batch without an id are notifications and get no
+ * response.  Single (non-batch) requests are executed on the calling thread
+ * and always get a response.
+ *
+ * If the {@link RequestDeserializer} pools requests, each request is released
+ * as soon as its response has been serialized, so the processor must not keep
+ * hold of a request or its params after returning.
+ *
+ * If the processor is also a {@link CallBinder} (i.e. the generated
+ * FusedRpcProcessor2), requests are deserialized with it, so that their
+ * params are bound straight to a call rather than to an Object[].
+ *
+ * With an {@link AsyncRequestProcessor} (i.e. the generated
+ * AsyncRpcProcessor2), {@link #dispatchAsync(String)} handles payloads
+ * without blocking a thread for as long as each call takes.
+ *
+ * With an {@link RpcTracer} (see {@link #setTracer}), the time spent in each
+ * phase of handling each request is reported to it.  Each phase is also
+ * emitted as a JFR event (see {@link RpcEvents}), for any recording that has
+ * them enabled.
+ *
+ * Failures other than RpcExceptions are logged, and clients only get a
+ * generic internal error for them, so that no details of the server leak
+ * into responses.
+ */
+public class RpcDispatcher implements AutoCloseable {
+    private static final Logger LOG = Logger.getLogger(RpcDispatcher.class.getName());
+
+    private final RequestProcessor processor;
+    /** The processor, if it binds calls itself; otherwise null */
+    private final CallBinder binder;
+    private final RequestDeserializer deserializer;
+    private final ResponseSerializer serializer;
+    private final Executor executor;
+    /** The executor, if the dispatcher created it and has to shut it down; otherwise null */
+    private ExecutorService ownExecutor;
+    /**
+     * Volatile since it's set on another thread than the ones handling
+     * requests; each phase reads it once, so that the phase both starts and
+     * ends with the same tracer
+     */
+    private volatile RpcTracer tracer = RpcTracer.NOOP;
+
+    /**
+     * Constructor.  Requests of a batch are executed on a ForkJoinPool with
+     * as many threads as there are available processors, which is shut down
+     * by {@link #close()}.
+     *
+     * @param processor executes requests
+     * @param typeDeserializer deserializer for the types of the request params
+     */
+    public RpcDispatcher(RequestProcessor processor,
+                         RpcTypeDeserializer typeDeserializer) {
+        this(processor,
+            typeDeserializer,
+            new ForkJoinPool(Runtime.getRuntime().availableProcessors()));
+        this.ownExecutor = (ExecutorService) executor;
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param processor executes requests
+     * @param typeDeserializer deserializer for the types of the request params
+     * @param executor executor for requests of a batch
+     */
+    public RpcDispatcher(RequestProcessor processor,
+                         RpcTypeDeserializer typeDeserializer,
+                         Executor executor) {
+        this(processor, typeDeserializer, executor, false);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param processor executes requests
+     * @param typeDeserializer deserializer for the types of the request params
+     * @param executor executor for requests of a batch
+     * @param pooling whether requests and their params arrays are reused (see
+     * {@link RequestDeserializer#release(JsonRpcRequest)}); only enable this if
+     * the processor doesn't keep hold of them after returning
+     */
+    public RpcDispatcher(RequestProcessor processor,
+                         RpcTypeDeserializer typeDeserializer,
+                         Executor executor,
+                         boolean pooling) {
+        this(processor, typeDeserializer, new CachingRpcSchemaLoader(), executor, pooling);
+    }
+
+    private RpcDispatcher(RequestProcessor processor,
+                          RpcTypeDeserializer typeDeserializer,
+                          RpcSchemaLoader schemaLoader,
+                          Executor executor,
+                          boolean pooling) {
+        this(processor,
+            new RequestDeserializer(typeDeserializer, schemaLoader, pooling),
+            new ResponseSerializer(schemaLoader),
+            executor);
+    }
+
+    @VisibleForTesting
+    public RpcDispatcher(RequestProcessor processor,
+                         RequestDeserializer deserializer,
+                         ResponseSerializer serializer,
+                         Executor executor) {
+        this.processor = processor;
+        this.binder = processor instanceof CallBinder ? (CallBinder) processor : null;
+        this.deserializer = deserializer;
+        this.serializer = serializer;
+        this.executor = executor;
+    }
+
+    /**
+     * Have the time spent in each phase (see {@link RpcPhase}) of handling
+     * each request reported to the tracer.  Set it before dispatching any
+     * payloads; by default, nothing is measured.
+     */
+    public void setTracer(RpcTracer tracer) {
+        this.tracer = tracer;
+        deserializer.setTracer(tracer);
+    }
+
+    /**
+     * Handle a JsonRpc payload, which may be a single request or a batch.
+     *
+     * @param payload JSON of the request or batch
+     * @return JSON of the response (or of the array of responses for a batch),
+     * or null if there is nothing to respond with because the payload was a
+     * batch consisting only of notifications
+     */
+    public String dispatch(String payload) {
+        if (!RequestDeserializer.isBatch(payload)) {
+            return handle(payload);
+        }
+
+        final List<JsonNode> requests;
+        try {
+            requests = deserializer.splitBatch(payload);
+        } catch (RpcException rx) {
+            // when the batch itself is bad, the response is a single error
+            return rpcError(rx, null);
+        }
+
+        List<CompletableFuture<String>> responses = new ArrayList<>(requests.size());
+        for (JsonNode request : requests) {
+            responses.add(CompletableFuture.supplyAsync(() -> handle(request), executor));
+        }
+        return batchResponse(responses);
+    }
+
+    /**
+     * Same as {@link #dispatch(String)}, but without blocking on the method
+     * calls.  If the processor is an {@link AsyncRequestProcessor}, a call
+     * only holds on to a thread while it's actually running, so a few threads
+     * can keep many slow calls in flight; other processors are executed on
+     * the calling thread.
+     *
+     * The payload is deserialized on the calling thread, and each response is
+     * serialized on whichever thread completes its call.  All requests of a
+     * batch are started before any of them is waited on; the executor isn't
+     * used.
+     *
+     * @return future of what {@link #dispatch(String)} would return
+     */
+    public CompletableFuture<String> dispatchAsync(String payload) {
+        if (!RequestDeserializer.isBatch(payload)) {
+            return handleAsync(payload);
+        }
+
+        final List<JsonNode> requests;
+        try {
+            requests = deserializer.splitBatch(payload);
+        } catch (RpcException rx) {
+            return CompletableFuture.completedFuture(rpcError(rx, null));
+        }
+
+        List<CompletableFuture<String>> responses = new ArrayList<>(requests.size());
+        for (JsonNode request : requests) {
+            responses.add(handleAsync(request));
+        }
+        return CompletableFuture.allOf(responses.toArray(new CompletableFuture<?>[0]))
+            .thenApply(done -> batchResponse(responses));
+    }
+
+    /** @return JSON array of the non-null responses; null if there are none */
+    private static String batchResponse(List<CompletableFuture<String>> responses) {
+        StringBuilder batchResponse = new StringBuilder("[");
+        boolean empty = true;
+        for (CompletableFuture<String> response : responses) {
+            String json = response.join();
+            if (json == null) {
+                continue;
+            }
+            if (!empty) {
+                batchResponse.append(',');
+            }
+            batchResponse.append(json);
+            empty = false;
+        }
+        return empty ? null : batchResponse.append(']').toString();
+    }
+
+    private String handle(String payload) {
+        JsonRpcRequest req = null;
+        try {
+            req = binder != null
+                ? deserializer.deserialize(payload, binder)
+                : deserializer.deserialize(payload);
+            return respond(req);
+        } catch (RpcException rx) {
+            String id = req != null ? req.getId() : deserializer.idOfRequest(payload);
+            return rpcError(rx, id);
+        } catch (IOException iox) {
+            return internalError(iox, deserializer.idOfRequest(payload));
+        } catch (RuntimeException rx) {
+            return internalError(rx, req != null ? req.getId() : deserializer.idOfRequest(payload));
+        } finally {
+            if (req != null) {
+                deserializer.release(req);
+            }
+        }
+    }
+
+    /** @return response for an element of a batch; null if it's a notification */
+    private String handle(JsonNode request) {
+        boolean notification = request.isObject() && !request.has("id");
+
+        String response;
+        JsonRpcRequest req = null;
+        try {
+            req = deserializer.deserialize(request, binder);
+            response = respond(req);
+        } catch (RpcException rx) {
+            response = rpcError(rx, deserializer.idOfRequest(request));
+        } catch (IOException | RuntimeException ex) {
+            // don't let one bad request take down the rest of the batch
+            response = internalError(ex, deserializer.idOfRequest(request));
+        } finally {
+            if (req != null) {
+                deserializer.release(req);
+            }
+        }
+
+        return notification ? null : response;
+    }
+
+    private CompletableFuture<String> handleAsync(String payload) {
+        final JsonRpcRequest req;
+        try {
+            req = binder != null
+                ? deserializer.deserialize(payload, binder)
+                : deserializer.deserialize(payload);
+        } catch (RpcException rx) {
+            return CompletableFuture.completedFuture(
+                rpcError(rx, deserializer.idOfRequest(payload)));
+        } catch (IOException | RuntimeException ex) {
+            return CompletableFuture.completedFuture(
+                internalError(ex, deserializer.idOfRequest(payload)));
+        }
+        return respondAsync(req);
+    }
+
+    /** @return future of the response for an element of a batch, which is null if it's a notification */
+    private CompletableFuture<String> handleAsync(JsonNode request) {
+        boolean notification = request.isObject() && !request.has("id");
+
+        CompletableFuture<String> response;
+        try {
+            response = respondAsync(deserializer.deserialize(request, binder));
+        } catch (RpcException rx) {
+            response = CompletableFuture.completedFuture(
+                rpcError(rx, deserializer.idOfRequest(request)));
+        } catch (IOException | RuntimeException ex) {
+            response = CompletableFuture.completedFuture(
+                internalError(ex, deserializer.idOfRequest(request)));
+        }
+
+        return notification ? response.thenApply(json -> null) : response;
+    }
+
+    /**
+     * Execute the request and serialize its result or error once the call
+     * completes; the request is released after that
+     */
+    private CompletableFuture<String> respondAsync(JsonRpcRequest req) {
+        RpcExecutionEvent event = RpcEvents.beginExecution();
+        RpcTracer tracer = this.tracer;
+        long start = tracer == RpcTracer.NOOP ? 0 : System.nanoTime();
+        CompletableFuture<Object> result;
+        try {
+            result = processor instanceof AsyncRequestProcessor
+                ? ((AsyncRequestProcessor) processor).executeAsync(req)
+                : CompletableFuture.completedFuture(processor.execute(req));
+        } catch (RpcException | RuntimeException ex) {
+            result = CompletableFuture.failedFuture(ex);
+        }
+
+        return result.handle((value, error) -> {
+            if (tracer != RpcTracer.NOOP) {
+                tracer.phaseEnded(RpcPhase.EXECUTE, req.getMethod(), start, System.nanoTime());
+            }
+            RpcEvents.endExecution(event, req.getMethod(), deserializer.paramCount(req), error);
+            try {
+                if (error != null) {
+                    throw RpcException.fromThrowable(error);
+                }
+                return serialize(req, value);
+            } catch (RpcException rx) {
+                return rpcError(rx, req.getId());
+            } catch (IOException | RuntimeException ex) {
+                return internalError(ex, req.getId());
+            } finally {
+                deserializer.release(req);
+            }
+        });
+    }
+
+    private String respond(JsonRpcRequest req) throws RpcException, IOException {
+        RpcExecutionEvent event = RpcEvents.beginExecution();
+        RpcTracer tracer = this.tracer;
+        long start = tracer == RpcTracer.NOOP ? 0 : System.nanoTime();
+        final Object result;
+        Throwable error = null;
+        try {
+            result = processor.execute(req);
+        } catch (RpcException | RuntimeException ex) {
+            error = ex;
+            throw ex;
+        } finally {
+            if (tracer != RpcTracer.NOOP) {
+                tracer.phaseEnded(RpcPhase.EXECUTE, req.getMethod(), start, System.nanoTime());
+            }
+            RpcEvents.endExecution(event, req.getMethod(), deserializer.paramCount(req), error);
+        }
+        return serialize(req, result);
+    }
+
+    private String serialize(JsonRpcRequest req, Object result) throws RpcException, IOException {
+        RpcSerializationEvent event = RpcEvents.beginSerialization();
+        RpcTracer tracer = this.tracer;
+        long start = tracer == RpcTracer.NOOP ? 0 : System.nanoTime();
+        String response = null;
+        Throwable error = null;
+        try {
+            response = serializeResult(req, result);
+            return response;
+        } catch (RpcException | IOException | RuntimeException ex) {
+            error = ex;
+            throw ex;
+        } finally {
+            if (tracer != RpcTracer.NOOP) {
+                tracer.phaseEnded(RpcPhase.SERIALIZE, req.getMethod(), start, System.nanoTime());
+            }
+            RpcEvents.endSerialization(event, req.getMethod(), response, error);
+        }
+    }
+
+    private String serializeResult(JsonRpcRequest req, Object result) throws RpcException, IOException {
+        try {
+            return serializer.serialize(new JsonRpcResponse(result, req.getId()), req.getMethod());
+        } catch (SchemaValidationException svx) {
+            throw RpcException.schemaError(svx.getMessage());
+        }
+    }
+
+    /** @return error response; the cause of an internal error that has one is logged */
+    private String rpcError(RpcException rx, String id) {
+        if (rx.getCause() != null) {
+            LOG.log(Level.WARNING, "Internal error handling request " + id, rx.getCause());
+        }
+        return serializer.serializeError(new JsonRpcError(rx, id));
+    }
+
+    /** @return internal error response, without any details of the failure, which only get logged */
+    private String internalError(Exception ex, String id) {
+        LOG.log(Level.WARNING, "Internal error handling request " + id, ex);
+        return serializer.serializeError(new JsonRpcError(RpcException.internalError(null), id));
+    }
+
+    /**
+     * Shut down the executor for batches, if it was created by this
+     * dispatcher rather than given to it; a given executor is left to its
+     * owner.  Payloads already being handled still complete.
+     */
+    @Override
+    public void close() {
+        if (ownExecutor != null) {
+            ownExecutor.shutdown();
+        }
+    }
+}
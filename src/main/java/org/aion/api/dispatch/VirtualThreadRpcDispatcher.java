@@ -0,0 +1,180 @@
+package org.aion.api.dispatch;
+
+import com.google.common.annotations.VisibleForTesting;
+import java.lang.reflect.InvocationTargetException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.aion.api.metrics.RpcTracer;
+import org.aion.api.serialization.RequestDeserializer;
+import org.aion.api.serialization.ResponseSerializer;
+import org.aion.api.serialization.RpcTypeDeserializer;
+
+/**
+ * An {@link RpcDispatcher} that handles each request, and each element of a
+ * batch, on a virtual thread of its own when the JVM has them (Java 21 and
+ * up).  Meant for processors whose methods mostly block, i.e. on database
+ * reads or VM execution: the number of requests in flight is then bounded by
+ * the concurrency limit rather than by the size of a thread pool.
+ *
+ * Virtual threads are looked up reflectively, so this still runs on the Java
+ * versions this library targets; without them, it falls back to platform
+ * threads (see {@link #isVirtual()}): a fixed pool of maxConcurrency threads
+ * for the requests, so that those over the limit wait in its queue rather
+ * than on threads of their own, and another of the same size for batches to
+ * wait for their elements on.
+ *
+ * With virtual threads, the limit is enforced with a {@link Semaphore}, and
+ * batches wait for their elements through CompletableFutures, so a virtual
+ * thread that waits on either parks rather than pinning its carrier thread.
+ * The same goes for the processor: if it blocks, it should do so through
+ * java.util.concurrent or I/O rather than while holding a monitor.
+ *
+ * Requests aren't pooled (see {@link RequestDeserializer#release}): pools are
+ * per thread, and virtual threads aren't reused.
+ */
+public class VirtualThreadRpcDispatcher implements AutoCloseable {
+    /** Threads that requests, and the elements of batches, are handled on */
+    private final ExecutorService requestThreads;
+    /** Threads that batches wait for their elements on */
+    private final ExecutorService batchThreads;
+    /** Runs tasks on the request threads, at most maxConcurrency at once */
+    private final Executor limited;
+    private final boolean virtual;
+    private final RpcDispatcher dispatcher;
+
+    /**
+     * Constructor.
+     *
+     * @param processor executes requests, i.e. the generated RpcProcessor2
+     * @param typeDeserializer deserializer for the types of the request params
+     * @param maxConcurrency most requests (counting each element of a batch)
+     * to handle at once; the rest wait for a turn
+     */
+    public VirtualThreadRpcDispatcher(RequestProcessor processor,
+                                      RpcTypeDeserializer typeDeserializer,
+                                      int maxConcurrency) {
+        this(maxConcurrency, executor -> new RpcDispatcher(processor, typeDeserializer, executor));
+    }
+
+    @VisibleForTesting
+    public VirtualThreadRpcDispatcher(RequestProcessor processor,
+                                      RequestDeserializer deserializer,
+                                      ResponseSerializer serializer,
+                                      int maxConcurrency) {
+        this(maxConcurrency, executor -> new RpcDispatcher(processor, deserializer, serializer, executor));
+    }
+
+    private VirtualThreadRpcDispatcher(int maxConcurrency, DispatcherFactory dispatcherFactory) {
+        if (maxConcurrency < 1) {
+            throw new IllegalArgumentException("maxConcurrency must be positive");
+        }
+        ExecutorService virtualThreads = newVirtualThreadExecutor();
+        this.virtual = virtualThreads != null;
+        if (virtual) {
+            this.requestThreads = virtualThreads;
+            this.batchThreads = virtualThreads;
+            this.limited = limitedBy(new Semaphore(maxConcurrency), virtualThreads);
+        } else {
+            // the size of the pool is the limit
+            this.requestThreads = Executors.newFixedThreadPool(
+                maxConcurrency, new DaemonThreadFactory("rpc-dispatch-"));
+            this.batchThreads = Executors.newFixedThreadPool(
+                maxConcurrency, new DaemonThreadFactory("rpc-batch-"));
+            this.limited = requestThreads;
+        }
+        this.dispatcher = dispatcherFactory.create(limited);
+    }
+
+    /**
+     * Handle a JsonRpc payload, which may be a single request or a batch, on
+     * another thread.  See {@link RpcDispatcher#dispatch(String)}.
+     *
+     * @return future of the response, or of null if the payload was a batch
+     * of notifications
+     */
+    public CompletableFuture<String> dispatch(String payload) {
+        if (RequestDeserializer.isBatch(payload)) {
+            // the elements are limited individually; the batch itself only
+            // waits for them, so it mustn't take up a turn while it does
+            return CompletableFuture.supplyAsync(() -> dispatcher.dispatch(payload), batchThreads);
+        }
+        return CompletableFuture.supplyAsync(() -> dispatcher.dispatch(payload), limited);
+    }
+
+    /** See {@link RpcDispatcher#setTracer(RpcTracer)} */
+    public void setTracer(RpcTracer tracer) {
+        dispatcher.setTracer(tracer);
+    }
+
+    /** @return whether requests are handled on virtual threads rather than platform threads */
+    public boolean isVirtual() {
+        return virtual;
+    }
+
+    /** Stop accepting payloads; those already being handled still complete */
+    @Override
+    public void close() {
+        batchThreads.shutdown();
+        requestThreads.shutdown();
+    }
+
+    /** @return executor that runs each task on a thread of its own once it gets a permit */
+    private static Executor limitedBy(Semaphore permits, ExecutorService threads) {
+        return task -> threads.execute(() -> {
+            permits.acquireUninterruptibly();
+            try {
+                task.run();
+            } finally {
+                permits.release();
+            }
+        });
+    }
+
+    /**
+     * @return Executors.newVirtualThreadPerTaskExecutor(), or null if the JVM
+     * doesn't have virtual threads
+     */
+    @VisibleForTesting
+    static ExecutorService newVirtualThreadExecutor() {
+        try {
+            return (ExecutorService) Executors.class
+                .getMethod("newVirtualThreadPerTaskExecutor")
+                .invoke(null);
+        } catch (NoSuchMethodException | IllegalAccessException nsme) {
+            return null;
+        } catch (InvocationTargetException ite) {
+            // i.e. virtual threads being a preview feature that isn't enabled
+            if (ite.getCause() instanceof UnsupportedOperationException) {
+                return null;
+            }
+            throw new IllegalStateException("Failed to create virtual thread executor", ite.getCause());
+        }
+    }
+
+    @FunctionalInterface
+    private interface DispatcherFactory {
+        RpcDispatcher create(Executor executor);
+    }
+
+    /** Names the fallback platform threads, and doesn't let them keep the JVM alive */
+    private static class DaemonThreadFactory implements ThreadFactory {
+        private final String prefix;
+        private final AtomicInteger count = new AtomicInteger();
+
+        DaemonThreadFactory(String prefix) {
+            this.prefix = prefix;
+        }
+
+        @Override
+        public Thread newThread(Runnable task) {
+            Thread thread = new Thread(task, prefix + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
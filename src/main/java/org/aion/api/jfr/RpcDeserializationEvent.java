@@ -0,0 +1,21 @@
+package org.aion.api.jfr;
+
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/** Deserialization of a request, from its payload to its params */
+@Name("org.aion.api.RpcDeserialization")
+@Label("RPC Request Deserialization")
+@Description("Parsing of a JsonRpc request and deserialization of its params")
+public final class RpcDeserializationEvent extends RpcEvent {
+    @Label("Parameter Count")
+    @Description("Number of params of the method; -1 if it isn't known")
+    int paramCount;
+
+    @Label("Payload Size")
+    @Description("Size of the payload in bytes, in UTF-8 for a String; -1 if it isn't known, i.e. for a stream or an element of a batch")
+    @DataAmount
+    long payloadSize;
+}
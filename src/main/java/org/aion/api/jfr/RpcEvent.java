@@ -0,0 +1,27 @@
+package org.aion.api.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+/**
+ * Fields and default settings shared by the JFR events of each phase of
+ * handling a request.  The defaults only record phases that take longer than
+ * a millisecond, without a stack trace; like those of any JFR event, they can
+ * be changed in a .jfc settings file or with {@code Recording.enable}.
+ */
+@Category("AionRpc")
+@StackTrace(false)
+@Threshold("1 ms")
+abstract class RpcEvent extends Event {
+    @Label("Method")
+    @Description("Method of the request; null if the request couldn't be parsed")
+    String method;
+
+    @Label("Outcome")
+    @Description("ok, or the code of the JsonRpc error that the phase failed with")
+    String outcome;
+}
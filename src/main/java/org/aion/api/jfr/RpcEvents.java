@@ -0,0 +1,245 @@
+package org.aion.api.jfr;
+
+import com.fasterxml.jackson.core.JsonParseException;
+import java.io.CharConversionException;
+import jdk.jfr.EventType;
+import org.aion.api.RpcException;
+
+/**
+ * Emits the JFR events of each phase of handling a request:
+ * {@link RpcDeserializationEvent}, {@link RpcValidationEvent},
+ * {@link RpcExecutionEvent} and {@link RpcSerializationEvent}.  Whether they
+ * are recorded, and above which duration, is up to the JFR settings of the
+ * recording.  With no recording running, or with the events disabled, each
+ * begin* method returns null without creating an event, so all that's left
+ * is a check of a flag.
+ *
+ * The events need the jdk.jfr module, which not every Java 9 (or jlinked)
+ * runtime has, so the event classes are only ever loaded through here, and
+ * only if it's there: without it, each begin* method returns null, which the
+ * matching end* method ignores.  The event classes themselves must not be
+ * used by anything else.  Looking up their {@link EventType}s up front
+ * doesn't start JFR.
+ */
+public final class RpcEvents {
+    /** Whether jdk.jfr is there, i.e. whether events can be emitted at all */
+    public static final boolean AVAILABLE = isAvailable();
+
+    private static final String OK = "ok";
+
+    /** Code of the errors that invalid params get */
+    private static final int INVALID_PARAMS = -32602;
+
+    private RpcEvents() { }
+
+    private static boolean isAvailable() {
+        try {
+            Class.forName("jdk.jfr.Event");
+            return true;
+        } catch (ClassNotFoundException | LinkageError ex) {
+            return false;
+        }
+    }
+
+    /**
+     * Types of the events, whose isEnabled() says whether a running recording
+     * wants them.  Kept apart so that they're only looked up, and the event
+     * classes only loaded, once jdk.jfr is known to be there.
+     */
+    private static final class Types {
+        static final EventType DESERIALIZATION = EventType.getEventType(RpcDeserializationEvent.class);
+        static final EventType VALIDATION = EventType.getEventType(RpcValidationEvent.class);
+        static final EventType EXECUTION = EventType.getEventType(RpcExecutionEvent.class);
+        static final EventType SERIALIZATION = EventType.getEventType(RpcSerializationEvent.class);
+    }
+
+    // -- Deserialization ---------------------------------------------------
+
+    /**
+     * @return whether deserialization events are being recorded, which is
+     * the only time that the size of a String payload needs to be worked out
+     */
+    public static boolean isDeserializationEnabled() {
+        return AVAILABLE && Types.DESERIALIZATION.isEnabled();
+    }
+
+    /** @return event that is to be ended when the request has been deserialized; null if it isn't enabled */
+    public static RpcDeserializationEvent beginDeserialization() {
+        if (!AVAILABLE || !Types.DESERIALIZATION.isEnabled()) {
+            return null;
+        }
+        RpcDeserializationEvent event = new RpcDeserializationEvent();
+        event.begin();
+        return event;
+    }
+
+    /**
+     * @param method method of the request; null if it wasn't deserialized
+     * @param paramCount number of params of the method; -1 if it isn't known
+     * @param payloadSize size of the payload in bytes (see {@link #utf8Length}
+     *                    for a String); -1 if it isn't known
+     * @param error what deserialization failed with; null if it succeeded
+     */
+    public static void endDeserialization(RpcDeserializationEvent event,
+                                          String method,
+                                          int paramCount,
+                                          long payloadSize,
+                                          Throwable error) {
+        if (event == null) {
+            return;
+        }
+        event.end();
+        if (event.shouldCommit()) {
+            event.method = method;
+            event.paramCount = paramCount;
+            event.payloadSize = payloadSize;
+            event.outcome = outcome(error);
+            event.commit();
+        }
+    }
+
+    // -- Validation --------------------------------------------------------
+
+    /**
+     * @return whether validation events are being recorded, which is the
+     * only time that the method of the params being validated needs to be
+     * kept track of
+     */
+    public static boolean isValidationEnabled() {
+        return AVAILABLE && Types.VALIDATION.isEnabled();
+    }
+
+    /** @return event that is to be ended when the param has been validated; null if it isn't enabled */
+    public static RpcValidationEvent beginValidation() {
+        if (!AVAILABLE || !Types.VALIDATION.isEnabled()) {
+            return null;
+        }
+        RpcValidationEvent event = new RpcValidationEvent();
+        event.begin();
+        return event;
+    }
+
+    /**
+     * @param method method whose param was validated; null if it isn't known
+     * @param type name of the type that the param was validated against
+     * @param valid whether it was valid; if not, the request fails with invalid params
+     */
+    public static void endValidation(RpcValidationEvent event,
+                                     String method,
+                                     String type,
+                                     boolean valid) {
+        if (event == null) {
+            return;
+        }
+        event.end();
+        if (event.shouldCommit()) {
+            event.method = method;
+            event.type = type;
+            event.outcome = valid ? OK : String.valueOf(INVALID_PARAMS);
+            event.commit();
+        }
+    }
+
+    // -- Execution ---------------------------------------------------------
+
+    /** @return event that is to be ended when the call has completed; null if it isn't enabled */
+    public static RpcExecutionEvent beginExecution() {
+        if (!AVAILABLE || !Types.EXECUTION.isEnabled()) {
+            return null;
+        }
+        RpcExecutionEvent event = new RpcExecutionEvent();
+        event.begin();
+        return event;
+    }
+
+    /**
+     * @param method method that was called
+     * @param paramCount number of params of the method; -1 if it isn't known
+     * @param error what the call failed with; null if it returned a result
+     */
+    public static void endExecution(RpcExecutionEvent event,
+                                    String method,
+                                    int paramCount,
+                                    Throwable error) {
+        if (event == null) {
+            return;
+        }
+        event.end();
+        if (event.shouldCommit()) {
+            event.method = method;
+            event.paramCount = paramCount;
+            event.outcome = outcome(error);
+            event.commit();
+        }
+    }
+
+    // -- Serialization -----------------------------------------------------
+
+    /** @return event that is to be ended when the result has been serialized; null if it isn't enabled */
+    public static RpcSerializationEvent beginSerialization() {
+        if (!AVAILABLE || !Types.SERIALIZATION.isEnabled()) {
+            return null;
+        }
+        RpcSerializationEvent event = new RpcSerializationEvent();
+        event.begin();
+        return event;
+    }
+
+    /**
+     * @param method method whose result was serialized
+     * @param response JSON of the response; null if serialization failed
+     * @param error what serialization failed with; null if it succeeded
+     */
+    public static void endSerialization(RpcSerializationEvent event,
+                                        String method,
+                                        String response,
+                                        Throwable error) {
+        if (event == null) {
+            return;
+        }
+        event.end();
+        if (event.shouldCommit()) {
+            event.method = method;
+            event.resultSize = response != null ? utf8Length(response) : -1;
+            event.outcome = outcome(error);
+            event.commit();
+        }
+    }
+
+    /**
+     * @return number of bytes of the text in UTF-8, which is what it's sent
+     * as; like {@link String#getBytes}, each unpaired surrogate counts as the
+     * one byte of the '?' it's replaced with
+     */
+    public static long utf8Length(CharSequence text) {
+        final int chars = text.length();
+        long length = chars;
+        for (int ix = 0; ix < chars; ++ix) {
+            char c = text.charAt(ix);
+            if (c < 0x80) {
+                // 1 byte
+            } else if (c < 0x800) {
+                length += 1;
+            } else if (!Character.isSurrogate(c)) {
+                length += 2;
+            } else if (Character.isHighSurrogate(c)
+                && ix + 1 < chars && Character.isLowSurrogate(text.charAt(ix + 1))) {
+                // 4 bytes for the pair
+                length += 2;
+                ++ix;
+            }
+        }
+        return length;
+    }
+
+    /** @return "ok" if there's no error; otherwise the JsonRpc code that the error gets */
+    private static String outcome(Throwable error) {
+        if (error == null) {
+            return OK;
+        }
+        if (error instanceof JsonParseException || error instanceof CharConversionException) {
+            return String.valueOf(RpcException.parseError(null).getCode());
+        }
+        return String.valueOf(RpcException.fromThrowable(error).getCode());
+    }
+}
@@ -0,0 +1,15 @@
+package org.aion.api.jfr;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/** Execution of a request by the RequestProcessor */
+@Name("org.aion.api.RpcExecution")
+@Label("RPC Method Execution")
+@Description("Execution of a JsonRpc method, until its result is available")
+public final class RpcExecutionEvent extends RpcEvent {
+    @Label("Parameter Count")
+    @Description("Number of params of the method; -1 if it isn't known")
+    int paramCount;
+}
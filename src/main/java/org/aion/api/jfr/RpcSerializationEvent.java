@@ -0,0 +1,17 @@
+package org.aion.api.jfr;
+
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/** Serialization of the result of a request into the response */
+@Name("org.aion.api.RpcSerialization")
+@Label("RPC Response Serialization")
+@Description("Serialization of the result of a JsonRpc method into the response")
+public final class RpcSerializationEvent extends RpcEvent {
+    @Label("Result Size")
+    @Description("Size of the response in UTF-8; -1 if it couldn't be serialized")
+    @DataAmount
+    long resultSize;
+}
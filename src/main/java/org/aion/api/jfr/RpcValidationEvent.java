@@ -0,0 +1,15 @@
+package org.aion.api.jfr;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/** Validation of a param against the JSON schema of its type */
+@Name("org.aion.api.RpcValidation")
+@Label("RPC Schema Validation")
+@Description("Validation of a JsonRpc param against the schema of its type")
+public final class RpcValidationEvent extends RpcEvent {
+    @Label("Type")
+    @Description("Name of the type that the param was validated against")
+    String type;
+}
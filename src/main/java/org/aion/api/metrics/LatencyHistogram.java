@@ -0,0 +1,133 @@
+package org.aion.api.metrics;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Histogram of latencies in nanoseconds, laid out the way HdrHistogram does
+ * it: each power of two is split into {@value #SUB_BUCKETS} linear buckets,
+ * so every recorded value is kept to within about 3% no matter its
+ * magnitude, in a fixed number of counters.
+ *
+ * Recording is lock-free and doesn't allocate (except for the first
+ * recording into each stripe).  To keep threads from contending on the same
+ * counters, the counters are striped: each thread records into the stripe
+ * picked by its id, and {@link #snapshot()} adds the stripes up.
+ */
+public final class LatencyHistogram {
+    static final int SUB_BUCKET_BITS = 5;
+    static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+
+    /** Largest value that's told apart from larger ones (about 73 minutes); those all go in the last bucket */
+    static final long MAX_TRACKABLE = (1L << 42) - 1;
+    static final int BUCKETS = bucketOf(MAX_TRACKABLE) + 1;
+
+    // slots of a stripe, after its buckets
+    private static final int TOTAL = BUCKETS;
+    private static final int MAX = BUCKETS + 1;
+    private static final int SLOTS = BUCKETS + 2;
+
+    private static final int MAX_STRIPES = 64;
+
+    /** Created on first use, since most threads only ever call a few methods */
+    private final AtomicReferenceArray<AtomicLongArray> stripes;
+    private final int stripeMask;
+
+    /** Constructor, with a stripe per available processor */
+    public LatencyHistogram() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param concurrency number of threads expected to record at once; it's
+     * rounded up to a power of two to get the number of stripes
+     */
+    public LatencyHistogram(int concurrency) {
+        if (concurrency < 1) {
+            throw new IllegalArgumentException("concurrency must be positive");
+        }
+        int stripeCount = Math.min(MAX_STRIPES, Integer.highestOneBit((concurrency << 1) - 1));
+        this.stripes = new AtomicReferenceArray<>(stripeCount);
+        this.stripeMask = stripeCount - 1;
+    }
+
+    /** @param nanos latency to record; negative values are recorded as 0 */
+    public void record(long nanos) {
+        long value = Math.max(0, nanos);
+        AtomicLongArray stripe = stripe();
+        stripe.incrementAndGet(bucketOf(Math.min(value, MAX_TRACKABLE)));
+        stripe.addAndGet(TOTAL, value);
+        long max = stripe.get(MAX);
+        while (value > max && !stripe.compareAndSet(MAX, max, value)) {
+            max = stripe.get(MAX);
+        }
+    }
+
+    /** @return the values recorded so far */
+    public LatencySnapshot snapshot() {
+        return snapshot(false);
+    }
+
+    /**
+     * @return the values recorded so far, which are cleared; a value being
+     * recorded meanwhile ends up either in this snapshot or in the next one
+     */
+    public LatencySnapshot snapshotAndReset() {
+        return snapshot(true);
+    }
+
+    /** Clear the values recorded so far */
+    public void reset() {
+        snapshot(true);
+    }
+
+    private LatencySnapshot snapshot(boolean reset) {
+        long[] counts = new long[BUCKETS];
+        long total = 0;
+        long max = 0;
+        for (int ix = 0; ix < stripes.length(); ++ix) {
+            AtomicLongArray stripe = stripes.get(ix);
+            if (stripe == null) {
+                continue;
+            }
+            for (int bucket = 0; bucket < BUCKETS; ++bucket) {
+                counts[bucket] += reset ? stripe.getAndSet(bucket, 0) : stripe.get(bucket);
+            }
+            total += reset ? stripe.getAndSet(TOTAL, 0) : stripe.get(TOTAL);
+            max = Math.max(max, reset ? stripe.getAndSet(MAX, 0) : stripe.get(MAX));
+        }
+        return new LatencySnapshot(counts, total, max);
+    }
+
+    private AtomicLongArray stripe() {
+        int ix = (int) Thread.currentThread().getId() & stripeMask;
+        AtomicLongArray stripe = stripes.get(ix);
+        if (stripe == null) {
+            stripes.compareAndSet(ix, null, new AtomicLongArray(SLOTS));
+            stripe = stripes.get(ix);
+        }
+        return stripe;
+    }
+
+    /** @return index of the bucket that the value (at most {@link #MAX_TRACKABLE}) goes in */
+    static int bucketOf(long value) {
+        if (value < 2 * SUB_BUCKETS) {
+            return (int) value;
+        }
+        // value is 1xxxxx followed by shift more bits; the x's pick the sub-bucket
+        int shift = 63 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS;
+        return (shift + 1) * SUB_BUCKETS + (int) (value >>> shift) - SUB_BUCKETS;
+    }
+
+    /** @return largest value that goes in the bucket */
+    static long highestValueIn(int bucket) {
+        if (bucket < 2 * SUB_BUCKETS) {
+            return bucket;
+        }
+        int shift = bucket / SUB_BUCKETS - 1;
+        long top = bucket % SUB_BUCKETS + SUB_BUCKETS;
+        return ((top + 1) << shift) - 1;
+    }
+}
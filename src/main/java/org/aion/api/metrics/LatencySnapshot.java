@@ -0,0 +1,89 @@
+package org.aion.api.metrics;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latencies recorded into a {@link LatencyHistogram} up to some point.
+ * Percentiles are reported as the largest value of the bucket they fall in
+ * (but no more than the maximum), so they err on the high side by up to 3%.
+ */
+public final class LatencySnapshot {
+    private final long[] counts;
+    private final long count;
+    private final long total;
+    private final long max;
+
+    LatencySnapshot(long[] counts, long total, long max) {
+        long count = 0;
+        for (long bucketCount : counts) {
+            count += bucketCount;
+        }
+        this.counts = counts;
+        this.count = count;
+        this.total = total;
+        this.max = max;
+    }
+
+    /** @return number of values recorded */
+    public long getCount() {
+        return count;
+    }
+
+    /** @return mean of the values recorded, in nanoseconds; 0 if there are none */
+    public double getMean() {
+        return count == 0 ? 0 : (double) total / count;
+    }
+
+    /** @return largest value recorded, in nanoseconds; 0 if there are none */
+    public long getMax() {
+        return max;
+    }
+
+    /**
+     * @param percentile between 0 and 100
+     * @return value, in nanoseconds, that the given percentage of the values
+     * recorded are at or below; 0 if there are none
+     */
+    public long getValueAtPercentile(double percentile) {
+        if (percentile < 0 || percentile > 100) {
+            throw new IllegalArgumentException("percentile must be between 0 and 100");
+        }
+        if (count == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(percentile / 100 * count));
+        long seen = 0;
+        for (int bucket = 0; bucket < counts.length; ++bucket) {
+            seen += counts[bucket];
+            if (seen >= rank) {
+                // the last bucket has everything beyond the trackable range
+                return bucket == counts.length - 1
+                    ? max
+                    : Math.min(LatencyHistogram.highestValueIn(bucket), max);
+            }
+        }
+        return max;
+    }
+
+    public long getP50() {
+        return getValueAtPercentile(50);
+    }
+
+    public long getP99() {
+        return getValueAtPercentile(99);
+    }
+
+    public long getP999() {
+        return getValueAtPercentile(99.9);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("count=%d p50=%dus p99=%dus p999=%dus max=%dus",
+            count,
+            TimeUnit.NANOSECONDS.toMicros(getP50()),
+            TimeUnit.NANOSECONDS.toMicros(getP99()),
+            TimeUnit.NANOSECONDS.toMicros(getP999()),
+            TimeUnit.NANOSECONDS.toMicros(max));
+    }
+}
@@ -0,0 +1,128 @@
+package org.aion.api.metrics;
+
+import java.io.PrintStream;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * An {@link RpcTracer} that adds up the time spent in each phase for each
+ * method, and prints a table of where the time per call goes:
+ *
+ * <pre>
+ * method                  calls       parse    validate deserialize     execute   serialize       total
+ * getseed                  1000    3.1  21%    0.0   0%    0.4   3%   10.2  69%    1.1   7%   14.8 100%
+ * </pre>
+ *
+ * Each cell is the mean time per call in microseconds, and its share of the
+ * total; phases exclude the time of the phases nested in them (see
+ * {@link RpcPhase}).  Requests that couldn't be parsed are listed under
+ * {@value #UNKNOWN_METHOD}.
+ */
+public class PhaseBreakdownTracer implements RpcTracer {
+    static final String UNKNOWN_METHOD = "(unknown)";
+
+    private static final RpcPhase[] COLUMNS = {
+        RpcPhase.PARSE, RpcPhase.VALIDATE, RpcPhase.DESERIALIZE, RpcPhase.EXECUTE, RpcPhase.SERIALIZE
+    };
+
+    /** Only methods that requests get parsed for end up in here, so it's bounded by the method list */
+    private final ConcurrentMap<String, PhaseTotals> methods = new ConcurrentHashMap<>();
+
+    @Override
+    public void phaseEnded(RpcPhase phase, String method, long startNanos, long endNanos) {
+        String key = method != null ? method : UNKNOWN_METHOD;
+        PhaseTotals totals = methods.get(key);
+        if (totals == null) {
+            totals = methods.computeIfAbsent(key, k -> new PhaseTotals());
+        }
+        totals.nanos[phase.ordinal()].add(endNanos - startNanos);
+        totals.counts[phase.ordinal()].increment();
+    }
+
+    /**
+     * @return nanoseconds spent in the phase for the method, excluding the
+     * phase nested in it
+     */
+    public long getSelfNanos(String method, RpcPhase phase) {
+        PhaseTotals totals = methods.get(method);
+        return totals == null ? 0 : totals.selfNanos(phase);
+    }
+
+    /** @return number of calls of the method that were traced */
+    public long getCalls(String method) {
+        PhaseTotals totals = methods.get(method);
+        return totals == null ? 0 : totals.calls();
+    }
+
+    /** Forget everything traced so far */
+    public void reset() {
+        methods.clear();
+    }
+
+    public void printBreakdown(PrintStream out) {
+        out.print(toString());
+    }
+
+    /** @return the breakdown table, one line per method in order of name */
+    @Override
+    public String toString() {
+        StringBuilder table = new StringBuilder(String.format("%-20s %8s", "method", "calls"));
+        for (RpcPhase phase : COLUMNS) {
+            table.append(String.format(" %11s", phase.name().toLowerCase(Locale.ROOT)));
+        }
+        table.append(String.format(" %11s%n", "total"));
+
+        for (Map.Entry<String, PhaseTotals> entry : new TreeMap<>(methods).entrySet()) {
+            PhaseTotals totals = entry.getValue();
+            long calls = totals.calls();
+            long total = 0;
+            for (RpcPhase phase : COLUMNS) {
+                total += totals.selfNanos(phase);
+            }
+
+            table.append(String.format("%-20s %8d", entry.getKey(), calls));
+            for (RpcPhase phase : COLUMNS) {
+                table.append(cell(totals.selfNanos(phase), calls, total));
+            }
+            table.append(cell(total, calls, total)).append(String.format("%n"));
+        }
+        return table.toString();
+    }
+
+    /** @return mean microseconds per call, and share of the total */
+    private static String cell(long nanos, long calls, long total) {
+        double micros = calls == 0 ? 0 : nanos / 1000.0 / calls;
+        long percent = total == 0 ? 0 : Math.round(100.0 * nanos / total);
+        return String.format(" %6.1f %3d%%", micros, percent);
+    }
+
+    private static final class PhaseTotals {
+        private final LongAdder[] nanos = new LongAdder[RpcPhase.values().length];
+        private final LongAdder[] counts = new LongAdder[RpcPhase.values().length];
+
+        PhaseTotals() {
+            for (int ix = 0; ix < nanos.length; ++ix) {
+                nanos[ix] = new LongAdder();
+                counts[ix] = new LongAdder();
+            }
+        }
+
+        long selfNanos(RpcPhase phase) {
+            long self = nanos[phase.ordinal()].sum();
+            if (phase.getNested() != null) {
+                self -= nanos[phase.getNested().ordinal()].sum();
+            }
+            // a nested phase can end after a snapshot of the enclosing one was taken
+            return Math.max(0, self);
+        }
+
+        /** Requests are counted once each, by whichever phase saw the most of them */
+        long calls() {
+            return Math.max(counts[RpcPhase.PARSE.ordinal()].sum(), counts[RpcPhase.EXECUTE.ordinal()].sum());
+        }
+    }
+}
@@ -0,0 +1,184 @@
+package org.aion.api.metrics;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Stream;
+import org.aion.api.serialization.MethodTable;
+
+/**
+ * Per-method latencies and call counts, and counts of errors by JsonRpc
+ * error code, of the calls made through a
+ * {@link org.aion.api.dispatch.MeteredRequestProcessor}.
+ *
+ * Methods are identified by their id in the {@link MethodTable}, as given
+ * out by the RequestDeserializer, so recording a call takes no lookups.  The
+ * error codes are fixed up front -- the codes of the errors that
+ * {@link org.aion.api.RpcException} creates, plus those given (i.e. the codes
+ * of the generated *RpcExceptions) -- so that recording an error doesn't
+ * allocate either; any other code is counted in {@link #getOtherErrors()}.
+ */
+public final class RpcMetrics {
+    /** Code of {@link org.aion.api.RpcException#internalError}, which is what RuntimeExceptions become */
+    public static final int INTERNAL_ERROR = -32603;
+
+    /** Codes of the errors that the factory methods of RpcException create */
+    private static final List<Integer> STANDARD_ERROR_CODES =
+        List.of(-32700, -32600, -32601, -32602, INTERNAL_ERROR, -32001);
+
+    private final MethodTable methods;
+    private final LatencyHistogram[] latencies;
+    private final LongAdder[] calls;
+    private final LongAdder[] failures;
+
+    /** Sorted, for binary search */
+    private final int[] errorCodes;
+    private final LongAdder[] errors;
+    private final LongAdder otherErrors = new LongAdder();
+
+    /**
+     * Constructor.
+     *
+     * @param methods the methods, in id order (see {@link MethodTable})
+     * @param errorCodes codes of the errors, beyond the standard JsonRpc
+     * ones, that the methods may fail with
+     */
+    public RpcMetrics(List<String> methods, Collection<Integer> errorCodes) {
+        this.methods = new MethodTable(methods);
+        int methodCount = this.methods.size();
+        this.latencies = new LatencyHistogram[methodCount];
+        this.calls = new LongAdder[methodCount];
+        this.failures = new LongAdder[methodCount];
+        for (int id = 0; id < methodCount; ++id) {
+            latencies[id] = new LatencyHistogram();
+            calls[id] = new LongAdder();
+            failures[id] = new LongAdder();
+        }
+
+        this.errorCodes = Stream.concat(STANDARD_ERROR_CODES.stream(), errorCodes.stream())
+            .mapToInt(Integer::intValue)
+            .sorted()
+            .distinct()
+            .toArray();
+        this.errors = new LongAdder[this.errorCodes.length];
+        for (int ix = 0; ix < errors.length; ++ix) {
+            errors[ix] = new LongAdder();
+        }
+    }
+
+    // -- Recording ---------------------------------------------------------
+
+    /**
+     * @return id of the method, for requests that didn't get one from the
+     * deserializer; {@link MethodTable#UNKNOWN} if it isn't one of the methods
+     */
+    public int methodId(String method) {
+        return methods.idOf(method);
+    }
+
+    /**
+     * Record a call that returned a result.
+     *
+     * @param methodId id of the method; calls of unknown methods aren't recorded
+     * @param nanos how long the call took
+     */
+    public void recordCall(int methodId, long nanos) {
+        if (isMethod(methodId)) {
+            calls[methodId].increment();
+            latencies[methodId].record(nanos);
+        }
+    }
+
+    /**
+     * Record a call that failed.  It counts as a call of the method, too.
+     *
+     * @param methodId id of the method; if it's unknown, only the error is recorded
+     * @param code JsonRpc error code of the failure
+     * @param nanos how long the call took
+     */
+    public void recordError(int methodId, int code, long nanos) {
+        if (isMethod(methodId)) {
+            failures[methodId].increment();
+            recordCall(methodId, nanos);
+        }
+        int ix = Arrays.binarySearch(errorCodes, code);
+        if (ix >= 0) {
+            errors[ix].increment();
+        } else {
+            otherErrors.increment();
+        }
+    }
+
+    private boolean isMethod(int methodId) {
+        return methodId >= 0 && methodId < calls.length;
+    }
+
+    // -- Reading -----------------------------------------------------------
+
+    /** @return the methods, in id order */
+    public List<String> getMethods() {
+        return methods.getMethods();
+    }
+
+    /** @return number of calls of the method, including failed ones */
+    public long getCalls(String method) {
+        return calls[id(method)].sum();
+    }
+
+    /** @return number of calls of the method that failed */
+    public long getFailures(String method) {
+        return failures[id(method)].sum();
+    }
+
+    /** @return latencies of the calls of the method, including failed ones */
+    public LatencySnapshot getLatency(String method) {
+        return latencies[id(method)].snapshot();
+    }
+
+    /** @return number of errors with the code */
+    public long getErrors(int code) {
+        int ix = Arrays.binarySearch(errorCodes, code);
+        return ix >= 0 ? errors[ix].sum() : 0;
+    }
+
+    /** @return number of errors by code, for every code known up front, in order of code */
+    public Map<Integer, Long> getErrorCounts() {
+        Map<Integer, Long> counts = new LinkedHashMap<>();
+        for (int ix = 0; ix < errorCodes.length; ++ix) {
+            counts.put(errorCodes[ix], errors[ix].sum());
+        }
+        return counts;
+    }
+
+    /** @return number of errors with codes that weren't known up front */
+    public long getOtherErrors() {
+        return otherErrors.sum();
+    }
+
+    /**
+     * Clear all counts and latencies.  Calls recorded meanwhile may be
+     * partially cleared, i.e. counted but without their latency.
+     */
+    public void reset() {
+        for (int id = 0; id < calls.length; ++id) {
+            calls[id].reset();
+            failures[id].reset();
+            latencies[id].reset();
+        }
+        for (LongAdder count : errors) {
+            count.reset();
+        }
+        otherErrors.reset();
+    }
+
+    private int id(String method) {
+        int id = methods.idOf(method);
+        if (id == MethodTable.UNKNOWN) {
+            throw new IllegalArgumentException("No method " + method);
+        }
+        return id;
+    }
+}
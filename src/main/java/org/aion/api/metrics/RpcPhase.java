@@ -0,0 +1,34 @@
+package org.aion.api.metrics;
+
+/**
+ * Phases of handling a request, as reported to an {@link RpcTracer}.
+ *
+ * Parsing, validation and deserialization of the params are interleaved
+ * (the params are deserialized as their tokens are read), so those phases
+ * nest rather than follow each other: VALIDATE happens within DESERIALIZE,
+ * which happens within PARSE.  Time spent in a phase itself, excluding the
+ * phase nested in it, is the phase's time less that of {@link #getNested()}.
+ */
+public enum RpcPhase {
+    /** JsonSchema validation of a param, by the RpcTypeDeserializer */
+    VALIDATE(null),
+    /** Reading the params into their Java types, including validating them */
+    DESERIALIZE(VALIDATE),
+    /** Reading the request, from its payload to a JsonRpcRequest, including deserializing its params */
+    PARSE(DESERIALIZE),
+    /** Executing the method, i.e. the call into the kernel */
+    EXECUTE(null),
+    /** Writing the response, including validating it if the method's ResponseValidationMode says so */
+    SERIALIZE(null);
+
+    private final RpcPhase nested;
+
+    RpcPhase(RpcPhase nested) {
+        this.nested = nested;
+    }
+
+    /** @return the phase that happens within this one; null if there isn't one */
+    public RpcPhase getNested() {
+        return nested;
+    }
+}
@@ -0,0 +1,26 @@
+package org.aion.api.metrics;
+
+/**
+ * Gets told how long each phase (see {@link RpcPhase}) of handling each
+ * request took, so that slow requests can be narrowed down to a phase.  Set
+ * with {@code RpcDispatcher.setTracer}.
+ *
+ * Called on the thread that ran the phase, as soon as the phase ends, so
+ * implementations must be thread-safe and should return quickly.  Nothing is
+ * measured while the tracer is {@link #NOOP}, so that tracing costs nothing
+ * unless it's used.
+ */
+@FunctionalInterface
+public interface RpcTracer {
+    /** Tracer that ignores everything */
+    RpcTracer NOOP = (phase, method, startNanos, endNanos) -> { };
+
+    /**
+     * @param phase phase that ended
+     * @param method method of the request; null if it isn't known, i.e.
+     * because the request couldn't be parsed
+     * @param startNanos {@link System#nanoTime()} at the start of the phase
+     * @param endNanos {@link System#nanoTime()} at the end of the phase
+     */
+    void phaseEnded(RpcPhase phase, String method, long startNanos, long endNanos);
+}
@@ -0,0 +1,16 @@
+package org.aion.api.schema;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+/**
+ * A JsonSchema that has been compiled into a validator that works directly
+ * on Jackson {@link JsonNode}s.  Instances are immutable and can be shared
+ * between threads.  Built by {@link JsonSchemaCompiler}.
+ */
+public interface CompiledSchema {
+    /**
+     * @param input the input undergoing validation
+     * @return whether input is valid according to the schema this was compiled from
+     */
+    boolean validate(JsonNode input);
+}
@@ -8,11 +8,22 @@ public class Field {
     private final String name;
     private final NamedRpcType type;
     private final JsonNode definition;
+    private final JsonNode valueDefinition;
 
     public Field(String name, NamedRpcType type, JsonNode definition) {
+        this(name, type, definition, definition);
+    }
+
+    /**
+     * @param definition the property's schema
+     * @param valueDefinition schema of the property's non-null values; the
+     *                        same as definition unless the property is nullable
+     */
+    public Field(String name, NamedRpcType type, JsonNode definition, JsonNode valueDefinition) {
         this.name = name;
         this.type = type;
         this.definition = definition;
+        this.valueDefinition = valueDefinition;
     }
 
     public String getName() {
@@ -23,6 +34,11 @@ public class Field {
         return type;
     }
 
+    /** @return whether the property may also be null (in which case it's null in Java) */
+    public boolean isNullable() {
+        return definition != valueDefinition;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) {
@@ -33,15 +49,21 @@ public class Field {
         }
         Field field = (Field) o;
         return Objects.equals(name, field.name) &&
-            Objects.equals(type, field.type);
+            Objects.equals(type, field.type) &&
+            isNullable() == field.isNullable();
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(name, type);
+        return Objects.hash(name, type, isNullable());
     }
 
     public JsonNode getDefinition() {
         return definition;
     }
+
+    /** @return schema of the property's non-null values */
+    public JsonNode getValueDefinition() {
+        return valueDefinition;
+    }
 }
@@ -0,0 +1,442 @@
+package org.aion.api.schema;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.google.common.annotations.VisibleForTesting;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+import org.aion.api.serialization.RpcSchemaLoader;
+
+/**
+ * Compiles JsonSchemas into {@link CompiledSchema}s that validate Jackson
+ * {@link JsonNode}s directly, without the conversion to org.json that the
+ * everit validator requires.
+ *
+ * Only the subset of JsonSchema (draft-07) that AionRpc schemas use is
+ * supported: {@code type}, {@code $ref}, {@code allOf}, {@code anyOf},
+ * {@code properties}, {@code required}, {@code pattern}, {@code minLength},
+ * {@code maxLength}, {@code const}, {@code enum}, {@code items} and
+ * {@code additionalItems}.  Annotation keywords (i.e. {@code description})
+ * are ignored.  Any other keyword is rejected at compile time with a
+ * {@link SchemaRestrictionException}, so an unsupported constraint can never
+ * be silently skipped during validation.
+ *
+ * As in draft-07, when a schema uses {@code $ref}, its other keywords are
+ * ignored.  References are resolved with {@link RpcSchemaLoader#loadType(JsonSchemaRef)},
+ * so they must be in the AionRpc form {@code file.json#/pointer/to/JsonSchema}.
+ */
+public class JsonSchemaCompiler {
+    private static final Set<String> ANNOTATIONS = Set.of(
+        "$schema", "$id", "$comment", "title", "description", "examples", "default", "definitions");
+
+    private final RpcSchemaLoader loader;
+
+    public JsonSchemaCompiler() {
+        this(new RpcSchemaLoader());
+    }
+
+    @VisibleForTesting
+    JsonSchemaCompiler(RpcSchemaLoader loader) {
+        this.loader = loader;
+    }
+
+    /**
+     * Compile a JsonSchema.
+     *
+     * @param schema the JsonSchema
+     * @return validator for the schema
+     * @throws SchemaRestrictionException if the schema uses an unsupported keyword
+     * @throws SchemaException if the schema is malformed or a $ref can't be resolved
+     */
+    public CompiledSchema compile(JsonNode schema) {
+        return compile(schema, new HashMap<>());
+    }
+
+    private CompiledSchema compile(JsonNode schema,
+                                   Map<JsonSchemaRef, RefSchema> refs) {
+        if (schema.isBoolean()) {
+            return schema.asBoolean() ? ALWAYS : NEVER;
+        }
+        if (!schema.isObject()) {
+            throw new SchemaException("Expected a JsonSchema but got: " + schema.toString());
+        }
+        if (schema.has("$ref")) {
+            return compileRef(new JsonSchemaRef(schema.get("$ref").asText()), refs);
+        }
+
+        List<CompiledSchema> constraints = new ArrayList<>();
+        for (Iterator<Map.Entry<String, JsonNode>> it = schema.fields(); it.hasNext(); ) {
+            Map.Entry<String, JsonNode> keyword = it.next();
+            JsonNode value = keyword.getValue();
+            switch (keyword.getKey()) {
+                case "type":
+                    constraints.add(new TypeSchema(value));
+                    break;
+                case "allOf":
+                    constraints.add(new AllOfSchema(compileAll(value, refs)));
+                    break;
+                case "anyOf":
+                    constraints.add(new AnyOfSchema(compileAll(value, refs)));
+                    break;
+                case "properties":
+                    constraints.add(compileProperties(value, refs));
+                    break;
+                case "required":
+                    constraints.add(new RequiredSchema(value));
+                    break;
+                case "pattern":
+                    constraints.add(new PatternSchema(Pattern.compile(value.asText())));
+                    break;
+                case "minLength":
+                    constraints.add(new LengthSchema(value.asInt(), Integer.MAX_VALUE));
+                    break;
+                case "maxLength":
+                    constraints.add(new LengthSchema(0, value.asInt()));
+                    break;
+                case "const":
+                    constraints.add(new EnumSchema(List.of(value)));
+                    break;
+                case "enum":
+                    List<JsonNode> values = new ArrayList<>();
+                    value.elements().forEachRemaining(values::add);
+                    constraints.add(new EnumSchema(values));
+                    break;
+                case "items":
+                    constraints.add(compileItems(value, schema.get("additionalItems"), refs));
+                    break;
+                case "additionalItems":
+                    // handled together with items; no effect without it
+                    break;
+                default:
+                    if (!ANNOTATIONS.contains(keyword.getKey())) {
+                        throw new SchemaRestrictionException(
+                            "Unsupported JsonSchema keyword '" + keyword.getKey() + "' in schema: "
+                                + schema.toString());
+                    }
+            }
+        }
+
+        if (constraints.isEmpty()) {
+            return ALWAYS;
+        } else if (constraints.size() == 1) {
+            return constraints.get(0);
+        } else {
+            return new AllOfSchema(constraints);
+        }
+    }
+
+    private CompiledSchema compileRef(JsonSchemaRef ref,
+                                      Map<JsonSchemaRef, RefSchema> refs) {
+        RefSchema compiled = refs.get(ref);
+        if (compiled != null) {
+            // already compiled, or a cycle -- either way, share the same node
+            return compiled;
+        }
+        compiled = new RefSchema();
+        refs.put(ref, compiled);
+
+        JsonNode definition;
+        try {
+            definition = loader.loadType(ref);
+        } catch (IOException ioe) {
+            throw new SchemaException(String.format(
+                "Failed to load schema file '%s' when dereferencing pointer '%s'",
+                ref.getFile(),
+                ref.getValue()), ioe);
+        }
+        compiled.target = compile(definition, refs);
+        return compiled;
+    }
+
+    private CompiledSchema[] compileAll(JsonNode schemas,
+                                        Map<JsonSchemaRef, RefSchema> refs) {
+        if (!schemas.isArray() || schemas.size() == 0) {
+            throw new SchemaException("Expected a non-empty array of schemas but got: " + schemas);
+        }
+        CompiledSchema[] compiled = new CompiledSchema[schemas.size()];
+        for (int ix = 0; ix < schemas.size(); ++ix) {
+            compiled[ix] = compile(schemas.get(ix), refs);
+        }
+        return compiled;
+    }
+
+    private CompiledSchema compileProperties(JsonNode properties,
+                                             Map<JsonSchemaRef, RefSchema> refs) {
+        int n = properties.size();
+        String[] names = new String[n];
+        CompiledSchema[] schemas = new CompiledSchema[n];
+        int ix = 0;
+        for (Iterator<Map.Entry<String, JsonNode>> it = properties.fields(); it.hasNext(); ++ix) {
+            Map.Entry<String, JsonNode> prop = it.next();
+            names[ix] = prop.getKey();
+            schemas[ix] = compile(prop.getValue(), refs);
+        }
+        return new PropertiesSchema(names, schemas);
+    }
+
+    private CompiledSchema compileItems(JsonNode items,
+                                        JsonNode additionalItems,
+                                        Map<JsonSchemaRef, RefSchema> refs) {
+        if (!items.isArray()) {
+            return new ItemsSchema(new CompiledSchema[0], compile(items, refs));
+        }
+        CompiledSchema additional = additionalItems == null
+            ? ALWAYS
+            : compile(additionalItems, refs);
+        return new ItemsSchema(compileAll(items, refs), additional);
+    }
+
+    // -- Validators ----------------------------------------------------------------------
+
+    private static final CompiledSchema ALWAYS = input -> input != null;
+    private static final CompiledSchema NEVER = input -> false;
+
+    /** Target of a $ref.  Only mutated during compilation (to allow for cycles). */
+    private static final class RefSchema implements CompiledSchema {
+        private CompiledSchema target;
+
+        @Override
+        public boolean validate(JsonNode input) {
+            return target.validate(input);
+        }
+    }
+
+    private static final class TypeSchema implements CompiledSchema {
+        private final boolean string, bool, object, array, number, integer, nul;
+
+        TypeSchema(JsonNode type) {
+            List<String> types = new ArrayList<>();
+            if (type.isArray()) {
+                type.elements().forEachRemaining(t -> types.add(t.asText()));
+            } else {
+                types.add(type.asText());
+            }
+            for (String t : types) {
+                switch (t) {
+                    case "string": case "boolean": case "object": case "array":
+                    case "number": case "integer": case "null":
+                        break;
+                    default:
+                        throw new SchemaException("Unknown type: " + t);
+                }
+            }
+            this.string = types.contains("string");
+            this.bool = types.contains("boolean");
+            this.object = types.contains("object");
+            this.array = types.contains("array");
+            this.number = types.contains("number");
+            this.integer = types.contains("integer");
+            this.nul = types.contains("null");
+        }
+
+        @Override
+        public boolean validate(JsonNode input) {
+            if (input == null) {
+                return false;
+            }
+            switch (input.getNodeType()) {
+                case STRING: return string;
+                case BOOLEAN: return bool;
+                case OBJECT: return object;
+                case ARRAY: return array;
+                case NULL: return nul;
+                case NUMBER:
+                    return number || (integer && isIntegral(input));
+                default:
+                    return false;
+            }
+        }
+
+        private static boolean isIntegral(JsonNode input) {
+            return input.isIntegralNumber()
+                || input.decimalValue().stripTrailingZeros().scale() <= 0;
+        }
+    }
+
+    private static final class AllOfSchema implements CompiledSchema {
+        private final CompiledSchema[] schemas;
+
+        AllOfSchema(CompiledSchema[] schemas) {
+            this.schemas = schemas;
+        }
+
+        AllOfSchema(List<CompiledSchema> schemas) {
+            this(schemas.toArray(new CompiledSchema[0]));
+        }
+
+        @Override
+        public boolean validate(JsonNode input) {
+            for (CompiledSchema s : schemas) {
+                if (!s.validate(input)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    private static final class AnyOfSchema implements CompiledSchema {
+        private final CompiledSchema[] schemas;
+
+        AnyOfSchema(CompiledSchema[] schemas) {
+            this.schemas = schemas;
+        }
+
+        @Override
+        public boolean validate(JsonNode input) {
+            for (CompiledSchema s : schemas) {
+                if (s.validate(input)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    private static final class PropertiesSchema implements CompiledSchema {
+        private final String[] names;
+        private final CompiledSchema[] schemas;
+
+        PropertiesSchema(String[] names, CompiledSchema[] schemas) {
+            this.names = names;
+            this.schemas = schemas;
+        }
+
+        @Override
+        public boolean validate(JsonNode input) {
+            if (input == null || !input.isObject()) {
+                return input != null;
+            }
+            for (int ix = 0; ix < names.length; ++ix) {
+                JsonNode prop = input.get(names[ix]);
+                if (prop != null && !schemas[ix].validate(prop)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    private static final class RequiredSchema implements CompiledSchema {
+        private final String[] names;
+
+        RequiredSchema(JsonNode required) {
+            names = new String[required.size()];
+            for (int ix = 0; ix < names.length; ++ix) {
+                names[ix] = required.get(ix).asText();
+            }
+        }
+
+        @Override
+        public boolean validate(JsonNode input) {
+            if (input == null || !input.isObject()) {
+                return input != null;
+            }
+            for (String name : names) {
+                if (!input.has(name)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    private static final class PatternSchema implements CompiledSchema {
+        private final Pattern pattern;
+
+        PatternSchema(Pattern pattern) {
+            this.pattern = pattern;
+        }
+
+        @Override
+        public boolean validate(JsonNode input) {
+            if (input == null || !input.isTextual()) {
+                return input != null;
+            }
+            // JsonSchema patterns aren't implicitly anchored
+            return pattern.matcher(input.textValue()).find();
+        }
+    }
+
+    private static final class LengthSchema implements CompiledSchema {
+        private final int min, max;
+
+        LengthSchema(int min, int max) {
+            this.min = min;
+            this.max = max;
+        }
+
+        @Override
+        public boolean validate(JsonNode input) {
+            if (input == null || !input.isTextual()) {
+                return input != null;
+            }
+            String s = input.textValue();
+            // JsonSchema lengths are in code points, not UTF-16 chars
+            int length = s.codePointCount(0, s.length());
+            return length >= min && length <= max;
+        }
+    }
+
+    private static final class EnumSchema implements CompiledSchema {
+        private static final java.util.Comparator<JsonNode> NUMERIC_AWARE = (a, b) -> {
+            if (a.equals(b)) {
+                return 0;
+            }
+            if (a.isNumber() && b.isNumber()) {
+                return a.decimalValue().compareTo(b.decimalValue());
+            }
+            return 1;
+        };
+
+        private final List<JsonNode> values;
+
+        EnumSchema(List<JsonNode> values) {
+            this.values = new ArrayList<>(values);
+        }
+
+        @Override
+        public boolean validate(JsonNode input) {
+            if (input == null) {
+                return false;
+            }
+            for (JsonNode v : values) {
+                if (v.equals(NUMERIC_AWARE, input)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    private static final class ItemsSchema implements CompiledSchema {
+        /** Schemas for each position, if items is an array (tuple validation) */
+        private final CompiledSchema[] positional;
+        /** Schema for every item not covered by {@link #positional} */
+        private final CompiledSchema rest;
+
+        ItemsSchema(CompiledSchema[] positional, CompiledSchema rest) {
+            this.positional = positional;
+            this.rest = rest;
+        }
+
+        @Override
+        public boolean validate(JsonNode input) {
+            if (input == null || !input.isArray()) {
+                return input != null;
+            }
+            for (int ix = 0; ix < input.size(); ++ix) {
+                CompiledSchema s = ix < positional.length ? positional[ix] : rest;
+                if (!s.validate(input.get(ix))) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package org.aion.api.schema;
 
 import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
 import com.google.common.annotations.VisibleForTesting;
 import org.aion.api.serialization.RpcSchemaLoader;
 
@@ -11,6 +12,7 @@ import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.Set;
 
 /**
  * Resolves types from a JsonSchema to types in Java.  JsonSchema
@@ -21,6 +23,21 @@ import java.util.Map.Entry;
  * were needed at the time are implemented (feel free to extend).
  */
 public class JsonSchemaTypeResolver {
+    /**
+     * Longest QUANTITY (including the "0x") that always fits in a long.  A
+     * type rooted in QUANTITY whose maxLength is at most this is represented
+     * by a Java long rather than a BigInteger.  Not 16 digits, since long is
+     * signed.
+     */
+    public static final int MAX_LONG_QUANTITY_LENGTH = 2 + 15;
+
+    /** Schema that only allows null */
+    private static final JsonNode NULL_SCHEMA =
+        JsonNodeFactory.instance.objectNode().put("type", "null");
+
+    /** Java types used for fields that can't hold null */
+    private static final Set<String> PRIMITIVE_JAVA_TYPES = Set.of("long", "boolean");
+
     private final RpcSchemaLoader loader;
 
     /** Constructor */
@@ -175,13 +192,49 @@ public class JsonSchemaTypeResolver {
 
         RpcType baseResolved = resolveSchema(base);
 
-        return new RpcType(
+        RpcType resolved = new RpcType(
                 schema,
                 baseResolved,
                 constraint,
                 List.of(),
                 baseResolved.getJavaTypeName()
         );
+        if(fitsInLong(resolved)) {
+            return new RpcType(schema, baseResolved, constraint, List.of(), "long");
+        }
+        return resolved;
+    }
+
+    private static boolean fitsInLong(RpcType type) {
+        if(! RootTypes.QUANTITY.equals(type.getRootType())) {
+            return false;
+        }
+        LengthConstraints lengths = LengthConstraints.of(type);
+        return lengths != null && lengths.getMaxLength() <= MAX_LONG_QUANTITY_LENGTH;
+    }
+
+    /**
+     * The only use of anyOf that's supported in properties is to make them
+     * nullable: {@code "anyOf": [<schema>, {"type": "null"}]}.
+     *
+     * @return the schema of the property's non-null values; the property's
+     * own schema unless it's nullable
+     */
+    private static JsonNode nonNullSchema(JsonNode propDefinition) {
+        JsonNode anyOf = propDefinition.get("anyOf");
+        if(anyOf == null) {
+            return propDefinition;
+        }
+        if(anyOf.size() == 2 && ! propDefinition.has("type") && ! propDefinition.has("$ref")) {
+            if(anyOf.get(1).equals(NULL_SCHEMA)) {
+                return anyOf.get(0);
+            } else if(anyOf.get(0).equals(NULL_SCHEMA)) {
+                return anyOf.get(1);
+            }
+        }
+        throw new SchemaRestrictionException(
+                "anyOf in a property must have exactly two elements, one of them "
+                + "{\"type\": \"null\"}.  Schema: " + propDefinition.toString());
     }
 
     private RpcType resolveObject(String javaTypeName,
@@ -203,8 +256,15 @@ public class JsonSchemaTypeResolver {
                                 "object.  Instead, define the inner object as a derived type" +
                                 "and then use a $ref to point to it.");
             }
-            fields.add(new Field(prop.getKey(),
-                resolveNamedSchema(propDefinition), propDefinition));
+            JsonNode valueDefinition = nonNullSchema(propDefinition);
+            NamedRpcType fieldType = resolveNamedSchema(valueDefinition);
+            if(valueDefinition != propDefinition
+                    && PRIMITIVE_JAVA_TYPES.contains(fieldType.getJavaTypeName())) {
+                throw new SchemaRestrictionException(String.format(
+                        "Property %s can't be null, since its type %s is a Java primitive",
+                        prop.getKey(), fieldType.getName()));
+            }
+            fields.add(new Field(prop.getKey(), fieldType, propDefinition, valueDefinition));
         }
 
         return new RpcType(
@@ -0,0 +1,84 @@
+package org.aion.api.schema;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import java.util.Iterator;
+import java.util.Set;
+
+/**
+ * The length bounds of a string-represented type (i.e. one rooted in DATA or
+ * QUANTITY), collected from the constraints of the type and all of its base
+ * types.
+ *
+ * This only exists for types whose constraints are nothing but
+ * {@code minLength}/{@code maxLength} -- for those, checking the root type's
+ * format plus these bounds is equivalent to validating against the schema.
+ * See {@link #of(RpcType)}.
+ */
+public class LengthConstraints {
+    /** Constraint keywords that don't affect validation */
+    private static final Set<String> ANNOTATIONS = Set.of(
+        "description", "$comment", "title", "examples");
+
+    private final int minLength;
+    private final int maxLength;
+
+    private LengthConstraints(int minLength, int maxLength) {
+        this.minLength = minLength;
+        this.maxLength = maxLength;
+    }
+
+    /**
+     * @param type a type rooted in DATA or QUANTITY
+     * @return the length bounds of the type (including those implied by the
+     * format of its root type), or null if the type has constraints other
+     * than length bounds or isn't rooted in DATA or QUANTITY
+     */
+    public static LengthConstraints of(RpcType type) {
+        RpcType root = type.getRootType();
+        int min;
+        if (root.equals(RootTypes.DATA)) {
+            min = 2; // "0x"
+        } else if (root.equals(RootTypes.QUANTITY)) {
+            min = 3; // "0x" and at least one digit
+        } else {
+            return null;
+        }
+        int max = Integer.MAX_VALUE;
+
+        for (RpcType t = type; !t.isRootType(); t = t.getBaseType()) {
+            JsonNode constraints = t.getConstraints();
+            if (constraints == null) {
+                continue;
+            }
+            for (Iterator<String> it = constraints.fieldNames(); it.hasNext(); ) {
+                String keyword = it.next();
+                if (keyword.equals("minLength")) {
+                    min = Math.max(min, constraints.get(keyword).asInt());
+                } else if (keyword.equals("maxLength")) {
+                    max = Math.min(max, constraints.get(keyword).asInt());
+                } else if (!ANNOTATIONS.contains(keyword)) {
+                    return null;
+                }
+            }
+        }
+
+        return new LengthConstraints(min, max);
+    }
+
+    /** @return minimum length of the string representation, including the "0x" */
+    public int getMinLength() {
+        return minLength;
+    }
+
+    /**
+     * @return maximum length of the string representation, including the "0x";
+     * {@link Integer#MAX_VALUE} if unbounded
+     */
+    public int getMaxLength() {
+        return maxLength;
+    }
+
+    public boolean hasMaxLength() {
+        return maxLength != Integer.MAX_VALUE;
+    }
+}
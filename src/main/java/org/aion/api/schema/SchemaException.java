@@ -5,4 +5,8 @@ public class SchemaException extends RuntimeException {
     public SchemaException(String m) {
         super(m);
     }
+
+    public SchemaException(String m, Throwable cause) {
+        super(m, cause);
+    }
 }
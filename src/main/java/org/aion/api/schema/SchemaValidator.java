@@ -5,6 +5,12 @@ import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.datatype.jsonorg.JsonOrgModule;
 import com.google.common.annotations.VisibleForTesting;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import java.io.IOException;
+import java.util.Iterator;
+import org.aion.api.serialization.MethodDescriptor;
+import org.aion.api.serialization.RpcSchemaLoader;
 import org.everit.json.schema.Schema;
 import org.everit.json.schema.ValidationException;
 import org.everit.json.schema.loader.SchemaClient;
@@ -21,13 +27,80 @@ import org.json.JSONObject;
  * in the AionRpc project uses Jackson for JSON representation, so most of the work
  * in this class is performing the correct conversions from Jackson to org.json
  * so it can be fed into the everit validator.
+ *
+ * Building an everit {@link Schema} (loading it, resolving its $refs, compiling
+ * its regexes) is much more expensive than running it, so compiled schemas are
+ * cached, keyed on the JsonSchema they were built from.  The schema definitions
+ * don't change during the lifetime of the kernel, so the cache only needs a size
+ * bound, not an expiry.  Use {@link #warmUp(RpcSchemaLoader, JsonSchemaTypeResolver)}
+ * to compile the schemas of all methods ahead of the first request.
+ *
+ * Alternatively, the {@link Engine#JACKSON} engine can be selected.  It uses
+ * {@link JsonSchemaCompiler}, which validates Jackson nodes directly (so no
+ * conversions at all), but only understands the subset of JsonSchema that
+ * AionRpc uses.  Unlike the everit engine, it can also validate arrays.
  */
 public class SchemaValidator {
+    /** Default maximum number of compiled schemas kept in memory */
+    public static final long DEFAULT_MAX_CACHED_SCHEMAS = 1024;
+
+    /** Implementation that performs the validation */
+    public enum Engine {
+        /** org.everit.json.schema; supports all of JsonSchema */
+        EVERIT,
+        /** {@link JsonSchemaCompiler}; works on Jackson nodes, supports a subset of JsonSchema */
+        JACKSON
+    }
+
     private ObjectMapper om;
+    private final Engine engine;
+    private final JsonSchemaCompiler compiler;
+    private final Cache<JsonNode, Schema> compiledSchemas;
+    private final Cache<JsonNode, CompiledSchema> compiledJacksonSchemas;
 
     public SchemaValidator() {
+        this(Engine.EVERIT);
+    }
+
+    /**
+     * Constructor
+     *
+     * @param maxCachedSchemas maximum number of compiled schemas to keep in memory
+     */
+    public SchemaValidator(long maxCachedSchemas) {
+        this(Engine.EVERIT, maxCachedSchemas);
+    }
+
+    /**
+     * Constructor
+     *
+     * @param engine implementation to validate with
+     */
+    public SchemaValidator(Engine engine) {
+        this(engine, DEFAULT_MAX_CACHED_SCHEMAS);
+    }
+
+    /**
+     * Constructor
+     *
+     * @param engine implementation to validate with
+     * @param maxCachedSchemas maximum number of compiled schemas to keep in memory
+     */
+    public SchemaValidator(Engine engine, long maxCachedSchemas) {
         om = new ObjectMapper();
         om.registerModule(new JsonOrgModule());
+        this.engine = engine;
+        this.compiler = new JsonSchemaCompiler();
+        compiledSchemas = CacheBuilder.newBuilder()
+            .maximumSize(maxCachedSchemas)
+            .build();
+        compiledJacksonSchemas = CacheBuilder.newBuilder()
+            .maximumSize(maxCachedSchemas)
+            .build();
+    }
+
+    public Engine getEngine() {
+        return engine;
     }
 
     /**
@@ -41,8 +114,52 @@ public class SchemaValidator {
      */
     public boolean validate(JsonNode schema,
                             JsonNode input) throws JsonProcessingException {
-        JSONObject castedSchema = om.treeToValue(schema, JSONObject.class);
-        return validate(castedSchema, input);
+        if (engine == Engine.JACKSON) {
+            return compileJackson(schema).validate(input);
+        }
+        return validate(compile(schema), input);
+    }
+
+    /**
+     * Compile the schemas used by the request parameters and responses of all
+     * the given methods, so that validating against them later only runs the
+     * already-compiled validators.
+     *
+     * @param loader loader for method and type schemas
+     * @param resolver resolver used to find the schemas of the parameter types
+     * @throws IOException if the schema of one of the methods can't be loaded
+     */
+    public void warmUp(RpcSchemaLoader loader,
+                       JsonSchemaTypeResolver resolver) throws IOException {
+        for (String method : loader.loadMethodList()) {
+            MethodDescriptor md = loader.loadMethod(method);
+            for (Iterator<JsonNode> it = md.getRequest().get("items").elements(); it.hasNext(); ) {
+                warmUp(resolver.resolveNamedSchema(it.next()));
+            }
+            warmUp(md.getResponse());
+        }
+    }
+
+    private void warmUp(RpcType type) throws JsonProcessingException {
+        warmUp(type.getDefinition());
+        for (Field f : type.getContainedFields()) {
+            warmUp(f.getType());
+        }
+    }
+
+    private void warmUp(JsonNode schema) throws JsonProcessingException {
+        if (engine == Engine.JACKSON) {
+            compileJackson(schema);
+        } else {
+            compile(schema);
+        }
+    }
+
+    @VisibleForTesting
+    long cachedSchemaCount() {
+        compiledSchemas.cleanUp();
+        compiledJacksonSchemas.cleanUp();
+        return compiledSchemas.size() + compiledJacksonSchemas.size();
     }
 
     /**
@@ -59,7 +176,12 @@ public class SchemaValidator {
     boolean validate(JSONObject schema,
                      JsonNode input)
     throws JsonProcessingException {
-        Schema validator = buildSchema(schema);
+        return validate(buildSchema(schema), input);
+    }
+
+    private boolean validate(Schema validator,
+                             JsonNode input)
+    throws JsonProcessingException {
         final Object inputObj;
 
         // The type of the object is used by the everit validator to
@@ -97,6 +219,26 @@ public class SchemaValidator {
         }
     }
 
+    private Schema compile(JsonNode schema) throws JsonProcessingException {
+        Schema compiled = compiledSchemas.getIfPresent(schema);
+        if (compiled == null) {
+            // no need to guard against two threads compiling the same schema
+            // at once; they'd build equivalent results
+            compiled = buildSchema(om.treeToValue(schema, JSONObject.class));
+            compiledSchemas.put(schema, compiled);
+        }
+        return compiled;
+    }
+
+    private CompiledSchema compileJackson(JsonNode schema) {
+        CompiledSchema compiled = compiledJacksonSchemas.getIfPresent(schema);
+        if (compiled == null) {
+            compiled = compiler.compile(schema);
+            compiledJacksonSchemas.put(schema, compiled);
+        }
+        return compiled;
+    }
+
     private Schema buildSchema(JSONObject schema) {
         SchemaLoader schemaLoader = SchemaLoader.builder()
             .schemaClient(SchemaClient.classPathAwareClient())
@@ -0,0 +1,16 @@
+package org.aion.api.serialization;
+
+import org.aion.api.RpcException;
+
+/**
+ * A call of an RPC method with its params already bound, as made by a
+ * {@link CallBinder}.
+ */
+@FunctionalInterface
+public interface BoundCall {
+    /**
+     * @return result of the method call, to be serialized into the response
+     * @throws RpcException if the method call failed
+     */
+    Object execute() throws RpcException;
+}
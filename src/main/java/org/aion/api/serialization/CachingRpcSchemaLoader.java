@@ -0,0 +1,126 @@
+package org.aion.api.serialization;
+
+import com.fasterxml.jackson.core.JsonPointer;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+import org.aion.api.schema.JsonSchemaRef;
+import org.aion.api.schema.SchemaException;
+
+/**
+ * A {@link RpcSchemaLoader} that keeps the JsonSchema of methods and types in
+ * memory, so that calling RPC methods in the kernel doesn't require repeatedly
+ * loading files.
+ *
+ * Every method listed in methods.txt and every type file is loaded once, when
+ * this object is constructed, and the definitions within the type files are
+ * pre-resolved so that dereferencing a {@link JsonSchemaRef} is a single map
+ * lookup.  Invalidation is never needed because the definitions don't change
+ * during the lifetime of the kernel.  Anything that wasn't preloaded is loaded
+ * on first use and then kept as well.
+ *
+ * The returned {@link JsonNode}s are shared between all callers, so they must
+ * be treated as read-only.
+ */
+public class CachingRpcSchemaLoader extends RpcSchemaLoader {
+    /** As per AionRpc convention, all types live in these files under schemas/type */
+    private static final List<String> TYPE_FILES = List.of(
+        "root.json", "derived.json", "errors.json");
+
+    private final ObjectMapper om = new ObjectMapper();
+
+    private final ConcurrentMap<String, MethodDescriptor> methods = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, JsonNode> typeFiles = new ConcurrentHashMap<>();
+    private final ConcurrentMap<JsonSchemaRef, JsonNode> types = new ConcurrentHashMap<>();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    /**
+     * Constructor.  Loads all methods and types.
+     *
+     * @throws SchemaException if any of the method or type schemas can't be loaded
+     */
+    public CachingRpcSchemaLoader() {
+        try {
+            for (String method : loadMethodList()) {
+                methods.put(method, super.loadMethod(method));
+            }
+            for (String file : TYPE_FILES) {
+                JsonNode root = loadTypeFile(file);
+                JsonNode defs = root.get("definitions");
+                if (defs == null) {
+                    continue;
+                }
+                for (Iterator<String> it = defs.fieldNames(); it.hasNext(); ) {
+                    String name = it.next();
+                    types.put(new JsonSchemaRef(file + "#/definitions/" + name), defs.get(name));
+                }
+            }
+        } catch (IOException ioe) {
+            throw new SchemaException("Failed to preload RPC schemas", ioe);
+        }
+    }
+
+    // -- Load method -------------------------------------------------------------------
+    @Override
+    public MethodDescriptor loadMethod(String methodName) throws IOException {
+        MethodDescriptor md = methods.get(methodName);
+        if (md != null) {
+            hits.increment();
+            return md;
+        }
+
+        misses.increment();
+        md = super.loadMethod(methodName);
+        MethodDescriptor existing = methods.putIfAbsent(methodName, md);
+        return existing != null ? existing : md;
+    }
+
+    // -- Load types --------------------------------------------------------------------
+    @Override
+    public JsonNode loadType(JsonSchemaRef ref) throws IOException {
+        JsonNode type = types.get(ref);
+        if (type != null) {
+            hits.increment();
+            return type;
+        }
+
+        misses.increment();
+        JsonNode result = loadTypeFile(ref.getFile()).at(JsonPointer.compile(ref.getFragment()));
+        if (result.isMissingNode()) {
+            throw new SchemaException(String.format(
+                    "Could not dereference %s because it led to a non-existent Json node.",
+                    ref.getValue()
+            ));
+        }
+        JsonNode existing = types.putIfAbsent(ref, result);
+        return existing != null ? existing : result;
+    }
+
+    private JsonNode loadTypeFile(String file) throws IOException {
+        JsonNode root = typeFiles.get(file);
+        if (root == null) {
+            root = SerializationUtils.loadSchemaRef(om, "schemas/type/" + file);
+            typeFiles.putIfAbsent(file, root);
+        }
+        return root;
+    }
+
+    // -- Statistics --------------------------------------------------------------------
+
+    /** @return number of lookups that were served from memory */
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    /** @return number of lookups that had to go to the classpath */
+    public long getMissCount() {
+        return misses.sum();
+    }
+}
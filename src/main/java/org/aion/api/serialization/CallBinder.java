@@ -0,0 +1,24 @@
+package org.aion.api.serialization;
+
+import java.io.IOException;
+
+/**
+ * Reads the params of a request straight from the parser into a call of its
+ * method, for {@link RequestDeserializer#deserialize(String, CallBinder)}.
+ * Implemented by the generated FusedRpcProcessor2, which reads each param
+ * into a local of its own type, so that no Object[] is built and nothing gets
+ * boxed or cast on the way to the kernel's Rpc implementation.
+ */
+public interface CallBinder {
+    /**
+     * Read every param of the method, in order, and bind them to a call of
+     * it.  The call mustn't be executed until the rest of the request has
+     * been read; any problem with the params is reported by the deserializer
+     * after this returns, so the params read may be null or zero.
+     *
+     * @param methodId id of the method (see {@link MethodTable})
+     * @param params reader positioned at the start of the params array
+     * @return call of the method with the params
+     */
+    BoundCall bind(int methodId, ParamReader params) throws IOException;
+}
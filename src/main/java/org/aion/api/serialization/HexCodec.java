@@ -0,0 +1,509 @@
+package org.aion.api.serialization;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import java.io.IOException;
+import java.math.BigInteger;
+
+/**
+ * Converts between values and the hex representations of DATA ("0x" followed
+ * by two hex digits per byte) and QUANTITY ("0x" followed by the minimal
+ * number of hex digits, "0x0" for zero).
+ *
+ * Decoding validates in the same pass, so the input doesn't need to have been
+ * checked against the DATA pattern beforehand.  Decoding works directly on a
+ * region of the input and encoding directly into a region of the output (or
+ * a {@link JsonGenerator}) -- no substrings or intermediate copies are made.
+ */
+public final class HexCodec {
+    private HexCodec() { }
+
+    private static final char[] HEX_CHARS = "0123456789abcdef".toCharArray();
+    private static final byte[] HEX_BYTES = {
+        '0', '1', '2', '3', '4', '5', '6', '7', '8', '9', 'a', 'b', 'c', 'd', 'e', 'f'
+    };
+
+    /**
+     * Largest buffer kept around per thread for writing to a generator.  Big
+     * enough for a 32kB DATA; anything longer gets a buffer of its own.
+     */
+    private static final int MAX_POOLED_BUFFER = 2 + 2 * 32 * 1024;
+    private static final ThreadLocal<char[]> BUFFER =
+        ThreadLocal.withInitial(() -> new char[2 + 2 * 256]);
+
+    /** Most QUANTITY params (nonces, indices, gas) are small; share their instances */
+    private static final int MAX_CACHED_QUANTITY = 1024;
+    private static final BigInteger[] SMALL_QUANTITIES = new BigInteger[MAX_CACHED_QUANTITY + 1];
+
+    /** Up to this many digits, a QUANTITY is decoded into a long */
+    private static final int MAX_LONG_DIGITS = 15;
+
+    /** Value of each ASCII hex digit; -1 for anything that isn't one */
+    private static final byte[] DIGITS = new byte[256];
+
+    static {
+        for (int i = 0; i < DIGITS.length; ++i) {
+            DIGITS[i] = -1;
+        }
+        for (int i = 0; i < 10; ++i) {
+            DIGITS['0' + i] = (byte) i;
+        }
+        for (int i = 0; i < 6; ++i) {
+            DIGITS['a' + i] = (byte) (10 + i);
+            DIGITS['A' + i] = (byte) (10 + i);
+        }
+        for (int i = 0; i < SMALL_QUANTITIES.length; ++i) {
+            SMALL_QUANTITIES[i] = BigInteger.valueOf(i);
+        }
+    }
+
+    /**
+     * @param hex hex representation of DATA, including the "0x"
+     * @return the decoded bytes, or null if the input isn't valid DATA
+     */
+    public static byte[] decodeData(CharSequence hex) {
+        final int len = hex.length();
+        if (len < 2 || (len & 1) != 0 || hex.charAt(0) != '0' || hex.charAt(1) != 'x') {
+            return null;
+        }
+
+        byte[] result = new byte[(len - 2) >> 1];
+        for (int i = 2, j = 0; i < len; i += 2, ++j) {
+            int hi = digit(hex.charAt(i));
+            int lo = digit(hex.charAt(i + 1));
+            if ((hi | lo) < 0) {
+                return null;
+            }
+            result[j] = (byte) ((hi << 4) | lo);
+        }
+        return result;
+    }
+
+    /**
+     * @param hex buffer containing the hex representation of DATA, including the "0x"
+     * @param offset where the hex starts in the buffer
+     * @param length length of the hex, in chars
+     * @return the decoded bytes, or null if the input isn't valid DATA
+     */
+    public static byte[] decodeData(char[] hex, int offset, int length) {
+        if (length < 2 || (length & 1) != 0 || hex[offset] != '0' || hex[offset + 1] != 'x') {
+            return null;
+        }
+
+        final int end = offset + length;
+        byte[] result = new byte[(length - 2) >> 1];
+        for (int i = offset + 2, j = 0; i < end; i += 2, ++j) {
+            int hi = digit(hex[i]);
+            int lo = digit(hex[i + 1]);
+            if ((hi | lo) < 0) {
+                return null;
+            }
+            result[j] = (byte) ((hi << 4) | lo);
+        }
+        return result;
+    }
+
+    /**
+     * @param utf8 buffer containing the UTF-8 encoded hex representation of
+     * DATA, including the "0x"
+     * @param offset where the hex starts in the buffer
+     * @param length length of the hex, in bytes
+     * @return the decoded bytes, or null if the input isn't valid DATA
+     */
+    public static byte[] decodeData(byte[] utf8, int offset, int length) {
+        if (length < 2 || (length & 1) != 0 || utf8[offset] != '0' || utf8[offset + 1] != 'x') {
+            return null;
+        }
+
+        final int end = offset + length;
+        byte[] result = new byte[(length - 2) >> 1];
+        for (int i = offset + 2, j = 0; i < end; i += 2, ++j) {
+            // any byte of a multi-byte UTF-8 sequence maps to -1
+            int hi = DIGITS[utf8[i] & 0xff];
+            int lo = DIGITS[utf8[i + 1] & 0xff];
+            if ((hi | lo) < 0) {
+                return null;
+            }
+            result[j] = (byte) ((hi << 4) | lo);
+        }
+        return result;
+    }
+
+    /**
+     * @param hex hex representation of QUANTITY, including the "0x"
+     * @return the decoded value, or null if the input isn't valid QUANTITY
+     */
+    public static BigInteger decodeQuantity(CharSequence hex) {
+        final int len = hex.length();
+        if (len - 2 <= MAX_LONG_DIGITS) {
+            long value = decodeLongQuantity(hex);
+            return value < 0 ? null : quantity(value);
+        }
+        if (hex.charAt(0) != '0' || hex.charAt(1) != 'x') {
+            return null;
+        }
+
+        // fill the magnitude from the least significant digit
+        byte[] magnitude = new byte[(len - 1) >> 1];
+        for (int i = len - 1, pos = 0; i >= 2; --i, ++pos) {
+            int d = digit(hex.charAt(i));
+            if (d < 0) {
+                return null;
+            }
+            magnitude[magnitude.length - 1 - (pos >>> 1)] |= (pos & 1) == 0 ? d : d << 4;
+        }
+        return new BigInteger(1, magnitude);
+    }
+
+    /**
+     * Decode a QUANTITY that's known to be small, i.e. one of a type whose
+     * maxLength is at most {@link org.aion.api.schema.JsonSchemaTypeResolver#MAX_LONG_QUANTITY_LENGTH}.
+     *
+     * @param hex hex representation of QUANTITY, including the "0x"
+     * @return the decoded value, or -1 if the input isn't valid QUANTITY or
+     * has more than 15 digits
+     */
+    public static long decodeLongQuantity(CharSequence hex) {
+        final int len = hex.length();
+        if (len < 3 || len - 2 > MAX_LONG_DIGITS || hex.charAt(0) != '0' || hex.charAt(1) != 'x') {
+            return -1;
+        }
+
+        long value = 0;
+        for (int i = 2; i < len; ++i) {
+            int d = digit(hex.charAt(i));
+            if (d < 0) {
+                return -1;
+            }
+            value = (value << 4) | d;
+        }
+        return value;
+    }
+
+    /**
+     * @param hex buffer containing the hex representation of QUANTITY, including the "0x"
+     * @param offset where the hex starts in the buffer
+     * @param length length of the hex, in chars
+     * @return the decoded value, or null if the input isn't valid QUANTITY
+     */
+    public static BigInteger decodeQuantity(char[] hex, int offset, int length) {
+        if (length - 2 <= MAX_LONG_DIGITS) {
+            long value = decodeLongQuantity(hex, offset, length);
+            return value < 0 ? null : quantity(value);
+        }
+        if (hex[offset] != '0' || hex[offset + 1] != 'x') {
+            return null;
+        }
+
+        final int end = offset + length;
+        byte[] magnitude = new byte[(length - 1) >> 1];
+        for (int i = end - 1, pos = 0; i >= offset + 2; --i, ++pos) {
+            int d = digit(hex[i]);
+            if (d < 0) {
+                return null;
+            }
+            magnitude[magnitude.length - 1 - (pos >>> 1)] |= (pos & 1) == 0 ? d : d << 4;
+        }
+        return new BigInteger(1, magnitude);
+    }
+
+    /**
+     * Same as {@link #decodeLongQuantity(CharSequence)}, for a region of a buffer
+     *
+     * @param hex buffer containing the hex representation of QUANTITY, including the "0x"
+     * @param offset where the hex starts in the buffer
+     * @param length length of the hex, in chars
+     */
+    public static long decodeLongQuantity(char[] hex, int offset, int length) {
+        if (length < 3 || length - 2 > MAX_LONG_DIGITS || hex[offset] != '0' || hex[offset + 1] != 'x') {
+            return -1;
+        }
+
+        final int end = offset + length;
+        long value = 0;
+        for (int i = offset + 2; i < end; ++i) {
+            int d = digit(hex[i]);
+            if (d < 0) {
+                return -1;
+            }
+            value = (value << 4) | d;
+        }
+        return value;
+    }
+
+    /**
+     * @param utf8 buffer containing the UTF-8 encoded hex representation of
+     * QUANTITY, including the "0x"
+     * @param offset where the hex starts in the buffer
+     * @param length length of the hex, in bytes
+     * @return the decoded value, or null if the input isn't valid QUANTITY
+     */
+    public static BigInteger decodeQuantity(byte[] utf8, int offset, int length) {
+        if (length < 3 || utf8[offset] != '0' || utf8[offset + 1] != 'x') {
+            return null;
+        }
+
+        final int end = offset + length;
+        if (length - 2 <= MAX_LONG_DIGITS) {
+            long value = 0;
+            for (int i = offset + 2; i < end; ++i) {
+                int d = DIGITS[utf8[i] & 0xff];
+                if (d < 0) {
+                    return null;
+                }
+                value = (value << 4) | d;
+            }
+            return quantity(value);
+        }
+
+        byte[] magnitude = new byte[(length - 1) >> 1];
+        for (int i = end - 1, pos = 0; i >= offset + 2; --i, ++pos) {
+            int d = DIGITS[utf8[i] & 0xff];
+            if (d < 0) {
+                return null;
+            }
+            magnitude[magnitude.length - 1 - (pos >>> 1)] |= (pos & 1) == 0 ? d : d << 4;
+        }
+        return new BigInteger(1, magnitude);
+    }
+
+    /** @return the value, using the shared instance if it's small */
+    private static BigInteger quantity(long value) {
+        return value <= MAX_CACHED_QUANTITY ? SMALL_QUANTITIES[(int) value] : BigInteger.valueOf(value);
+    }
+
+    // -- Encoding ----------------------------------------------------------------------
+
+    /** @return length of the hex representation of the DATA, including the "0x" */
+    public static int dataLength(byte[] data) {
+        return 2 + 2 * data.length;
+    }
+
+    /**
+     * @param quantity non-negative value
+     * @return length of the hex representation of the QUANTITY, including the "0x"
+     */
+    public static int quantityLength(long quantity) {
+        return 2 + digits(64 - Long.numberOfLeadingZeros(quantity));
+    }
+
+    /**
+     * @param quantity non-negative value
+     * @return length of the hex representation of the QUANTITY, including the "0x"
+     */
+    public static int quantityLength(BigInteger quantity) {
+        return 2 + digits(quantity.bitLength());
+    }
+
+    /**
+     * Write the hex representation of DATA into a buffer; there must be room
+     * for {@link #dataLength(byte[])} chars.
+     *
+     * @return number of chars written
+     */
+    public static int encodeData(byte[] data, char[] dest, int offset) {
+        dest[offset] = '0';
+        dest[offset + 1] = 'x';
+        for (int i = 0, j = offset + 2; i < data.length; ++i, j += 2) {
+            int b = data[i] & 0xff;
+            dest[j] = HEX_CHARS[b >>> 4];
+            dest[j + 1] = HEX_CHARS[b & 0x0f];
+        }
+        return dataLength(data);
+    }
+
+    /**
+     * Write the UTF-8 encoded hex representation of DATA into a buffer; there
+     * must be room for {@link #dataLength(byte[])} bytes.
+     *
+     * @return number of bytes written
+     */
+    public static int encodeData(byte[] data, byte[] utf8Dest, int offset) {
+        utf8Dest[offset] = '0';
+        utf8Dest[offset + 1] = 'x';
+        for (int i = 0, j = offset + 2; i < data.length; ++i, j += 2) {
+            int b = data[i] & 0xff;
+            utf8Dest[j] = HEX_BYTES[b >>> 4];
+            utf8Dest[j + 1] = HEX_BYTES[b & 0x0f];
+        }
+        return dataLength(data);
+    }
+
+    /**
+     * Write the hex representation of a QUANTITY into a buffer; there must be
+     * room for {@link #quantityLength(long)} chars.
+     *
+     * @return number of chars written
+     * @throws IllegalArgumentException if the quantity is negative
+     */
+    public static int encodeQuantity(long quantity, char[] dest, int offset) {
+        final int len = quantityLength(checkQuantity(quantity));
+        dest[offset] = '0';
+        dest[offset + 1] = 'x';
+        long rest = quantity;
+        for (int i = offset + len - 1; i >= offset + 2; --i) {
+            dest[i] = HEX_CHARS[(int) rest & 0x0f];
+            rest >>>= 4;
+        }
+        return len;
+    }
+
+    /**
+     * Write the UTF-8 encoded hex representation of a QUANTITY into a buffer;
+     * there must be room for {@link #quantityLength(long)} bytes.
+     *
+     * @return number of bytes written
+     * @throws IllegalArgumentException if the quantity is negative
+     */
+    public static int encodeQuantity(long quantity, byte[] utf8Dest, int offset) {
+        final int len = quantityLength(checkQuantity(quantity));
+        utf8Dest[offset] = '0';
+        utf8Dest[offset + 1] = 'x';
+        long rest = quantity;
+        for (int i = offset + len - 1; i >= offset + 2; --i) {
+            utf8Dest[i] = HEX_BYTES[(int) rest & 0x0f];
+            rest >>>= 4;
+        }
+        return len;
+    }
+
+    /**
+     * Write the hex representation of a QUANTITY into a buffer; there must be
+     * room for {@link #quantityLength(BigInteger)} chars.
+     *
+     * @return number of chars written
+     * @throws IllegalArgumentException if the quantity is negative
+     */
+    public static int encodeQuantity(BigInteger quantity, char[] dest, int offset) {
+        if (quantity.bitLength() < 64) {
+            return encodeQuantity(quantity.longValue(), dest, offset);
+        }
+        final int len = quantityLength(checkQuantity(quantity));
+        dest[offset] = '0';
+        dest[offset + 1] = 'x';
+        // big-endian, so the least significant digits are at the end
+        byte[] bytes = quantity.toByteArray();
+        for (int i = offset + len - 1, pos = 0; i >= offset + 2; --i, ++pos) {
+            dest[i] = HEX_CHARS[nibble(bytes, pos)];
+        }
+        return len;
+    }
+
+    /**
+     * Write the UTF-8 encoded hex representation of a QUANTITY into a buffer;
+     * there must be room for {@link #quantityLength(BigInteger)} bytes.
+     *
+     * @return number of bytes written
+     * @throws IllegalArgumentException if the quantity is negative
+     */
+    public static int encodeQuantity(BigInteger quantity, byte[] utf8Dest, int offset) {
+        if (quantity.bitLength() < 64) {
+            return encodeQuantity(quantity.longValue(), utf8Dest, offset);
+        }
+        final int len = quantityLength(checkQuantity(quantity));
+        utf8Dest[offset] = '0';
+        utf8Dest[offset + 1] = 'x';
+        byte[] bytes = quantity.toByteArray();
+        for (int i = offset + len - 1, pos = 0; i >= offset + 2; --i, ++pos) {
+            utf8Dest[i] = HEX_BYTES[nibble(bytes, pos)];
+        }
+        return len;
+    }
+
+    /** Write the hex representation of DATA as a string value */
+    public static void writeData(JsonGenerator gen, byte[] data) throws IOException {
+        char[] buf = buffer(dataLength(data));
+        gen.writeString(buf, 0, encodeData(data, buf, 0));
+    }
+
+    /**
+     * Write the hex representation of a QUANTITY as a string value
+     *
+     * @throws IllegalArgumentException if the quantity is negative
+     */
+    public static void writeQuantity(JsonGenerator gen, long quantity) throws IOException {
+        // a long never needs more than the initial buffer
+        char[] buf = BUFFER.get();
+        gen.writeString(buf, 0, encodeQuantity(quantity, buf, 0));
+    }
+
+    /**
+     * Write the hex representation of a QUANTITY as a string value
+     *
+     * @throws IllegalArgumentException if the quantity is negative
+     */
+    public static void writeQuantity(JsonGenerator gen, BigInteger quantity) throws IOException {
+        char[] buf = buffer(quantityLength(quantity));
+        gen.writeString(buf, 0, encodeQuantity(quantity, buf, 0));
+    }
+
+    /** @return the hex representation of DATA */
+    public static String toData(byte[] data) {
+        char[] chars = new char[dataLength(data)];
+        encodeData(data, chars, 0);
+        return new String(chars);
+    }
+
+    /**
+     * @return the hex representation of a QUANTITY
+     * @throws IllegalArgumentException if the quantity is negative
+     */
+    public static String toQuantity(long quantity) {
+        char[] chars = new char[quantityLength(quantity)];
+        return new String(chars, 0, encodeQuantity(quantity, chars, 0));
+    }
+
+    /**
+     * @return the hex representation of a QUANTITY
+     * @throws IllegalArgumentException if the quantity is negative
+     */
+    public static String toQuantity(BigInteger quantity) {
+        char[] chars = new char[quantityLength(quantity)];
+        return new String(chars, 0, encodeQuantity(quantity, chars, 0));
+    }
+
+    /** @return number of hex digits of a QUANTITY with the given bit length */
+    private static int digits(int bitLength) {
+        // zero is "0x0", not "0x"
+        return bitLength == 0 ? 1 : (bitLength + 3) >>> 2;
+    }
+
+    /** @return the {@code pos}-th least significant hex digit of a big-endian number */
+    private static int nibble(byte[] bigEndian, int pos) {
+        int b = bigEndian[bigEndian.length - 1 - (pos >>> 1)];
+        return (pos & 1) == 0 ? b & 0x0f : (b >>> 4) & 0x0f;
+    }
+
+    private static long checkQuantity(long quantity) {
+        if (quantity < 0) {
+            throw new IllegalArgumentException("QUANTITY can't be negative: " + quantity);
+        }
+        return quantity;
+    }
+
+    private static BigInteger checkQuantity(BigInteger quantity) {
+        if (quantity.signum() < 0) {
+            throw new IllegalArgumentException("QUANTITY can't be negative: " + quantity);
+        }
+        return quantity;
+    }
+
+    /**
+     * @return this thread's buffer if it has room for {@code length} chars,
+     * otherwise a bigger one
+     */
+    private static char[] buffer(int length) {
+        char[] buf = BUFFER.get();
+        if (buf.length >= length) {
+            return buf;
+        }
+        buf = new char[length];
+        if (length <= MAX_POOLED_BUFFER) {
+            BUFFER.set(buf);
+        }
+        return buf;
+    }
+
+    private static int digit(char c) {
+        return c < DIGITS.length ? DIGITS[c] : -1;
+    }
+}
@@ -6,18 +6,35 @@ import com.fasterxml.jackson.annotation.JsonProperty;
 import org.aion.api.RpcException;
 
 public class JsonRpcRequest {
-    private final String jsonrpc;
-    private final String method;
+    private String jsonrpc;
+    private String method;
     @JsonIgnore
     private Object[] params;
-    private final String id;
+    private String id;
+    /** Position of the method in the {@link MethodTable}; {@link MethodTable#UNKNOWN} if it isn't in it */
+    private int methodId = MethodTable.UNKNOWN;
+    @JsonIgnore
+    private BoundCall call;
 
+    /** Whether this belongs to a {@link RequestPool}, so gets reused once released */
+    private final boolean pooled;
 
     @JsonCreator
     public JsonRpcRequest(@JsonProperty("method") String method,
                           @JsonProperty("id") String id,
                           @JsonProperty("jsonrpc") String jsonrpc)
     throws RpcException {
+        this.pooled = false;
+        reset(method, id, jsonrpc);
+    }
+
+    /** Constructor for pooled instances; filled in with {@link #reset} */
+    JsonRpcRequest() {
+        this.pooled = true;
+    }
+
+    /** Fill in the envelope fields, checking them the same way as the public constructor */
+    void reset(String method, String id, String jsonrpc) throws RpcException {
         if(method == null) {
             throw RpcException.invalidRequest("Missing method field in request");
         }
@@ -27,6 +44,27 @@ public class JsonRpcRequest {
         this.jsonrpc = jsonrpc;
         this.method = method;
         this.id = id;
+        this.params = null;
+        this.methodId = MethodTable.UNKNOWN;
+        this.call = null;
+    }
+
+    /** Drop all references, so that a pooled instance doesn't keep anything alive */
+    void clear() {
+        this.jsonrpc = null;
+        this.method = null;
+        this.id = null;
+        this.params = null;
+        this.methodId = MethodTable.UNKNOWN;
+        this.call = null;
+    }
+
+    void setMethodId(int methodId) {
+        this.methodId = methodId;
+    }
+
+    boolean isPooled() {
+        return pooled;
     }
 
     public String getJsonrpc() {
@@ -37,6 +75,15 @@ public class JsonRpcRequest {
         return method;
     }
 
+    /**
+     * @return dense id of the method (see {@link MethodTable}), for dispatching
+     * without comparing Strings; {@link MethodTable#UNKNOWN} if the request
+     * wasn't made by a {@link RequestDeserializer} (see {@link MethodTable#idOf(JsonRpcRequest)})
+     */
+    public int getMethodId() {
+        return methodId;
+    }
+
     public Object[] getParams() {
         return params;
     }
@@ -45,6 +92,19 @@ public class JsonRpcRequest {
         this.params = params;
     }
 
+    /**
+     * @return call of the method with the params bound to it, if it was
+     * deserialized with a {@link CallBinder}; otherwise null, and the params
+     * are in {@link #getParams()}
+     */
+    public BoundCall getCall() {
+        return call;
+    }
+
+    void setCall(BoundCall call) {
+        this.call = call;
+    }
+
     public String getId() {
         return id;
     }
@@ -0,0 +1,125 @@
+package org.aion.api.serialization;
+
+import com.fasterxml.jackson.core.JsonGenerationException;
+import com.fasterxml.jackson.core.JsonGenerator;
+import java.io.IOException;
+import java.math.BigInteger;
+import org.aion.api.schema.SchemaValidationException;
+
+/**
+ * A result type that writes itself to a {@link JsonGenerator}, so that
+ * {@link ResponseSerializer} doesn't have to serialize it reflectively.
+ *
+ * The POD classes generated by {@link org.aion.api.codegen.GenerateDataHolders}
+ * implement this, writing their fields in schema order with {@link HexCodec}.
+ * The static methods here are what the generated code calls.
+ */
+public interface JsonWritable {
+    /**
+     * Write this as a JSON object.  Nothing is checked beforehand; see
+     * {@link #validate()}.
+     *
+     * @throws JsonGenerationException if a QUANTITY field is negative
+     */
+    void writeTo(JsonGenerator gen) throws IOException;
+
+    /**
+     * Check the constraints that can be checked without a schema validator:
+     * that every field is present, that DATA and QUANTITY fields whose types
+     * only have length constraints are within them, and that nested objects
+     * are valid.  For types made up only of such fields, this is equivalent
+     * to validating what {@link #writeTo(JsonGenerator)} writes against the
+     * schema.
+     *
+     * @throws SchemaValidationException describing the first violation found
+     */
+    void validate() throws SchemaValidationException;
+
+    // -- Writing -----------------------------------------------------------------------
+
+    static void writeData(JsonGenerator gen, byte[] value) throws IOException {
+        if (value == null) {
+            gen.writeNull();
+        } else {
+            HexCodec.writeData(gen, value);
+        }
+    }
+
+    static void writeQuantity(JsonGenerator gen, BigInteger value) throws IOException {
+        if (value == null) {
+            gen.writeNull();
+        } else if (value.signum() < 0) {
+            throw new JsonGenerationException("QUANTITY can't be negative: " + value, gen);
+        } else {
+            HexCodec.writeQuantity(gen, value);
+        }
+    }
+
+    static void writeQuantity(JsonGenerator gen, long value) throws IOException {
+        if (value < 0) {
+            throw new JsonGenerationException("QUANTITY can't be negative: " + value, gen);
+        }
+        HexCodec.writeQuantity(gen, value);
+    }
+
+    static void writeObject(JsonGenerator gen, JsonWritable value) throws IOException {
+        if (value == null) {
+            gen.writeNull();
+        } else {
+            value.writeTo(gen);
+        }
+    }
+
+    // -- Validation --------------------------------------------------------------------
+
+    /** Bounds are on the length of the hex representation, including the "0x" */
+    static void checkData(String field, byte[] value, int minLength, int maxLength)
+    throws SchemaValidationException {
+        checkPresent(field, value);
+        checkLength(field, HexCodec.dataLength(value), minLength, maxLength);
+    }
+
+    /** Bounds are on the length of the hex representation, including the "0x" */
+    static void checkQuantity(String field, BigInteger value, int minLength, int maxLength)
+    throws SchemaValidationException {
+        checkPresent(field, value);
+        if (value.signum() < 0) {
+            throw negative(field, value);
+        }
+        checkLength(field, HexCodec.quantityLength(value), minLength, maxLength);
+    }
+
+    /** Bounds are on the length of the hex representation, including the "0x" */
+    static void checkQuantity(String field, long value, int minLength, int maxLength)
+    throws SchemaValidationException {
+        if (value < 0) {
+            throw negative(field, value);
+        }
+        checkLength(field, HexCodec.quantityLength(value), minLength, maxLength);
+    }
+
+    static void checkObject(String field, JsonWritable value) throws SchemaValidationException {
+        checkPresent(field, value);
+        value.validate();
+    }
+
+    static void checkPresent(String field, Object value) throws SchemaValidationException {
+        if (value == null) {
+            throw new SchemaValidationException("Missing value for field " + field);
+        }
+    }
+
+    private static void checkLength(String field, int length, int minLength, int maxLength)
+    throws SchemaValidationException {
+        if (length < minLength || length > maxLength) {
+            throw new SchemaValidationException(String.format(
+                "Value of field %s has length %d; expected between %d and %d",
+                field, length, minLength, maxLength));
+        }
+    }
+
+    private static SchemaValidationException negative(String field, Object value) {
+        return new SchemaValidationException(
+            "QUANTITY can't be negative.  Field " + field + ": " + value);
+    }
+}
@@ -2,7 +2,7 @@ package org.aion.api.serialization;
 
 import com.fasterxml.jackson.databind.JsonNode;
 
-public class MethodDescriptor {
+public final class MethodDescriptor {
     private final String name;
     private final JsonNode request;
     private final JsonNode response;
@@ -0,0 +1,170 @@
+package org.aion.api.serialization;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A fixed set of method names, i.e. those in methods.txt, each with a dense
+ * integer id: its position in the list.  The generated RpcProcessor2 switches
+ * on these ids, so they're the same as the ones it was generated with as long
+ * as methods.txt hasn't changed since.
+ *
+ * Names can be looked up straight from a region of chars (such as a
+ * JsonParser's text buffer), so that a request for a known method gets the
+ * table's String instance rather than a new String of its own.  Lookups go
+ * through a perfect hash: every name has a slot of its own, so a lookup hashes
+ * the input once and compares it against at most one name.
+ */
+public final class MethodTable {
+    /** Id of any method that isn't in the table */
+    public static final int UNKNOWN = -1;
+
+    /** Seeds to try per table size before making the table bigger */
+    private static final int SEED_ATTEMPTS = 1024;
+    private static final int FNV_PRIME = 0x01000193;
+
+    private final List<String> methods;
+    /** Name in each slot; null slots are empty */
+    private final String[] slots;
+    /** Id of the name in each slot */
+    private final int[] slotIds;
+    private final int mask;
+    private final int seed;
+
+    /** @param methods method names, in id order; blank and repeated ones are ignored */
+    public MethodTable(Collection<String> methods) {
+        List<String> names = new ArrayList<>(methods.size());
+        for (String method : methods) {
+            String name = method.trim();
+            if (!name.isEmpty() && !names.contains(name)) {
+                names.add(name);
+            }
+        }
+        this.methods = Collections.unmodifiableList(names);
+
+        // look for a seed that gives every name a slot of its own; start at
+        // twice as many slots as names and double whenever no seed works
+        int capacity = Integer.highestOneBit(Math.max(names.size(), 1) * 4 - 1);
+        int candidate = 0;
+        String[] placed;
+        while ((placed = place(names, capacity, candidate)) == null) {
+            if (++candidate == SEED_ATTEMPTS) {
+                candidate = 0;
+                capacity *= 2;
+            }
+        }
+
+        this.slots = placed;
+        this.slotIds = new int[capacity];
+        this.mask = capacity - 1;
+        this.seed = candidate;
+        for (int slot = 0; slot < capacity; ++slot) {
+            slotIds[slot] = placed[slot] == null ? UNKNOWN : names.indexOf(placed[slot]);
+        }
+    }
+
+    /** @return table of the methods in the loader's method list */
+    public static MethodTable load(RpcSchemaLoader loader) throws IOException {
+        return new MethodTable(loader.loadMethodList());
+    }
+
+    /** @return the method names, in id order */
+    public List<String> getMethods() {
+        return methods;
+    }
+
+    /** @return number of methods; ids are from 0 up to this, exclusive */
+    public int size() {
+        return methods.size();
+    }
+
+    /** @return name of the method with the given id */
+    public String getMethod(int id) {
+        return methods.get(id);
+    }
+
+    /** @return id of the method, or {@link #UNKNOWN} if it isn't in the table */
+    public int idOf(String name) {
+        int slot = hash(name, seed) & mask;
+        return name.equals(slots[slot]) ? slotIds[slot] : UNKNOWN;
+    }
+
+    /**
+     * @return id of the method named by {@code chars[offset, offset + length)},
+     * or {@link #UNKNOWN} if it isn't in the table
+     */
+    public int idOf(char[] chars, int offset, int length) {
+        int hash = seed;
+        for (int ix = offset; ix < offset + length; ++ix) {
+            hash = (hash ^ chars[ix]) * FNV_PRIME;
+        }
+        int slot = (hash ^ (hash >>> 16)) & mask;
+        return matches(slots[slot], chars, offset, length) ? slotIds[slot] : UNKNOWN;
+    }
+
+    /**
+     * @return id of the request's method: the one the deserializer gave it,
+     * or else (for a request that was built some other way) the one its name
+     * has here; {@link #UNKNOWN} if it isn't in the table
+     */
+    public int idOf(JsonRpcRequest req) {
+        int id = req.getMethodId();
+        return id != UNKNOWN ? id : idOf(req.getMethod());
+    }
+
+    /** @return the table's instance of the name, or null if it isn't in the table */
+    public String lookup(String name) {
+        int id = idOf(name);
+        return id == UNKNOWN ? null : methods.get(id);
+    }
+
+    /**
+     * @return the table's instance of the name in {@code chars[offset, offset + length)},
+     * or null if it isn't in the table
+     */
+    public String lookup(char[] chars, int offset, int length) {
+        int id = idOf(chars, offset, length);
+        return id == UNKNOWN ? null : methods.get(id);
+    }
+
+    /** @return the names in their slots, or null if two of them would share a slot */
+    private static String[] place(List<String> names, int capacity, int seed) {
+        String[] trial = new String[capacity];
+        for (String name : names) {
+            int slot = hash(name, seed) & (capacity - 1);
+            if (trial[slot] != null) {
+                return null;
+            }
+            trial[slot] = name;
+        }
+        return trial;
+    }
+
+    /**
+     * FNV-1a, starting from the seed.  Unlike String.hashCode, names that
+     * collide for one seed generally don't for another.  Must give the same
+     * result as the loop in {@link #idOf(char[], int, int)}.
+     */
+    private static int hash(String name, int seed) {
+        int hash = seed;
+        for (int ix = 0; ix < name.length(); ++ix) {
+            hash = (hash ^ name.charAt(ix)) * FNV_PRIME;
+        }
+        return hash ^ (hash >>> 16);
+    }
+
+    private static boolean matches(String name, char[] chars, int offset, int length) {
+        if (name == null || name.length() != length) {
+            return false;
+        }
+        for (int ix = 0; ix < length; ++ix) {
+            if (name.charAt(ix) != chars[offset + ix]) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
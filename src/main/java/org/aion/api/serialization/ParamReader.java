@@ -0,0 +1,156 @@
+package org.aion.api.serialization;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import java.io.IOException;
+import java.math.BigInteger;
+import org.aion.api.RpcException;
+import org.aion.api.schema.NamedRpcType;
+import org.aion.api.schema.SchemaValidationException;
+
+/**
+ * Reads the elements of a request's params array one at a time, each as the
+ * type that the method's request schema gives it.  Handed to a
+ * {@link CallBinder} by {@link RequestDeserializer}.
+ *
+ * Problems are recorded rather than thrown, the same way as for the rest of
+ * the request: once a param fails, the remaining ones are skipped and read as
+ * null (or false or 0).  {@link #end()} reports them.
+ */
+public final class ParamReader {
+    private final RpcTypeDeserializer deserializer;
+    private final JsonParser parser;
+    private final NamedRpcType[] plan;
+    private final int paramDepth;
+
+    private int count;
+    private boolean ended;
+    private RpcException error;
+
+    /**
+     * @param parser parser positioned at the start of the params array
+     * @param plan types of the params, in order
+     * @param paramDepth nesting depth of the array's elements
+     */
+    ParamReader(RpcTypeDeserializer deserializer,
+                JsonParser parser,
+                NamedRpcType[] plan,
+                int paramDepth) {
+        this.deserializer = deserializer;
+        this.parser = parser;
+        this.plan = plan;
+        this.paramDepth = paramDepth;
+    }
+
+    /** @return the next param, whatever its type */
+    public Object next() throws IOException {
+        NamedRpcType type = advance();
+        if (type != null) {
+            try {
+                return deserializer.deserialize(parser, type);
+            } catch (SchemaValidationException svx) {
+                fail(svx);
+            }
+        }
+        return null;
+    }
+
+    /** @return the next param, which must be rooted in DATA */
+    public byte[] nextData() throws IOException {
+        NamedRpcType type = advance();
+        if (type != null) {
+            try {
+                return deserializer.deserializeData(parser, type);
+            } catch (SchemaValidationException svx) {
+                fail(svx);
+            }
+        }
+        return null;
+    }
+
+    /** @return the next param, which must be rooted in QUANTITY and represented by a BigInteger */
+    public BigInteger nextQuantity() throws IOException {
+        NamedRpcType type = advance();
+        if (type != null) {
+            try {
+                return deserializer.deserializeQuantity(parser, type);
+            } catch (SchemaValidationException svx) {
+                fail(svx);
+            }
+        }
+        return null;
+    }
+
+    /** @return the next param, which must be rooted in QUANTITY and represented by a long */
+    public long nextLongQuantity() throws IOException {
+        NamedRpcType type = advance();
+        if (type != null) {
+            try {
+                return deserializer.deserializeLongQuantity(parser, type);
+            } catch (SchemaValidationException svx) {
+                fail(svx);
+            }
+        }
+        return 0;
+    }
+
+    /** @return the next param, which must be rooted in BOOLEAN */
+    public boolean nextBoolean() throws IOException {
+        NamedRpcType type = advance();
+        if (type != null) {
+            try {
+                return deserializer.deserializeBoolean(parser, type);
+            } catch (SchemaValidationException svx) {
+                fail(svx);
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Skip any params that weren't read, so that the parser is positioned at
+     * the end of the array.
+     *
+     * @throws RpcException if there were too few or too many params, or one
+     * of them was invalid
+     */
+    void end() throws RpcException, IOException {
+        if (!ended) {
+            while (parser.nextToken() != JsonToken.END_ARRAY) {
+                parser.skipChildren();
+                count++;
+            }
+            ended = true;
+        }
+        if (count != plan.length) {
+            throw RequestDeserializer.wrongArgumentCount(plan.length, count);
+        }
+        if (error != null) {
+            throw error;
+        }
+    }
+
+    /**
+     * Move to the next element of the array
+     *
+     * @return its type, or null if it shouldn't be read: because there are
+     * no more elements, too many of them, or an earlier one failed
+     */
+    private NamedRpcType advance() throws IOException {
+        if (ended || parser.nextToken() == JsonToken.END_ARRAY) {
+            ended = true;
+            return null;
+        }
+        NamedRpcType type = error == null && count < plan.length ? plan[count] : null;
+        count++;
+        if (type == null) {
+            parser.skipChildren();
+        }
+        return type;
+    }
+
+    private void fail(SchemaValidationException svx) throws IOException {
+        error = RpcException.invalidParams(svx.getMessage());
+        RequestDeserializer.skipRestOfParam(parser, paramDepth);
+    }
+}
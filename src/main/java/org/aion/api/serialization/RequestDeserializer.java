@@ -1,16 +1,30 @@
 package org.aion.api.serialization;
 
 import com.fasterxml.jackson.core.JsonParseException;
-import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonStreamContext;
+import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.util.ByteBufferBackedInputStream;
 import com.google.common.annotations.VisibleForTesting;
-import com.google.common.collect.Lists;
 import org.aion.api.RpcException;
+import org.aion.api.jfr.RpcDeserializationEvent;
+import org.aion.api.jfr.RpcEvents;
+import org.aion.api.metrics.RpcPhase;
+import org.aion.api.metrics.RpcTracer;
 import org.aion.api.schema.JsonSchemaTypeResolver;
+import org.aion.api.schema.NamedRpcType;
+import org.aion.api.schema.SchemaException;
 
+import java.io.CharConversionException;
+import java.io.FileNotFoundException;
 import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 
 import org.aion.api.schema.SchemaValidationException;
 
@@ -19,13 +33,57 @@ public class RequestDeserializer {
     protected final JsonSchemaTypeResolver resolver;
     private final RpcSchemaLoader schemaLoader;
     private final RpcTypeDeserializer deserializer;
+    private final MethodTable methods;
+    private final boolean pooling;
+    /**
+     * Volatile since it's set on another thread than the ones handling
+     * requests; each phase reads it once, so that the phase both starts and
+     * ends with the same tracer
+     */
+    private volatile RpcTracer tracer = RpcTracer.NOOP;
+
+    private static final String JSONRPC_VERSION = "2.0";
+
+    /** Payload size for payloads whose size isn't known up front, i.e. streams */
+    private static final long UNKNOWN_SIZE = -1;
+
+    private static final List<String> ENVELOPE_FIELDS = List.of(
+        "jsonrpc", "method", "id", "params");
+
+    /** Types of the params of each method, in order, indexed by method id; filled in on first use */
+    private final AtomicReferenceArray<NamedRpcType[]> paramPlans;
 
     public RequestDeserializer(RpcTypeDeserializer rpcTypeDeserializer) {
+        this(rpcTypeDeserializer, new CachingRpcSchemaLoader());
+    }
+
+    /**
+     * Constructor that allows the schema loader to be shared with other
+     * components, i.e. a {@link ResponseSerializer}.
+     */
+    public RequestDeserializer(RpcTypeDeserializer rpcTypeDeserializer,
+                               RpcSchemaLoader schemaLoader) {
+        this(rpcTypeDeserializer, schemaLoader, false);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param rpcTypeDeserializer deserializer for the types of the params
+     * @param schemaLoader schema loader, possibly shared with other components
+     * @param pooling if true, requests and their params arrays are taken from
+     * per-thread pools; each request must then be given back with
+     * {@link #release(JsonRpcRequest)} once its response has been written
+     */
+    public RequestDeserializer(RpcTypeDeserializer rpcTypeDeserializer,
+                               RpcSchemaLoader schemaLoader,
+                               boolean pooling) {
         this(
                 new ObjectMapper(),
-                new RpcSchemaLoader(),
+                schemaLoader,
                 rpcTypeDeserializer,
-                new JsonSchemaTypeResolver()
+                new JsonSchemaTypeResolver(schemaLoader),
+                pooling
         );
     }
 
@@ -34,91 +92,712 @@ public class RequestDeserializer {
                         RpcSchemaLoader schemaLoader,
                         RpcTypeDeserializer deserializer,
                         JsonSchemaTypeResolver resolver) {
+        this(om, schemaLoader, deserializer, resolver, false);
+    }
+
+    @VisibleForTesting
+    RequestDeserializer(ObjectMapper om,
+                        RpcSchemaLoader schemaLoader,
+                        RpcTypeDeserializer deserializer,
+                        JsonSchemaTypeResolver resolver,
+                        boolean pooling) {
         this.om = om;
         this.resolver = resolver;
         this.schemaLoader = schemaLoader;
         this.deserializer = deserializer;
+        this.pooling = pooling;
+        try {
+            this.methods = MethodTable.load(schemaLoader);
+        } catch (IOException ioe) {
+            throw new SchemaException("Failed to load method list", ioe);
+        }
+        this.paramPlans = new AtomicReferenceArray<>(methods.size());
     }
 
     /**
      * Deserialize a String of the JSON of a JsonRpc method call into a
      * Java representation.
      *
+     * The payload is tokenized exactly once.  The envelope fields may appear in
+     * any order; each element of params is deserialized as soon as it's
+     * encountered if the method is already known, otherwise the params are
+     * held onto until the method field shows up.
+     *
+     * If a payload has more than one problem, the error reported is the first
+     * of: parse error, invalid request (envelope), method not found, invalid
+     * params -- regardless of where in the payload the problems occur.
+     *
      * @param payload JSON representation of the JsonRpc method call
      * @return Java representation of the payload
      * @throws IOException if schema for the method name in the call can't be loaded
      */
     public JsonRpcRequest deserialize(String payload)
     throws RpcException, IOException {
+        return deserialize(payload, null);
+    }
 
-        final JsonRpcRequest req;
+    /**
+     * Same as {@link #deserialize(String)}, but reads the UTF-8 (or other
+     * JSON-allowed encoding) bytes of the payload directly, without it having
+     * to be decoded into a String first.
+     *
+     * @param payload buffer containing the JSON of the JsonRpc method call
+     * @param offset where the JSON starts in the buffer
+     * @param length length of the JSON in bytes
+     */
+    public JsonRpcRequest deserialize(byte[] payload, int offset, int length)
+    throws RpcException, IOException {
+        return deserialize(() -> om.getFactory().createParser(payload, offset, length), length);
+    }
+
+    /**
+     * Same as {@link #deserialize(byte[], int, int)}, for the bytes between the
+     * position and limit of the buffer.  The buffer's position is not changed.
+     * Direct buffers are read in place without copying them to the heap.
+     */
+    public JsonRpcRequest deserialize(ByteBuffer payload)
+    throws RpcException, IOException {
+        return deserialize(() -> createParser(payload), payload.remaining());
+    }
+
+    /**
+     * Same as {@link #deserialize(byte[], int, int)}, for bytes read from a
+     * stream.  The stream is not closed.
+     */
+    public JsonRpcRequest deserialize(InputStream payload)
+    throws RpcException, IOException {
+        return deserialize(() -> createParser(payload), UNKNOWN_SIZE);
+    }
+
+    /**
+     * Same as {@link #deserialize(String)}, except that rather than being
+     * deserialized into an Object[], the params are read by the binder into a
+     * call of the method (see {@link JsonRpcRequest#getCall()}).  The request
+     * has no params array.
+     *
+     * @param binder binds the params of each method to a call of it
+     */
+    public JsonRpcRequest deserialize(String payload, CallBinder binder)
+    throws RpcException, IOException {
+        // opening a parser over a String can't fail, so it's opened here
+        // rather than through a ParserSource, which would be allocated for
+        // every request
+        long payloadSize = RpcEvents.isDeserializationEnabled()
+            ? RpcEvents.utf8Length(payload)
+            : UNKNOWN_SIZE;
+        return deserializeAndClose(om.getFactory().createParser(payload), payloadSize, binder);
+    }
+
+    private JsonRpcRequest deserialize(ParserSource source, long payloadSize)
+    throws RpcException, IOException {
+        JsonParser parser;
         try {
-            req = om.readValue(payload, JsonRpcRequest.class);
-        } catch(JsonParseException jpe) {
-            // JSON parse error
+            parser = source.open();
+        } catch (JsonParseException | CharConversionException jpe) {
+            // bytes that aren't in a JSON encoding
+            throw RpcException.parseError(jpe.getMessage());
+        }
+        return deserializeAndClose(parser, payloadSize, null);
+    }
+
+    /** @param payloadSize for the JFR event; {@link #UNKNOWN_SIZE} if it isn't known */
+    private JsonRpcRequest deserializeAndClose(JsonParser parser, long payloadSize, CallBinder binder)
+    throws RpcException, IOException {
+        try (parser) {
+            return deserialize(parser, payloadSize, binder);
+        } catch (JsonParseException | CharConversionException jpe) {
+            // JSON parse error (or bytes that aren't in a JSON encoding)
             throw RpcException.parseError(jpe.getMessage());
-        } catch (JsonMappingException jme) {
-            // happens if the fields in the json don't match up to
-            // the jsonrpc envelope
-            throw RpcException.invalidRequest(jme.getMessage());
-        } catch (IOException e) {
-            e.printStackTrace();
-            throw new RuntimeException();
-        }
-
-        JsonNode payloadRoot = om.readTree(payload);
-        JsonNode params = payloadRoot.get("params");
-        if(params == null || !params.isArray()) {
+        }
+    }
+
+    private JsonRpcRequest deserialize(JsonParser parser, long payloadSize, CallBinder binder)
+    throws RpcException, IOException {
+        RpcDeserializationEvent event = RpcEvents.beginDeserialization();
+        RpcTracer tracer = this.tracer;
+        long start = tracer == RpcTracer.NOOP ? 0 : System.nanoTime();
+        JsonRpcRequest req = null;
+        Throwable error = null;
+        try {
+            req = readRequest(parser, binder);
+            return req;
+        } catch (RpcException | IOException | RuntimeException ex) {
+            error = ex;
+            throw ex;
+        } finally {
+            String method = req != null ? req.getMethod() : null;
+            if (tracer != RpcTracer.NOOP) {
+                tracer.phaseEnded(RpcPhase.PARSE, method, start, System.nanoTime());
+            }
+            RpcEvents.endDeserialization(
+                event, method, req != null ? paramCount(req) : -1, payloadSize, error);
+        }
+    }
+
+    /** @param binder if not null, binds the params to a call instead of an Object[] */
+    private JsonRpcRequest readRequest(JsonParser parser, CallBinder binder)
+    throws RpcException, IOException {
+        if (parser.nextToken() != JsonToken.START_OBJECT) {
+            throw RpcException.invalidRequest("Request must be a JSON object");
+        }
+
+        String jsonrpc = null;
+        String method = null;
+        int methodId = MethodTable.UNKNOWN;
+        String id = null;
+        boolean hasParams = false;
+        Object[] params = null;
+        BoundCall call = null;
+        JsonNode bufferedParams = null;
+
+        // problems are recorded rather than thrown right away so that the rest
+        // of the payload still gets tokenized; a parse error further along
+        // takes precedence over any of them
+        RpcException envelopeError = null;
+        RpcException paramsError = null;
+        int seen = 0;
+
+        for (JsonToken token = parser.nextToken();
+             token != JsonToken.END_OBJECT;
+             token = parser.nextToken()) {
+            String field = parser.getCurrentName();
+            JsonStreamContext envelope = parser.getParsingContext();
+            JsonToken value = parser.nextToken();
+            switch (field) {
+                case "jsonrpc":
+                case "method":
+                case "id":
+                    String text = null;
+                    if (value.isScalarValue() && field.equals("method")) {
+                        methodId = methodId(parser);
+                        text = methodId != MethodTable.UNKNOWN ? methods.getMethod(methodId)
+                            : value == JsonToken.VALUE_NULL ? null : parser.getText();
+                    } else if (value.isScalarValue()) {
+                        text = value == JsonToken.VALUE_NULL ? null : envelopeText(parser, field);
+                    } else if (envelopeError == null) {
+                        envelopeError = RpcException.invalidRequest(
+                            "Expected a scalar value for field " + field);
+                    }
+                    parser.skipChildren();
+
+                    if (field.equals("jsonrpc")) {
+                        jsonrpc = text;
+                    } else if (field.equals("method")) {
+                        method = text;
+                    } else {
+                        id = text;
+                    }
+                    break;
+                case "params":
+                    hasParams = value == JsonToken.START_ARRAY;
+                    if (!hasParams) {
+                        parser.skipChildren();
+                    } else if (methodId != MethodTable.UNKNOWN && envelopeError == null) {
+                        try {
+                            if (binder == null) {
+                                params = readParams(parser, methodId, depth(envelope) + 1);
+                            } else {
+                                call = bindParams(parser, binder, methodId, depth(envelope) + 1);
+                            }
+                        } catch (RpcException rx) {
+                            paramsError = rx;
+                            parser.skipChildren();
+                        }
+                    } else if (method == null) {
+                        // don't know the method yet, so don't know the types
+                        bufferedParams = om.readTree(parser);
+                    } else {
+                        // unknown method or bad envelope; the params won't be looked at
+                        parser.skipChildren();
+                    }
+                    break;
+                default:
+                    if (envelopeError == null) {
+                        envelopeError = RpcException.invalidRequest(
+                            "Unrecognized field \"" + field + "\"");
+                    }
+                    parser.skipChildren();
+                    continue;
+            }
+
+            // params may already have been deserialized according to the
+            // method, so don't allow fields to be overridden
+            int bit = 1 << ENVELOPE_FIELDS.indexOf(field);
+            if ((seen & bit) != 0 && envelopeError == null) {
+                envelopeError = RpcException.invalidRequest(
+                    "Duplicate field \"" + field + "\"");
+            }
+            seen |= bit;
+        }
+
+        if (envelopeError != null) {
+            throw envelopeError;
+        }
+        final JsonRpcRequest req = newRequest(method, id, jsonrpc);
+        if (!hasParams) {
             throw RpcException.invalidRequest("Missing params field in request");
         }
+        if (methodId == MethodTable.UNKNOWN) {
+            // rejected before any schema gets loaded for it
+            throw RpcException.methodNotFound(method);
+        }
+        if (paramsError != null) {
+            throw paramsError;
+        }
+        if (bufferedParams != null && binder == null) {
+            params = deserializeParams(bufferedParams, methodId);
+        } else if (bufferedParams != null) {
+            try (JsonParser buffered = om.treeAsTokens(bufferedParams)) {
+                buffered.nextToken();
+                // a parser over a tree only enters the array's context on its first element
+                call = bindParams(buffered, binder, methodId, depth(buffered.getParsingContext()) + 1);
+            }
+        }
+
+        req.setMethodId(methodId);
+        req.setParams(params);
+        req.setCall(call);
+        return req;
+    }
+
+    /**
+     * The methods taking a methodId time the params as {@link RpcPhase#DESERIALIZE}
+     * when tracing, and let the RpcTypeDeserializer know the method for its
+     * validation events.  Each reads the tracer once, so that the phase both
+     * starts and ends with the same tracer.
+     */
+    private Object[] readParams(JsonParser parser, int methodId, int paramDepth)
+    throws RpcException, IOException {
+        RpcTracer tracer = this.tracer;
+        if (!tracesParams(tracer)) {
+            return readParams(parser, paramPlan(methodId), paramDepth);
+        }
+        long start = startDeserializeTrace(methodId);
+        try {
+            return readParams(parser, paramPlan(methodId), paramDepth);
+        } finally {
+            endDeserializeTrace(tracer, methodId, start);
+        }
+    }
+
+    /**
+     * Read the params array that the parser is positioned at, deserializing
+     * each element straight from its tokens.  On return, the parser is
+     * positioned at the end of the array.
+     *
+     * @param paramDepth nesting depth of the array's elements
+     */
+    private Object[] readParams(JsonParser parser, NamedRpcType[] plan, int paramDepth)
+    throws RpcException, IOException {
+        Object[] result = newParams(plan.length);
+        RpcException error = null;
+        int count = 0;
+
+        while (parser.nextToken() != JsonToken.END_ARRAY) {
+            if (error == null && count < plan.length) {
+                try {
+                    result[count] = deserializer.deserialize(parser, plan[count]);
+                } catch (SchemaValidationException svx) {
+                    error = RpcException.invalidParams(svx.getMessage());
+                    skipRestOfParam(parser, paramDepth);
+                }
+            } else {
+                parser.skipChildren();
+            }
+            count++;
+        }
+
+        if (count != plan.length) {
+            throw wrongArgumentCount(plan.length, count);
+        }
+        if (error != null) {
+            throw error;
+        }
+        return result;
+    }
+
+    /**
+     * Have the binder read the params array that the parser is positioned
+     * at.  On return, the parser is positioned at the end of the array.
+     *
+     * @param paramDepth nesting depth of the array's elements
+     */
+    private BoundCall bindParams(JsonParser parser, CallBinder binder, int methodId, int paramDepth)
+    throws RpcException, IOException {
+        RpcTracer tracer = this.tracer;
+        if (!tracesParams(tracer)) {
+            return bindParams(parser, binder, paramPlan(methodId), methodId, paramDepth);
+        }
+        long start = startDeserializeTrace(methodId);
+        try {
+            return bindParams(parser, binder, paramPlan(methodId), methodId, paramDepth);
+        } finally {
+            endDeserializeTrace(tracer, methodId, start);
+        }
+    }
+
+    private BoundCall bindParams(JsonParser parser,
+                                 CallBinder binder,
+                                 NamedRpcType[] plan,
+                                 int methodId,
+                                 int paramDepth)
+    throws RpcException, IOException {
+        ParamReader reader = new ParamReader(deserializer, parser, plan, paramDepth);
+        BoundCall call = binder.bind(methodId, reader);
+        reader.end();
+        return call;
+    }
+
+    /**
+     * Skip the rest of a param that deserialization gave up on part-way
+     * through, so that the parser is positioned at its last token.
+     *
+     * Works from the nesting depth rather than by comparing parsing contexts,
+     * since parsers over a tree (see {@link #deserialize(JsonNode)}) only
+     * enter a container's context on the token after its start token, and
+     * have no root context of their own.
+     */
+    static void skipRestOfParam(JsonParser parser, int paramDepth) throws IOException {
+        while (parser.currentToken().isStructStart()
+            || depth(parser.getParsingContext()) > paramDepth) {
+            if (parser.nextToken() == null) {
+                throw new JsonParseException(parser, "Unexpected end of input");
+            }
+        }
+    }
+
+    private static int depth(JsonStreamContext context) {
+        int depth = 0;
+        for (JsonStreamContext c = context.getParent(); c != null; c = c.getParent()) {
+            depth++;
+        }
+        return depth;
+    }
 
-        String method = payloadRoot.get("method").asText();
-        JsonNode reqRoot = schemaLoader.loadRequestSchema(method);
+    private Object[] deserializeParams(JsonNode params, int methodId)
+    throws RpcException, IOException {
+        RpcTracer tracer = this.tracer;
+        if (!tracesParams(tracer)) {
+            return deserializeParams(params, paramPlan(methodId));
+        }
+        long start = startDeserializeTrace(methodId);
+        try {
+            return deserializeParams(params, paramPlan(methodId));
+        } finally {
+            endDeserializeTrace(tracer, methodId, start);
+        }
+    }
 
-        List<JsonNode> schemaParamNodes = Lists.newArrayList(reqRoot.get("items").elements());
-        List<JsonNode> paramNodes = Lists.newArrayList(params.elements());
+    private Object[] deserializeParams(JsonNode params, NamedRpcType[] plan)
+    throws RpcException {
+        if (params.size() != plan.length) {
+            throw wrongArgumentCount(plan.length, params.size());
+        }
 
-        if(schemaParamNodes.size() != paramNodes.size()) {
-            throw RpcException.invalidParams(String.format(
-                    "Wrong number of arguments (expected %d but got %d)",
-                    schemaParamNodes.size(),
-                    paramNodes.size()));
+        Object[] result = newParams(plan.length);
+        for (int ix = 0; ix < plan.length; ++ix) {
+            result[ix] = deserializeParam(params.get(ix), plan[ix]);
         }
+        return result;
+    }
 
-        Object[] reqParams = new Object[paramNodes.size()];
+    private Object deserializeParam(JsonNode param, NamedRpcType type)
+    throws RpcException {
+        try {
+            return deserializer.deserialize(param, type);
+        } catch (SchemaValidationException svx) {
+            throw RpcException.invalidParams(svx.getMessage()); // TODO can we improve the info that's surfaced?
+        }
+    }
 
-        for(int ix = 0; ix < paramNodes.size(); ++ix) {
-            try {
-                reqParams[ix] = deserializer.deserialize(
-                        paramNodes.get(ix),
-                        resolver.resolveNamedSchema(schemaParamNodes.get(ix)));
-            } catch (SchemaValidationException svx) {
-                throw RpcException.invalidParams(svx.getMessage()); // TODO can we improve the info that's surfaced?
+    /**
+     * @return id of the method named by the parser's current value, looked up
+     * straight from the parser's chars; {@link MethodTable#UNKNOWN} if it isn't
+     * a String or isn't a known method
+     */
+    private int methodId(JsonParser parser) throws IOException {
+        if (parser.currentToken() != JsonToken.VALUE_STRING) {
+            return MethodTable.UNKNOWN;
+        }
+        return methods.idOf(
+            parser.getTextCharacters(), parser.getTextOffset(), parser.getTextLength());
+    }
+
+    /**
+     * @return text of the scalar value of the jsonrpc or id field; for
+     * jsonrpc, the shared instance if it's the expected version, so that no
+     * String is created for it
+     */
+    private String envelopeText(JsonParser parser, String field) throws IOException {
+        if (parser.currentToken() == JsonToken.VALUE_STRING && field.equals("jsonrpc")
+                && isVersion(parser.getTextCharacters(), parser.getTextOffset(), parser.getTextLength())) {
+            return JSONRPC_VERSION;
+        }
+        return parser.getText();
+    }
+
+    private static boolean isVersion(char[] chars, int offset, int length) {
+        if (length != JSONRPC_VERSION.length()) {
+            return false;
+        }
+        for (int ix = 0; ix < length; ++ix) {
+            if (chars[offset + ix] != JSONRPC_VERSION.charAt(ix)) {
+                return false;
             }
         }
+        return true;
+    }
 
-        req.setParams(reqParams);
+    static RpcException wrongArgumentCount(int expected, int actual) {
+        return RpcException.invalidParams(String.format(
+                "Wrong number of arguments (expected %d but got %d)",
+                expected,
+                actual));
+    }
+
+    /**
+     * @return the types of the params of the method with the given id, in order
+     * @throws RpcException if the method has no request schema
+     */
+    private NamedRpcType[] paramPlan(int methodId) throws RpcException, IOException {
+        NamedRpcType[] plan = paramPlans.get(methodId);
+        if (plan != null) {
+            return plan;
+        }
+
+        final String method = methods.getMethod(methodId);
+        final JsonNode items;
+        try {
+            items = schemaLoader.loadRequestSchema(method).get("items");
+        } catch (FileNotFoundException fnfe) {
+            throw RpcException.methodNotFound(method);
+        }
+        plan = new NamedRpcType[items.size()];
+        for (int ix = 0; ix < plan.length; ++ix) {
+            plan[ix] = resolver.resolveNamedSchema(items.get(ix));
+        }
+        paramPlans.compareAndSet(methodId, null, plan);
+        return plan;
+    }
+
+    /**
+     * @return number of params of the method of a deserialized request,
+     * whether they went into an Object[] or were bound to a call; -1 if it
+     * isn't known
+     */
+    public int paramCount(JsonRpcRequest req) {
+        if (req.getParams() != null) {
+            return req.getParams().length;
+        }
+        int methodId = req.getMethodId();
+        NamedRpcType[] plan = methodId != MethodTable.UNKNOWN ? paramPlans.get(methodId) : null;
+        return plan != null ? plan.length : -1;
+    }
+
+    // -- Pooling -----------------------------------------------------------------------
+
+    /** @return whether requests come from per-thread pools (see {@link #release}) */
+    public boolean isPooling() {
+        return pooling;
+    }
+
+    /**
+     * Give a request back to the pool once its response has been written.
+     * Neither the request nor its params array may be used afterwards.  Does
+     * nothing unless pooling is enabled, so it's always safe to call.
+     */
+    public void release(JsonRpcRequest req) {
+        if (pooling) {
+            RequestPool.get().release(req);
+        }
+    }
+
+    private JsonRpcRequest newRequest(String method, String id, String jsonrpc)
+    throws RpcException {
+        if (!pooling) {
+            return new JsonRpcRequest(method, id, jsonrpc);
+        }
+        JsonRpcRequest req = RequestPool.get().acquireRequest();
+        req.reset(method, id, jsonrpc);
         return req;
     }
 
+    private Object[] newParams(int length) {
+        return pooling ? RequestPool.get().acquireParams(length) : new Object[length];
+    }
+
+    // -- Request ids -------------------------------------------------------------------
+
     /**
      * Try to serialize the request json payload and get the id.  If anything
      * fails, return null instead.  Intended for handling malformed requests
      * as a best-effort to get some sort of id to attach to the error response.
      */
     public String idOfRequest(String requestJsonPayload) {
-        try {
-            JsonNode req = om.readTree(requestJsonPayload);
-            if(req == null) {
-                return null;
-            }
-            JsonNode id = req.get("id");
-            if(id == null) {
-                return null;
-            }
-            return id.asText();
+        return idOfRequest(() -> om.getFactory().createParser(requestJsonPayload));
+    }
+
+    /** Same as {@link #idOfRequest(String)}, for a payload in a byte array */
+    public String idOfRequest(byte[] requestJsonPayload, int offset, int length) {
+        return idOfRequest(() -> om.getFactory().createParser(requestJsonPayload, offset, length));
+    }
+
+    /**
+     * Same as {@link #idOfRequest(String)}, for the payload between the
+     * position and limit of the buffer.  The buffer's position is not changed.
+     */
+    public String idOfRequest(ByteBuffer requestJsonPayload) {
+        return idOfRequest(() -> createParser(requestJsonPayload));
+    }
+
+    /**
+     * Same as {@link #idOfRequest(String)}, for a payload read from a stream.
+     * The stream is not closed.  Note that if the same stream was already
+     * passed to {@link #deserialize(InputStream)}, there's nothing left to read.
+     */
+    public String idOfRequest(InputStream requestJsonPayload) {
+        return idOfRequest(() -> createParser(requestJsonPayload));
+    }
+
+    private String idOfRequest(ParserSource source) {
+        try (JsonParser parser = source.open()) {
+            return idOfRequest((JsonNode) om.readTree(parser));
         } catch (IOException ex) {
             return null;
         }
     }
-}
\ No newline at end of file
+
+    /** Same as {@link #idOfRequest(String)}, for a request that's already been parsed */
+    public String idOfRequest(JsonNode request) {
+        if(request == null) {
+            return null;
+        }
+        JsonNode id = request.get("id");
+        if(id == null) {
+            return null;
+        }
+        return id.asText();
+    }
+
+    // -- Batches -----------------------------------------------------------------------
+
+    /**
+     * @return whether the payload is a JsonRpc batch, i.e. its top level is an
+     * array.  Only looks at the first non-whitespace character, so this says
+     * nothing about whether the payload is well-formed.
+     */
+    public static boolean isBatch(String payload) {
+        for (int ix = 0; ix < payload.length(); ++ix) {
+            char c = payload.charAt(ix);
+            if (!Character.isWhitespace(c)) {
+                return c == '[';
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Split a JsonRpc batch into its requests, without deserializing them.
+     * Each element may be passed to {@link #deserialize(JsonNode)}.
+     *
+     * @param payload JSON representation of a JsonRpc batch
+     * @return the elements of the batch
+     * @throws RpcException parse error if the payload isn't valid JSON; invalid
+     * request if it isn't an array or if the array is empty
+     */
+    public List<JsonNode> splitBatch(String payload) throws RpcException {
+        final JsonNode batch;
+        try {
+            batch = om.readTree(payload);
+        } catch (IOException iox) {
+            throw RpcException.parseError(iox.getMessage());
+        }
+        if (batch == null || !batch.isArray() || batch.size() == 0) {
+            throw RpcException.invalidRequest("Batch must be a non-empty array");
+        }
+
+        List<JsonNode> requests = new ArrayList<>(batch.size());
+        batch.elements().forEachRemaining(requests::add);
+        return requests;
+    }
+
+    /**
+     * Deserialize a JsonRpc method call that has already been parsed, i.e.
+     * an element of a batch.  Behaves the same as {@link #deserialize(String)}.
+     */
+    public JsonRpcRequest deserialize(JsonNode request)
+    throws RpcException, IOException {
+        return deserialize(request, null);
+    }
+
+    /**
+     * Same as {@link #deserialize(JsonNode)}, with the params bound to a call
+     * as for {@link #deserialize(String, CallBinder)}.
+     *
+     * @param binder binds the params of each method to a call of it; if
+     * null, the params are deserialized into an Object[] as usual
+     */
+    public JsonRpcRequest deserialize(JsonNode request, CallBinder binder)
+    throws RpcException, IOException {
+        try (JsonParser parser = om.treeAsTokens(request)) {
+            return deserialize(parser, UNKNOWN_SIZE, binder);
+        }
+    }
+
+    // -- Tracing -----------------------------------------------------------------------
+
+    /**
+     * Have the time spent on each request reported to the tracer, as
+     * {@link RpcPhase#PARSE}, {@link RpcPhase#DESERIALIZE} and (by the
+     * RpcTypeDeserializer) {@link RpcPhase#VALIDATE}.  Set it before
+     * deserializing any requests; by default, nothing is measured.
+     */
+    public void setTracer(RpcTracer tracer) {
+        this.tracer = tracer;
+        deserializer.setTracer(tracer);
+    }
+
+    /**
+     * @return whether the params need to be traced: when there's a tracer,
+     * or when the RpcValidationEvents that need their method are recorded
+     */
+    private static boolean tracesParams(RpcTracer tracer) {
+        return tracer != RpcTracer.NOOP || RpcEvents.isValidationEnabled();
+    }
+
+    private long startDeserializeTrace(int methodId) {
+        deserializer.setTracedMethod(methods.getMethod(methodId));
+        return System.nanoTime();
+    }
+
+    private void endDeserializeTrace(RpcTracer tracer, int methodId, long start) {
+        tracer.phaseEnded(RpcPhase.DESERIALIZE, methods.getMethod(methodId), start, System.nanoTime());
+        deserializer.setTracedMethod(null);
+    }
+
+    // -- Parser creation ---------------------------------------------------------------
+
+    /** Creates a parser for a payload; may throw when the payload is unreadable */
+    @FunctionalInterface
+    private interface ParserSource {
+        JsonParser open() throws IOException;
+    }
+
+    private JsonParser createParser(ByteBuffer payload) throws IOException {
+        if (payload.hasArray()) {
+            return om.getFactory().createParser(
+                payload.array(),
+                payload.arrayOffset() + payload.position(),
+                payload.remaining());
+        }
+        // duplicate so that reading doesn't move the caller's position
+        return om.getFactory().createParser(
+            new ByteBufferBackedInputStream(payload.duplicate()));
+    }
+
+    private JsonParser createParser(InputStream payload) throws IOException {
+        JsonParser parser = om.getFactory().createParser(payload);
+        parser.disable(JsonParser.Feature.AUTO_CLOSE_SOURCE);
+        return parser;
+    }
+}
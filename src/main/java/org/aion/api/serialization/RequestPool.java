@@ -0,0 +1,87 @@
+package org.aion.api.serialization;
+
+import java.util.Arrays;
+
+/**
+ * Per-thread free lists of {@link JsonRpcRequest}s and params arrays, used by
+ * {@link RequestDeserializer} when pooling is enabled.
+ *
+ * Something acquired on one thread may be released on another; it then goes
+ * onto the other thread's lists.  Every list is bounded, so an idle thread
+ * holds on to at most a few requests and arrays, and anything released into a
+ * full list is left to the garbage collector.
+ */
+final class RequestPool {
+    private static final int MAX_REQUESTS = 4;
+    /** Params arrays longer than this aren't pooled */
+    private static final int MAX_POOLED_PARAMS = 8;
+    private static final int MAX_ARRAYS_PER_LENGTH = 4;
+
+    private static final Object[] NO_PARAMS = new Object[0];
+
+    private static final ThreadLocal<RequestPool> POOL = ThreadLocal.withInitial(RequestPool::new);
+
+    private final JsonRpcRequest[] requests = new JsonRpcRequest[MAX_REQUESTS];
+    private int requestCount;
+
+    /** Free arrays, indexed by length */
+    private final Object[][][] arrays = new Object[MAX_POOLED_PARAMS + 1][MAX_ARRAYS_PER_LENGTH][];
+    private final int[] arrayCounts = new int[MAX_POOLED_PARAMS + 1];
+
+    private RequestPool() { }
+
+    /** @return the calling thread's pool */
+    static RequestPool get() {
+        return POOL.get();
+    }
+
+    /** @return a request whose fields are all null, to be filled in with {@link JsonRpcRequest#reset} */
+    JsonRpcRequest acquireRequest() {
+        if (requestCount == 0) {
+            return new JsonRpcRequest();
+        }
+        JsonRpcRequest req = requests[--requestCount];
+        requests[requestCount] = null;
+        return req;
+    }
+
+    /** @return an array of the given length whose elements are all null */
+    Object[] acquireParams(int length) {
+        if (length == 0) {
+            return NO_PARAMS;
+        } else if (length > MAX_POOLED_PARAMS || arrayCounts[length] == 0) {
+            return new Object[length];
+        }
+        Object[] params = arrays[length][--arrayCounts[length]];
+        arrays[length][arrayCounts[length]] = null;
+        return params;
+    }
+
+    /**
+     * Return a request and its params array to the pool.  Neither may be used
+     * afterwards.  Requests that didn't come from a pool, or that have
+     * already been released, are ignored.
+     */
+    void release(JsonRpcRequest req) {
+        if (!req.isPooled() || req.getMethod() == null) {
+            return;
+        }
+        Object[] params = req.getParams();
+        req.clear();
+        if (params != null) {
+            releaseParams(params);
+        }
+        if (requestCount < MAX_REQUESTS) {
+            requests[requestCount++] = req;
+        }
+    }
+
+    private void releaseParams(Object[] params) {
+        int length = params.length;
+        if (length == 0 || length > MAX_POOLED_PARAMS || arrayCounts[length] == MAX_ARRAYS_PER_LENGTH) {
+            return;
+        }
+        Arrays.fill(params, null);
+        arrays[length][arrayCounts[length]++] = params;
+    }
+}
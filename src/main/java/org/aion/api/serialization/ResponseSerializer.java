@@ -1,22 +1,44 @@
 package org.aion.api.serialization;
 
-import static org.aion.api.serialization.SerializationUtils.bytesToHex;
-
+import com.fasterxml.jackson.core.JsonEncoding;
 import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonMappingException;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.SerializerProvider;
 import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.databind.node.TextNode;
 import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+import com.fasterxml.jackson.databind.util.TokenBuffer;
 import com.google.common.annotations.VisibleForTesting;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.io.StringWriter;
 import java.math.BigInteger;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 
 import org.aion.api.RpcException;
+import org.aion.api.schema.Field;
 import org.aion.api.schema.JsonSchemaTypeResolver;
+import org.aion.api.schema.LengthConstraints;
+import org.aion.api.schema.NamedRpcType;
 import org.aion.api.schema.RootTypes;
 import org.aion.api.schema.RpcType;
+import org.aion.api.schema.SchemaException;
 import org.aion.api.schema.SchemaValidationException;
 import org.aion.api.schema.SchemaValidator;
 
@@ -25,12 +47,37 @@ public class ResponseSerializer {
     private final JsonSchemaTypeResolver resolver;
     private final RpcSchemaLoader schemaLoader;
     private final SchemaValidator validator = new SchemaValidator();
+    private final ResponseValidationPolicy validationPolicy;
+
+    private final ConcurrentMap<String, ResponsePlan> plans = new ConcurrentHashMap<>();
+    /** Methods from methods.txt that a plan couldn't be made for, and why */
+    private final Map<String, Exception> planErrors = new TreeMap<>();
 
     /** Constructor */
     public ResponseSerializer() {
-        this(new JsonSchemaTypeResolver(),
-                new RpcSchemaLoader(),
-                new ObjectMapper());
+        this(new CachingRpcSchemaLoader());
+    }
+
+    /**
+     * Constructor that allows the schema loader to be shared with other
+     * components, i.e. a {@link RequestDeserializer}.
+     */
+    public ResponseSerializer(RpcSchemaLoader schemaLoader) {
+        this(schemaLoader, ResponseValidationPolicy.STRICT);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param schemaLoader schema loader, possibly shared with other components
+     * @param validationPolicy how responses of each method are validated
+     */
+    public ResponseSerializer(RpcSchemaLoader schemaLoader,
+                              ResponseValidationPolicy validationPolicy) {
+        this(new JsonSchemaTypeResolver(schemaLoader),
+                schemaLoader,
+                new ObjectMapper(),
+                validationPolicy);
     }
 
     /**
@@ -41,16 +88,31 @@ public class ResponseSerializer {
     public ResponseSerializer(JsonSchemaTypeResolver resolver,
                               RpcSchemaLoader schemaLoader,
                               ObjectMapper om) {
+        this(resolver, schemaLoader, om, ResponseValidationPolicy.STRICT);
+    }
+
+    @VisibleForTesting
+    public ResponseSerializer(JsonSchemaTypeResolver resolver,
+                              RpcSchemaLoader schemaLoader,
+                              ObjectMapper om,
+                              ResponseValidationPolicy validationPolicy) {
         this.resolver = resolver;
         this.schemaLoader = schemaLoader;
         this.om = om;
+        this.validationPolicy = validationPolicy;
 
         SimpleModule customSerializers = new SimpleModule();
         customSerializers.addSerializer(byte[].class, new BytesSerializer());
         customSerializers.addSerializer(BigInteger.class, new BigIntSerializer());
+        // long is only used for QUANTITY (see JsonSchemaTypeResolver)
+        customSerializers.addSerializer(Long.class, new LongSerializer());
+        customSerializers.addSerializer(Long.TYPE, new LongSerializer());
         customSerializers.addSerializer(RpcException.class, new RpcExceptionSerializer());
+        customSerializers.addSerializer(JsonRpcError.class, new JsonRpcErrorSerializer());
 
         om.registerModule(customSerializers);
+
+        planAllMethods();
     }
 
     /**
@@ -64,48 +126,217 @@ public class ResponseSerializer {
      */
     public String serialize(JsonRpcResponse resp, String method)
     throws IOException, SchemaValidationException {
+        StringWriter out = new StringWriter();
+        try (JsonGenerator gen = om.getFactory().createGenerator(out)) {
+            serialize(resp, method, gen);
+        }
+        return out.toString();
+    }
 
-        JsonNode responseSchema = schemaLoader.loadResponseSchema(method);
+    /**
+     * Serialize the response of a JsonRpc method as UTF-8 JSON into a stream.
+     * The stream is not closed.
+     *
+     * @param resp JSON response to serialize
+     * @param method Name of the JsonRpc method that this response is for
+     * @param out where to write the response
+     * @throws IOException if JsonSchema of the given method could not be loaded
+     * or the stream can't be written to
+     */
+    public void serialize(JsonRpcResponse resp, String method, OutputStream out)
+    throws IOException, SchemaValidationException {
+        try (JsonGenerator gen = createGenerator(out)) {
+            serialize(resp, method, gen);
+        }
+    }
 
-        if(responseSchema.get("$ref") != null) {
-            RpcType type = resolver.resolveSchema(responseSchema);
+    /**
+     * Serialize the response of a JsonRpc method into a generator.  Nothing is
+     * written if the response doesn't conform to the method's schema.
+     *
+     * @param resp JSON response to serialize
+     * @param method Name of the JsonRpc method that this response is for
+     * @param gen where to write the response
+     * @throws IOException if JsonSchema of the given method could not be loaded
+     * or the generator can't be written to
+     */
+    public void serialize(JsonRpcResponse resp, String method, JsonGenerator gen)
+    throws IOException, SchemaValidationException {
+        ResponsePlan plan = planFor(method);
 
-            if (type.getRootType().equals(RootTypes.DATA)
-                || type.getRootType().equals(RootTypes.QUANTITY)) {
-
-                String resultJson = String.format("\"0x%s\"", bytesToHex((byte[]) resp.getResult()));
-                if(! validator.validate(responseSchema, om.readTree(resultJson))) {
-                    throw new SchemaValidationException(String.format(
-                        "Response data did not conform to the schema for the requested RPC method.  "
-                            + "This is a bug in either the Response Serializer or RPC method implementation.  "
-                            + "method: %s.  Response data: %s",
-                        method,
-                        resultJson
-                    ));
+        switch (plan.kind) {
+            case DATA:
+            case QUANTITY:
+                Object result = resp.getResult();
+                int length = hexLength(result, plan);
+                switch (decideValidation(plan)) {
+                    case NOW:
+                        String invalid = validateHex(result, length, plan);
+                        plan.stats.recordValidated(invalid == null, invalid);
+                        if (invalid != null) {
+                            throw violation(method, invalid);
+                        }
+                        break;
+                    case LATER:
+                        validateLater(plan, () -> validateHex(result, length, plan));
+                        break;
                 }
 
-                // TODO: Jackson it
-                return String.format("{"
+                writeEnvelopeStart(gen, resp.getJsonrpc(), resp.getId());
+                gen.writeFieldName("result");
+                writeHex(gen, result);
+                gen.writeEndObject();
+                return;
+            case BOOLEAN:
+                writeEnvelopeStart(gen, resp.getJsonrpc(), resp.getId());
+                gen.writeBooleanField("result", (boolean) resp.getResult());
+                gen.writeEndObject();
+                return;
+            case OBJECT:
+                Object obj = resp.getResult();
+                switch (decideValidation(plan)) {
+                    case NOW:
+                        String violation = objectViolation(obj, plan);
+                        plan.stats.recordValidated(violation == null, violation);
+                        if (violation != null) {
+                            throw violation(method, violation);
+                        }
+                        break;
+                    case LATER:
+                        validateLater(plan, () -> objectViolation(obj, plan));
+                        break;
+                }
+
+                writeEnvelopeStart(gen, resp.getJsonrpc(), resp.getId());
+                gen.writeFieldName("result");
+                if (obj instanceof JsonWritable) {
+                    ((JsonWritable) obj).writeTo(gen);
+                } else {
+                    // not a generated POD; fall back to reflection
+                    om.writeValue(gen, obj);
+                }
+                gen.writeEndObject();
+                return;
+            default:
+                throw new IllegalStateException("Unhandled kind " + plan.kind);
+        }
+    }
+
+    public String serializeError(JsonRpcError error) {
+        try {
+            return om.writeValueAsString(error);
+        } catch (JsonProcessingException jpx) {
+            // If we throw while serializing an error, that is itself an error.
+            // Construct JSON out of a string we know works and put in as much
+            // info from the exception into the data as we can.
+            return String.format("{"
                         + "\"jsonrpc\": \"%s\","
                         + "\"id\": \"%s\","
-                        + "\"result\": %s"
+                        + "\"error\": {\"code\": -32603, \"message\": \"Internal error\", \"data\": %s}"
                         + "}",
-                    resp.getJsonrpc(), resp.getId(), resultJson);
-            } else {
-                return om.writeValueAsString(resp.getResult());
+                    error.getJsonrpc(),
+                    error.getId(),
+                    org.json.JSONObject.quote(jpx.toString()));
+        }
+    }
+
+    /**
+     * Serialize an error response as UTF-8 JSON into a stream.  The stream is
+     * not closed.
+     */
+    public void serializeError(JsonRpcError error, OutputStream out) throws IOException {
+        try (JsonGenerator gen = createGenerator(out)) {
+            serializeError(error, gen);
+        }
+    }
+
+    /** Serialize an error response into a generator */
+    public void serializeError(JsonRpcError error, JsonGenerator gen) throws IOException {
+        writeError(error, gen);
+    }
+
+    // -- Response plans ----------------------------------------------------------------
+
+    /**
+     * @return the methods that currently have a response plan, i.e. all the
+     * methods from methods.txt whose response schema is supported, plus any
+     * other methods that have been serialized since
+     */
+    public Set<String> getPlannedMethods() {
+        return Collections.unmodifiableSet(new TreeSet<>(plans.keySet()));
+    }
+
+    /**
+     * Check that a response plan could be made for every method in methods.txt.
+     * Intended to be called at startup, so that a missing or unsupported
+     * response schema is noticed before the method is first called.
+     *
+     * @throws SchemaException describing every method that has no plan
+     */
+    public void verifyPlans() {
+        if (planErrors.isEmpty()) {
+            return;
+        }
+
+        StringBuilder msg = new StringBuilder("Can't serialize responses of some methods:");
+        for (Map.Entry<String, Exception> error : planErrors.entrySet()) {
+            msg.append(String.format("%n  %s: %s", error.getKey(), error.getValue()));
+        }
+        SchemaException ex = new SchemaException(msg.toString());
+        planErrors.values().forEach(ex::addSuppressed);
+        throw ex;
+    }
+
+    private void planAllMethods() {
+        final List<String> methods;
+        try {
+            methods = schemaLoader.loadMethodList();
+        } catch (IOException ioe) {
+            throw new SchemaException("Failed to load method list", ioe);
+        }
+
+        for (String method : methods) {
+            try {
+                plans.put(method, makePlan(method));
+            } catch (IOException | RuntimeException ex) {
+                planErrors.put(method, ex);
             }
+        }
+    }
+
+    private ResponsePlan planFor(String method) throws IOException {
+        ResponsePlan plan = plans.get(method);
+        if (plan == null) {
+            plan = makePlan(method);
+            plans.putIfAbsent(method, plan);
+        }
+        return plan;
+    }
 
+    private ResponsePlan makePlan(String method) throws IOException {
+        JsonNode responseSchema = schemaLoader.loadResponseSchema(method);
+
+        if(responseSchema.get("$ref") != null) {
+            RpcType type = resolver.resolveSchema(responseSchema);
+            RpcType root = type.getRootType();
+
+            if (root.equals(RootTypes.DATA)) {
+                return new ResponsePlan(method, Kind.DATA, responseSchema,
+                    LengthConstraints.of(type), false);
+            } else if (root.equals(RootTypes.QUANTITY)) {
+                return new ResponsePlan(method, Kind.QUANTITY, responseSchema,
+                    LengthConstraints.of(type), false);
+            } else {
+                // validate against the definition rather than the $ref, since
+                // the type may only be known to our schema loader
+                return new ResponsePlan(method, Kind.OBJECT, type.getDefinition(),
+                    null, validatesInline(type));
+            }
         } else if (responseSchema.get("type") != null) {
             String typeString = responseSchema.get("type").asText();
             switch(typeString) {
                 case "boolean":
-                    String resultJson = (boolean) resp.getResult() ? "true" : "false";
-                    return String.format("{"
-                            + "\"jsonrpc\": \"%s\","
-                            + "\"id\": \"%s\","
-                            + "\"result\": %s"
-                            + "}",
-                        resp.getJsonrpc(), resp.getId(), resultJson);
+                    return new ResponsePlan(method, Kind.BOOLEAN, responseSchema, null, false);
                 case "number": // not used
                 case "string": // not used
                 case "struct": // not used
@@ -120,26 +351,298 @@ public class ResponseSerializer {
                 + responseSchema.toString());
     }
 
-    public String serializeError(JsonRpcError error) {
-        String errorJson;
+    private enum Kind { DATA, QUANTITY, BOOLEAN, OBJECT }
+
+    /** How to write the result of a method; worked out once from its response schema */
+    private final class ResponsePlan {
+        private final Kind kind;
+        private final JsonNode schema;
+        /** If non-null, checking these is equivalent to validating against the schema */
+        private final LengthConstraints lengths;
+        /**
+         * If true, {@link JsonWritable#validate()} of a result is equivalent
+         * to validating against the schema
+         */
+        private final boolean validatesInline;
+        private final ResponseValidationMode validationMode;
+        private final int sampleRate;
+        private final ResponseValidationStats stats = new ResponseValidationStats();
+
+        private ResponsePlan(String method, Kind kind, JsonNode schema,
+                             LengthConstraints lengths, boolean validatesInline) {
+            this.kind = kind;
+            this.schema = schema;
+            this.lengths = lengths;
+            this.validatesInline = validatesInline;
+            this.validationMode = validationPolicy.getMode(method);
+            this.sampleRate = validationPolicy.getSampleRate(method);
+        }
+    }
+
+    // -- Response validation -----------------------------------------------------------
+
+    /**
+     * @return validation counters of each method that has a response plan (see
+     * {@link #getPlannedMethods()})
+     */
+    public Map<String, ResponseValidationStats> getValidationStats() {
+        Map<String, ResponseValidationStats> stats = new TreeMap<>();
+        plans.forEach((method, plan) -> stats.put(method, plan.stats));
+        return stats;
+    }
+
+    private enum Validation { NOW, LATER, NEVER }
+
+    private Validation decideValidation(ResponsePlan plan) {
+        switch (plan.validationMode) {
+            case STRICT:
+                return Validation.NOW;
+            case SAMPLED:
+                if (ThreadLocalRandom.current().nextInt(plan.sampleRate) == 0) {
+                    return Validation.NOW;
+                }
+                break;
+            case ASYNC:
+                return Validation.LATER;
+        }
+        plan.stats.recordSkipped();
+        return Validation.NEVER;
+    }
+
+    /** Returns a description of the response if it's invalid, or null if it's valid */
+    @FunctionalInterface
+    private interface DeferredValidation {
+        String violation() throws IOException;
+    }
+
+    private void validateLater(ResponsePlan plan, DeferredValidation validation) {
         try {
-            errorJson = om.writeValueAsString(error.getResult());
-        } catch (JsonProcessingException jpx) {
-            // If we throw while serializing an error, that is itself an error.
-            // Construct JSON out of a string we know works and put in as much
-            // info from the exception into the data as we can.
-            errorJson = String.format(
-                    "{\"code\": -32603, \"message\": \"Internal error\", \"data\": %s}",
-                    org.json.JSONObject.quote(jpx.toString()));
+            AsyncValidator.EXECUTOR.execute(() -> {
+                String violation;
+                try {
+                    violation = validation.violation();
+                } catch (IOException | RuntimeException ex) {
+                    violation = "Validation failed: " + ex;
+                }
+                plan.stats.recordValidated(violation == null, violation);
+            });
+        } catch (RejectedExecutionException rex) {
+            // background thread is behind; don't make the response wait for it
+            plan.stats.recordSkipped();
+        }
+    }
+
+    /** Background thread for ASYNC validation; only started if something uses it */
+    private static final class AsyncValidator {
+        private static final int QUEUE_SIZE = 4096;
+
+        private static final ThreadPoolExecutor EXECUTOR = new ThreadPoolExecutor(
+            1, 1, 0, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(QUEUE_SIZE),
+            runnable -> {
+                Thread t = new Thread(runnable, "rpc-response-validator");
+                t.setDaemon(true);
+                return t;
+            },
+            new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    private static SchemaValidationException violation(String method, String result) {
+        return new SchemaValidationException(String.format(
+            "Response data did not conform to the schema for the requested RPC method.  "
+                + "This is a bug in either the Response Serializer or RPC method implementation.  "
+                + "method: %s.  Response data: %s",
+            method,
+            result
+        ));
+    }
+
+    /** Keywords of an object type's schema that are covered by JsonWritable.validate */
+    private static final Set<String> INLINE_OBJECT_KEYWORDS = Set.of(
+        "type", "properties", "required", "additionalProperties",
+        "description", "$comment", "title");
+    /** Keywords of a property's schema that are covered by JsonWritable.validate */
+    private static final Set<String> INLINE_FIELD_KEYWORDS = Set.of(
+        "$ref", "description", "$comment", "title");
+    /**
+     * Keywords of a nullable property's schema that are covered by
+     * JsonWritable.validate; the anyOf is what makes it nullable
+     */
+    private static final Set<String> INLINE_NULLABLE_FIELD_KEYWORDS = Set.of(
+        "anyOf", "description", "$comment", "title");
+
+    /**
+     * @param type type rooted in OBJECT
+     * @return whether {@link JsonWritable#validate()} of the type's generated
+     * POD is equivalent to validating against the type's schema, i.e. every
+     * field is a BOOLEAN, a DATA or QUANTITY with only length constraints, or
+     * an object for which the same holds (or null, if the field is nullable)
+     */
+    private static boolean validatesInline(RpcType type) {
+        if (!onlyKeywords(type.getDefinition(), INLINE_OBJECT_KEYWORDS)) {
+            return false;
         }
-        return String.format("{"
-                    + "\"jsonrpc\": \"%s\","
-                    + "\"id\": \"%s\","
-                    + "\"error\": %s"
-                    + "}",
-                error.getJsonrpc(),
-                error.getId(),
-                errorJson);
+        for (Field field : type.getContainedFields()) {
+            NamedRpcType fieldType = field.getType();
+            if (!onlyKeywords(field.getValueDefinition(), INLINE_FIELD_KEYWORDS)
+                || field.isNullable()
+                && !onlyKeywords(field.getDefinition(), INLINE_NULLABLE_FIELD_KEYWORDS)) {
+                return false;
+            } else if (fieldType.getRootType().equals(RootTypes.OBJECT)) {
+                if (!validatesInline(fieldType)) {
+                    return false;
+                }
+            } else if (!fieldType.equals(RootTypes.BOOLEAN)
+                && LengthConstraints.of(fieldType) == null) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean onlyKeywords(JsonNode schema, Set<String> keywords) {
+        for (Iterator<String> it = schema.fieldNames(); it.hasNext(); ) {
+            if (!keywords.contains(it.next())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Check a result of a type rooted in OBJECT.  Generated PODs are checked
+     * without being written out if that's equivalent to validating against
+     * the schema; anything else is checked as a tree.
+     *
+     * @return description of the violation if the result is invalid, or null
+     * if it's valid
+     */
+    private String objectViolation(Object result, ResponsePlan plan) throws IOException {
+        if (result == null) {
+            // the schema of an object type doesn't allow null, and the
+            // validator can't be given a null tree
+            return "null";
+        }
+        if (plan.validatesInline && result instanceof JsonWritable) {
+            try {
+                ((JsonWritable) result).validate();
+                return null;
+            } catch (SchemaValidationException svx) {
+                return svx.getMessage();
+            }
+        }
+        JsonNode tree = toTree(result);
+        return validator.validate(plan.schema, tree) ? null : tree.toString();
+    }
+
+    private JsonNode toTree(Object result) throws IOException {
+        if (result instanceof JsonWritable) {
+            TokenBuffer buffer = new TokenBuffer(om, false);
+            ((JsonWritable) result).writeTo(buffer);
+            return om.readTree(buffer.asParser());
+        }
+        return om.valueToTree(result);
+    }
+
+    // -- Helpers -----------------------------------------------------------------------
+
+    private JsonGenerator createGenerator(OutputStream out) throws IOException {
+        JsonGenerator gen = om.getFactory().createGenerator(out, JsonEncoding.UTF8);
+        gen.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        return gen;
+    }
+
+    private static void writeEnvelopeStart(JsonGenerator gen, String jsonrpc, String id)
+    throws IOException {
+        gen.writeStartObject();
+        gen.writeStringField("jsonrpc", jsonrpc);
+        gen.writeStringField("id", id);
+    }
+
+    private static void writeError(JsonRpcError error, JsonGenerator gen) throws IOException {
+        writeEnvelopeStart(gen, error.getJsonrpc(), error.getId());
+        gen.writeFieldName("error");
+        writeRpcException(error.getResult(), gen);
+        gen.writeEndObject();
+    }
+
+    private static void writeRpcException(RpcException value, JsonGenerator gen)
+    throws IOException {
+        gen.writeStartObject();
+        gen.writeFieldName("code");
+        gen.writeNumber(value.getCode());
+        gen.writeFieldName("message");
+        gen.writeString(value.getMessage());
+        if(value.getData().isPresent()) {
+            gen.writeFieldName("data");
+            gen.writeString(value.getData().get());
+        }
+        gen.writeEndObject();
+    }
+
+    /**
+     * @return length of the hex representation of the result, which is of a
+     * type rooted in DATA or QUANTITY
+     * @throws SchemaValidationException if the result can't be represented as
+     * that root type
+     */
+    private static int hexLength(Object result, ResponsePlan plan) throws SchemaValidationException {
+        if (result instanceof byte[]) {
+            return HexCodec.dataLength((byte[]) result);
+        } else if (plan.kind == Kind.QUANTITY) {
+            if (result instanceof Long && (long) result >= 0) {
+                return HexCodec.quantityLength((long) result);
+            } else if (result instanceof BigInteger && ((BigInteger) result).signum() >= 0) {
+                return HexCodec.quantityLength((BigInteger) result);
+            } else if (result instanceof Long || result instanceof BigInteger) {
+                throw new SchemaValidationException(
+                    "QUANTITY can't be negative.  Response data: " + result);
+            }
+        }
+        throw new SchemaValidationException(String.format(
+            "Response data of Java type %s can't be represented as %s",
+            result == null ? "null" : result.getClass().getName(),
+            plan.kind));
+    }
+
+    /** Write a result that has passed {@link #hexLength(Object, ResponsePlan)} */
+    private static void writeHex(JsonGenerator gen, Object result) throws IOException {
+        if (result instanceof byte[]) {
+            HexCodec.writeData(gen, (byte[]) result);
+        } else if (result instanceof Long) {
+            HexCodec.writeQuantity(gen, (long) result);
+        } else {
+            HexCodec.writeQuantity(gen, (BigInteger) result);
+        }
+    }
+
+    /** @return hex representation of a result that has passed {@link #hexLength(Object, ResponsePlan)} */
+    private static String toHex(Object result) {
+        if (result instanceof byte[]) {
+            return HexCodec.toData((byte[]) result);
+        } else if (result instanceof Long) {
+            return HexCodec.toQuantity((long) result);
+        }
+        return HexCodec.toQuantity((BigInteger) result);
+    }
+
+    /**
+     * Check a result of the given hex length.  Since the format of the root
+     * type is guaranteed by construction, for types that only add length
+     * constraints it's enough to check the length -- so the hex doesn't need
+     * to be produced unless the result turns out to be invalid.
+     *
+     * @return the result as hex if it's invalid, or null if it's valid
+     */
+    private String validateHex(Object result, int length, ResponsePlan plan)
+    throws JsonProcessingException {
+        if (plan.lengths != null) {
+            return length >= plan.lengths.getMinLength() && length <= plan.lengths.getMaxLength()
+                ? null
+                : toHex(result);
+        }
+        String hex = toHex(result);
+        return validator.validate(plan.schema, TextNode.valueOf(hex)) ? null : hex;
     }
 
     // -- Serializers for Jackson -------------------------------------------------------
@@ -157,16 +660,25 @@ public class ResponseSerializer {
                               JsonGenerator gen,
                               SerializerProvider provider)
                 throws IOException {
-            gen.writeStartObject();
-            gen.writeFieldName("code");
-            gen.writeNumber(value.getCode());
-            gen.writeFieldName("message");
-            gen.writeString(value.getMessage());
-            if(value.getData().isPresent()) {
-                gen.writeFieldName("data");
-                gen.writeString(value.getData().get());
-            }
-            gen.writeEndObject();
+            writeRpcException(value, gen);
+        }
+    }
+
+    private static class JsonRpcErrorSerializer extends StdSerializer<JsonRpcError> {
+        public JsonRpcErrorSerializer() {
+            this(null);
+        }
+
+        public JsonRpcErrorSerializer(Class<JsonRpcError> t) {
+            super(t);
+        }
+
+        @Override
+        public void serialize(JsonRpcError value,
+                              JsonGenerator gen,
+                              SerializerProvider provider)
+                throws IOException {
+            writeError(value, gen);
         }
     }
 
@@ -184,7 +696,31 @@ public class ResponseSerializer {
                               JsonGenerator gen,
                               SerializerProvider provider)
         throws IOException {
-            gen.writeString("0x" + value.toString(16));
+            if (value.signum() < 0) {
+                throw JsonMappingException.from(gen, "QUANTITY can't be negative: " + value);
+            }
+            HexCodec.writeQuantity(gen, value);
+        }
+    }
+
+    private static class LongSerializer extends StdSerializer<Long> {
+        public LongSerializer() {
+            this(null);
+        }
+
+        public LongSerializer(Class<Long> t) {
+            super(t);
+        }
+
+        @Override
+        public void serialize(Long value,
+                              JsonGenerator gen,
+                              SerializerProvider provider)
+        throws IOException {
+            if (value < 0) {
+                throw JsonMappingException.from(gen, "QUANTITY can't be negative: " + value);
+            }
+            HexCodec.writeQuantity(gen, (long) value);
         }
     }
 
@@ -202,7 +738,7 @@ public class ResponseSerializer {
                               JsonGenerator gen,
                               SerializerProvider provider)
         throws IOException {
-            gen.writeString("0x" + bytesToHex(value));
+            HexCodec.writeData(gen, value);
         }
     }
 }
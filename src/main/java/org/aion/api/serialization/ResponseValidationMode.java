@@ -0,0 +1,20 @@
+package org.aion.api.serialization;
+
+/**
+ * How {@link ResponseSerializer} checks that the result of a method conforms
+ * to the method's response schema.  See {@link ResponseValidationPolicy}.
+ */
+public enum ResponseValidationMode {
+    /** Validate every response; a violation fails the serialization */
+    STRICT,
+    /** Validate a random 1-in-N of the responses; a violation fails the serialization */
+    SAMPLED,
+    /**
+     * Validate every response on a background thread; violations are only
+     * counted, the response is sent regardless.  Responses are dropped from
+     * validation if the background thread can't keep up.
+     */
+    ASYNC,
+    /** Don't validate */
+    OFF
+}
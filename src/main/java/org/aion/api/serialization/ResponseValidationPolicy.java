@@ -0,0 +1,162 @@
+package org.aion.api.serialization;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Properties;
+
+/**
+ * Which {@link ResponseValidationMode} {@link ResponseSerializer} uses for
+ * each method.  Immutable; the {@code with...} methods return a new policy.
+ *
+ * Can also be read from properties, i.e.
+ * <pre>
+ *   validation.default = sampled:1000
+ *   validation.method.submitseed = strict
+ *   validation.method.eth_call2 = off
+ * </pre>
+ * where each value is one of {@code strict}, {@code sampled:N} (validate
+ * 1-in-N), {@code async}, or {@code off}.
+ */
+public final class ResponseValidationPolicy {
+    public static final String DEFAULT_KEY = "validation.default";
+    public static final String METHOD_KEY_PREFIX = "validation.method.";
+
+    /** Sample rate used if {@code sampled} is given without one */
+    public static final int DEFAULT_SAMPLE_RATE = 100;
+
+    /** Validate every response of every method */
+    public static final ResponseValidationPolicy STRICT =
+        new ResponseValidationPolicy(setting(ResponseValidationMode.STRICT), Map.of());
+
+    private final Setting defaultSetting;
+    private final Map<String, Setting> methodSettings;
+
+    private ResponseValidationPolicy(Setting defaultSetting,
+                                     Map<String, Setting> methodSettings) {
+        this.defaultSetting = defaultSetting;
+        this.methodSettings = methodSettings;
+    }
+
+    /**
+     * @param mode mode for all methods; SAMPLED uses {@link #DEFAULT_SAMPLE_RATE}
+     */
+    public static ResponseValidationPolicy of(ResponseValidationMode mode) {
+        return new ResponseValidationPolicy(setting(mode), Map.of());
+    }
+
+    /** @return policy that validates 1-in-{@code sampleRate} responses of every method */
+    public static ResponseValidationPolicy sampled(int sampleRate) {
+        return new ResponseValidationPolicy(
+            setting(ResponseValidationMode.SAMPLED, sampleRate), Map.of());
+    }
+
+    /**
+     * @param mode mode for the method; SAMPLED uses {@link #DEFAULT_SAMPLE_RATE}
+     * @return copy of this policy, but with the given mode for the given method
+     */
+    public ResponseValidationPolicy withMethod(String method, ResponseValidationMode mode) {
+        return withMethod(method, setting(mode));
+    }
+
+    /**
+     * @return copy of this policy, but validating 1-in-{@code sampleRate}
+     * responses of the given method
+     */
+    public ResponseValidationPolicy withSampledMethod(String method, int sampleRate) {
+        return withMethod(method, setting(ResponseValidationMode.SAMPLED, sampleRate));
+    }
+
+    private ResponseValidationPolicy withMethod(String method, Setting setting) {
+        Map<String, Setting> settings = new HashMap<>(methodSettings);
+        settings.put(method, setting);
+        return new ResponseValidationPolicy(defaultSetting, settings);
+    }
+
+    public ResponseValidationMode getMode(String method) {
+        return methodSettings.getOrDefault(method, defaultSetting).mode;
+    }
+
+    /** @return N, where 1-in-N responses are validated; only meaningful for SAMPLED */
+    public int getSampleRate(String method) {
+        return methodSettings.getOrDefault(method, defaultSetting).sampleRate;
+    }
+
+    // -- Properties --------------------------------------------------------------------
+
+    /**
+     * @param props properties in the format described in the class doc;
+     * unrelated properties are ignored.  Methods without a setting of their
+     * own use {@link #DEFAULT_KEY}, or STRICT if that isn't given either.
+     * @throws IllegalArgumentException if a value can't be parsed
+     */
+    public static ResponseValidationPolicy fromProperties(Properties props) {
+        Setting defaultSetting = props.containsKey(DEFAULT_KEY)
+            ? parse(DEFAULT_KEY, props.getProperty(DEFAULT_KEY))
+            : STRICT.defaultSetting;
+
+        Map<String, Setting> settings = new HashMap<>();
+        for (String key : props.stringPropertyNames()) {
+            if (key.startsWith(METHOD_KEY_PREFIX)) {
+                settings.put(
+                    key.substring(METHOD_KEY_PREFIX.length()),
+                    parse(key, props.getProperty(key)));
+            }
+        }
+        return new ResponseValidationPolicy(defaultSetting, settings);
+    }
+
+    /** Same as {@link #fromProperties(Properties)}, reading the properties from a stream */
+    public static ResponseValidationPolicy load(InputStream properties) throws IOException {
+        Properties props = new Properties();
+        props.load(properties);
+        return fromProperties(props);
+    }
+
+    private static Setting parse(String key, String value) {
+        String[] parts = value.trim().toLowerCase(Locale.ROOT).split(":", 2);
+        try {
+            switch (parts[0]) {
+                case "strict":
+                    return setting(ResponseValidationMode.STRICT);
+                case "sampled":
+                    return setting(ResponseValidationMode.SAMPLED,
+                        parts.length == 2 ? Integer.parseInt(parts[1].trim()) : DEFAULT_SAMPLE_RATE);
+                case "async":
+                    return setting(ResponseValidationMode.ASYNC);
+                case "off":
+                    return setting(ResponseValidationMode.OFF);
+                default:
+                    throw new IllegalArgumentException("unknown mode");
+            }
+        } catch (IllegalArgumentException iae) {
+            throw new IllegalArgumentException(String.format(
+                "Invalid response validation setting %s=%s: %s", key, value, iae.getMessage()),
+                iae);
+        }
+    }
+
+    private static Setting setting(ResponseValidationMode mode) {
+        return setting(mode,
+            mode == ResponseValidationMode.SAMPLED ? DEFAULT_SAMPLE_RATE : 1);
+    }
+
+    private static Setting setting(ResponseValidationMode mode, int sampleRate) {
+        if (sampleRate < 1) {
+            throw new IllegalArgumentException("sample rate must be positive");
+        }
+        return new Setting(mode, sampleRate);
+    }
+
+    private static final class Setting {
+        private final ResponseValidationMode mode;
+        private final int sampleRate;
+
+        private Setting(ResponseValidationMode mode, int sampleRate) {
+            this.mode = mode;
+            this.sampleRate = sampleRate;
+        }
+    }
+}
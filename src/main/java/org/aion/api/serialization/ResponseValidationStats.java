@@ -0,0 +1,46 @@
+package org.aion.api.serialization;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/** Counters of the response validation of one method */
+public final class ResponseValidationStats {
+    private final LongAdder validated = new LongAdder();
+    private final LongAdder violations = new LongAdder();
+    private final LongAdder skipped = new LongAdder();
+    private volatile String lastViolation;
+
+    void recordValidated(boolean valid, String detail) {
+        validated.increment();
+        if (!valid) {
+            violations.increment();
+            lastViolation = detail;
+        }
+    }
+
+    void recordSkipped() {
+        skipped.increment();
+    }
+
+    /** @return number of responses that were validated, including those that failed */
+    public long getValidated() {
+        return validated.sum();
+    }
+
+    /** @return number of responses that didn't conform to the schema */
+    public long getViolations() {
+        return violations.sum();
+    }
+
+    /**
+     * @return number of responses that weren't validated, because of the
+     * validation mode or because async validation couldn't keep up
+     */
+    public long getSkipped() {
+        return skipped.sum();
+    }
+
+    /** @return description of the most recent violation, or null if there hasn't been one */
+    public String getLastViolation() {
+        return lastViolation;
+    }
+}
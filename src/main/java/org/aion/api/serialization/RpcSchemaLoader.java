@@ -10,22 +10,29 @@ import org.aion.api.schema.SchemaException;
 
 import java.io.IOException;
 import java.net.URL;
+import java.util.Arrays;
+import java.util.List;
 
 /**
  * Responsible for loading JsonSchema files for methods and types
  */
 public class RpcSchemaLoader {
-    // Implementation note: eventually we should make a subclass of this
-    // where the JsonSchema of methods and types are cached in memory, so
-    // calling RPC methods in the kernel doesn't require repeatedly loading
-    // files.
-    //
-    // Either an LRU cache or just a straight up map of pre-determined commonly
-    // used methods/types will do.  Invalidation of the cache will be trivial
-    // because the definitions don't change during the lifetime of the kernel.
+    // Implementation note: every call to this class goes back to the classpath
+    // and re-parses the schema file.  That's fine for code generation, but
+    // anything on the request path should use CachingRpcSchemaLoader instead.
 
     private ObjectMapper om = new ObjectMapper();
 
+    // -- Load method list --------------------------------------------------------------
+
+    /** Load the names of all the methods of the RPC layer (from methods.txt) */
+    public List<String> loadMethodList() throws IOException {
+        URL methodsUrl = Resources.getResource("methods.txt");
+        String methods = Resources.toString(methodsUrl, Charsets.UTF_8);
+        String[] methodList = methods.split("\n");
+        return Arrays.asList(methodList);
+    }
+
     // -- Load method -------------------------------------------------------------------
     public MethodDescriptor loadMethod(String methodName) throws IOException {
         JsonNode method = SerializationUtils.loadSchemaRef(
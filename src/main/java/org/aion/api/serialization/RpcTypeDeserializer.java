@@ -2,10 +2,25 @@ package org.aion.api.serialization;
 
 import static org.aion.api.serialization.SerializationUtils.hexStringToByteArray;
 
+import com.fasterxml.jackson.core.JsonParser;
 import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
+import java.io.IOException;
 import java.math.BigInteger;
+import java.util.List;
+import java.util.Optional;
+import org.aion.api.jfr.RpcEvents;
+import org.aion.api.jfr.RpcValidationEvent;
+import org.aion.api.metrics.RpcPhase;
+import org.aion.api.metrics.RpcTracer;
+import org.aion.api.schema.Field;
 import org.aion.api.schema.JsonSchemaTypeResolver;
+import org.aion.api.schema.LengthConstraints;
 import org.aion.api.schema.NamedRpcType;
 import org.aion.api.schema.RootTypes;
 import org.aion.api.schema.RpcType;
@@ -16,6 +31,36 @@ public abstract class RpcTypeDeserializer {
     private final SchemaValidator validator;
     protected final JsonSchemaTypeResolver resolver;
 
+    /**
+     * Length constraints of each DATA or QUANTITY type, or empty if the type
+     * has other constraints too.  Weak keys are compared by identity, which is cheaper
+     * than RpcType's (deep) equals and works since the types are reused.
+     */
+    private final LoadingCache<RpcType, Optional<LengthConstraints>> hexLengths =
+        CacheBuilder.newBuilder()
+            .weakKeys()
+            .build(CacheLoader.from(type -> Optional.ofNullable(LengthConstraints.of(type))));
+
+    /** Types of the fields of each OBJECT type, in order; keyed by identity like hexLengths */
+    private final LoadingCache<RpcType, NamedRpcType[]> fieldTypes =
+        CacheBuilder.newBuilder()
+            .weakKeys()
+            .build(CacheLoader.from(type -> type.getContainedFields().stream()
+                .map(Field::getType)
+                .toArray(NamedRpcType[]::new)));
+
+    /** Only used for reading trees; doesn't need any configuration */
+    private static final ObjectMapper TREE_READER = new ObjectMapper();
+
+    /**
+     * Volatile since it's set on another thread than the ones deserializing;
+     * read once per validation, so that it's ended with the tracer it was
+     * started with
+     */
+    private volatile RpcTracer tracer = RpcTracer.NOOP;
+    /** Method whose params are being deserialized on each thread; only kept track of while tracing */
+    private final ThreadLocal<String> tracedMethod = new ThreadLocal<>();
+
     public RpcTypeDeserializer() {
         this(new SchemaValidator(), new JsonSchemaTypeResolver());
     }
@@ -29,10 +74,28 @@ public abstract class RpcTypeDeserializer {
     public Object deserialize(JsonNode node,
                               NamedRpcType type)
     throws SchemaValidationException {
+        RpcType root = type.getRootType();
+
+        // DATA and QUANTITY types that only add length constraints are
+        // validated while decoding, so they don't need to go through the schema
+        if(root.equals(RootTypes.DATA) || root.equals(RootTypes.QUANTITY)) {
+            Optional<LengthConstraints> lengths = hexLengths.getUnchecked(type);
+            if(lengths.isPresent()) {
+                return deserializeHex(node, type, lengths.get());
+            }
+        }
+
         try {
-            if (!validator.validate(type.getDefinition(), node)) {
+            boolean valid;
+            RpcTracer tracer = this.tracer;
+            if (tracer == RpcTracer.NOOP && !RpcEvents.isValidationEnabled()) {
+                valid = isValid(node, type);
+            } else {
+                valid = tracedIsValid(node, type, tracer);
+            }
+            if (!valid) {
                 throw new SchemaValidationException(
-                    String.format("Schema validation error at parameter '%s'", node.toString()));
+                    String.format("Schema validation error at parameter '%s'", node));
             }
         } catch (JsonProcessingException jpe) {
             throw new SchemaValidationException(String.format(
@@ -40,7 +103,6 @@ public abstract class RpcTypeDeserializer {
         }
 
 //        NamedRpcType rpcType = resolver.resolveNamedSchema(expectedTypeSchema, tr);
-        RpcType root = type.getRootType();
 
         // For everything type except those rooted in Object, the serialization
         // procedure is the same as their root type.  Just the validation part
@@ -52,15 +114,8 @@ public abstract class RpcTypeDeserializer {
             String nodeVal = node.asText();
             return SerializationUtils.hexStringToByteArray(nodeVal);
         } else if(root.equals(RootTypes.QUANTITY)) {
-            String nodeVal = node.asText();
-            if(nodeVal.length() % 2 != 0) {
-                // need to pad it to even-length so it may be converted to byte[]
-                nodeVal = nodeVal.replaceFirst("0x", "0");
-            } else {
-                nodeVal = nodeVal.replaceFirst("0x", "");
-
-            }
-            return new BigInteger(nodeVal, 16);
+            BigInteger quantity = HexCodec.decodeQuantity(node.asText());
+            return isLong(type) ? (Object) quantity.longValue() : quantity;
         } else if (root.equals(RootTypes.OBJECT)) {
             return deserializeObject(node, type);
         }
@@ -68,6 +123,306 @@ public abstract class RpcTypeDeserializer {
         throw new UnsupportedOperationException("Unsupported type");
     }
 
+    private static Object deserializeHex(JsonNode node, RpcType type, LengthConstraints lengths)
+    throws SchemaValidationException {
+        if(node != null && node.isTextual()) {
+            String hex = node.textValue();
+            // for valid hex, length in chars is the same as in code points
+            if(hex.length() >= lengths.getMinLength() && hex.length() <= lengths.getMaxLength()) {
+                if(isLong(type)) {
+                    long quantity = HexCodec.decodeLongQuantity(hex);
+                    if(quantity >= 0) {
+                        return quantity;
+                    }
+                } else {
+                    Object value = type.getRootType().equals(RootTypes.DATA)
+                        ? HexCodec.decodeData(hex)
+                        : HexCodec.decodeQuantity(hex);
+                    if(value != null) {
+                        return value;
+                    }
+                }
+            }
+        }
+        throw new SchemaValidationException(
+            String.format("Schema validation error at parameter '%s'", node));
+    }
+
+    /** @return whether the type is a QUANTITY represented by a long; see {@link JsonSchemaTypeResolver} */
+    private static boolean isLong(RpcType type) {
+        return "long".equals(type.getJavaTypeName());
+    }
+
+    // -- Streaming ---------------------------------------------------------------------
+
+    /**
+     * Deserialize the value that the parser is positioned at (i.e. its
+     * current token), reading its tokens directly where possible rather than
+     * building a tree.  Validates the same way as
+     * {@link #deserialize(JsonNode, NamedRpcType)}.
+     *
+     * On return, the parser is positioned at the last token of the value.  If
+     * {@link SchemaValidationException} is thrown, it may be positioned
+     * anywhere inside the value.
+     *
+     * @throws IOException if the parser fails, i.e. because the JSON is malformed
+     */
+    public Object deserialize(JsonParser parser,
+                              NamedRpcType type)
+    throws SchemaValidationException, IOException {
+        RpcType root = type.getRootType();
+
+        if(root.equals(RootTypes.DATA) || root.equals(RootTypes.QUANTITY)) {
+            Optional<LengthConstraints> lengths = hexLengths.getUnchecked(type);
+            if(lengths.isPresent()) {
+                int min = lengths.get().getMinLength();
+                int max = lengths.get().getMaxLength();
+                if(root.equals(RootTypes.DATA)) {
+                    return readData(parser, min, max);
+                }
+                return isLong(type)
+                    ? (Object) readLongQuantity(parser, min, max)
+                    : readQuantity(parser, min, max);
+            }
+        } else if(type == RootTypes.BOOLEAN) {
+            return readBoolean(parser);
+        } else if(root.equals(RootTypes.OBJECT)) {
+            return readObject(parser, type);
+        }
+
+        return deserialize(readTree(parser), type);
+    }
+
+    /**
+     * Same as {@link #deserialize(JsonParser, NamedRpcType)} for a type rooted
+     * in DATA, without going through Object.
+     */
+    public byte[] deserializeData(JsonParser parser,
+                                  NamedRpcType type)
+    throws SchemaValidationException, IOException {
+        Optional<LengthConstraints> lengths = hexLengths.getUnchecked(type);
+        if(lengths.isPresent()) {
+            return readData(parser, lengths.get().getMinLength(), lengths.get().getMaxLength());
+        }
+        return (byte[]) deserialize(parser, type);
+    }
+
+    /**
+     * Same as {@link #deserialize(JsonParser, NamedRpcType)} for a type rooted
+     * in QUANTITY that's represented by a BigInteger, without going through Object.
+     */
+    public BigInteger deserializeQuantity(JsonParser parser,
+                                          NamedRpcType type)
+    throws SchemaValidationException, IOException {
+        Optional<LengthConstraints> lengths = hexLengths.getUnchecked(type);
+        if(lengths.isPresent()) {
+            return readQuantity(parser, lengths.get().getMinLength(), lengths.get().getMaxLength());
+        }
+        return (BigInteger) deserialize(parser, type);
+    }
+
+    /**
+     * Same as {@link #deserialize(JsonParser, NamedRpcType)} for a type rooted
+     * in QUANTITY that's represented by a long, without boxing it.
+     */
+    public long deserializeLongQuantity(JsonParser parser,
+                                        NamedRpcType type)
+    throws SchemaValidationException, IOException {
+        Optional<LengthConstraints> lengths = hexLengths.getUnchecked(type);
+        if(lengths.isPresent()) {
+            return readLongQuantity(parser, lengths.get().getMinLength(), lengths.get().getMaxLength());
+        }
+        return (Long) deserialize(parser, type);
+    }
+
+    /**
+     * Same as {@link #deserialize(JsonParser, NamedRpcType)} for a type rooted
+     * in BOOLEAN, without boxing it.
+     */
+    public boolean deserializeBoolean(JsonParser parser,
+                                      NamedRpcType type)
+    throws SchemaValidationException, IOException {
+        if(type == RootTypes.BOOLEAN) {
+            return readBoolean(parser);
+        }
+        return (Boolean) deserialize(parser, type);
+    }
+
+    /**
+     * Read an object type from the parser (positioned at its START_OBJECT).
+     * By default, this reads a tree and goes through
+     * {@link #deserializeObject(JsonNode, NamedRpcType)}; subclasses override
+     * it to bind the fields straight from the tokens (see
+     * {@link org.aion.api.codegen.GenerateDeserializer}).
+     */
+    protected Object readObject(JsonParser parser,
+                                NamedRpcType type)
+    throws SchemaValidationException, IOException {
+        return deserialize(readTree(parser), type);
+    }
+
+    /** @return types of the fields of an object type, in the order of its properties */
+    protected final NamedRpcType[] fieldTypes(RpcType type) {
+        return fieldTypes.getUnchecked(type);
+    }
+
+    /**
+     * Read a DATA whose only constraints are lengths
+     *
+     * @param minLength minimum length including "0x"
+     * @param maxLength maximum length including "0x"
+     */
+    protected static byte[] readData(JsonParser parser, int minLength, int maxLength)
+    throws SchemaValidationException, IOException {
+        if(parser.currentToken() == JsonToken.VALUE_STRING) {
+            int len = parser.getTextLength();
+            if(len >= minLength && len <= maxLength) {
+                byte[] data = HexCodec.decodeData(
+                    parser.getTextCharacters(), parser.getTextOffset(), len);
+                if(data != null) {
+                    return data;
+                }
+            }
+        }
+        throw invalidValue(parser);
+    }
+
+    /**
+     * Read a QUANTITY whose only constraints are lengths
+     *
+     * @param minLength minimum length including "0x"
+     * @param maxLength maximum length including "0x"
+     */
+    protected static BigInteger readQuantity(JsonParser parser, int minLength, int maxLength)
+    throws SchemaValidationException, IOException {
+        if(parser.currentToken() == JsonToken.VALUE_STRING) {
+            int len = parser.getTextLength();
+            if(len >= minLength && len <= maxLength) {
+                BigInteger quantity = HexCodec.decodeQuantity(
+                    parser.getTextCharacters(), parser.getTextOffset(), len);
+                if(quantity != null) {
+                    return quantity;
+                }
+            }
+        }
+        throw invalidValue(parser);
+    }
+
+    /**
+     * Read a QUANTITY whose only constraints are lengths, and which is
+     * represented by a long
+     *
+     * @param minLength minimum length including "0x"
+     * @param maxLength maximum length including "0x"; at most
+     * {@link JsonSchemaTypeResolver#MAX_LONG_QUANTITY_LENGTH}
+     */
+    protected static long readLongQuantity(JsonParser parser, int minLength, int maxLength)
+    throws SchemaValidationException, IOException {
+        if(parser.currentToken() == JsonToken.VALUE_STRING) {
+            int len = parser.getTextLength();
+            if(len >= minLength && len <= maxLength) {
+                long quantity = HexCodec.decodeLongQuantity(
+                    parser.getTextCharacters(), parser.getTextOffset(), len);
+                if(quantity >= 0) {
+                    return quantity;
+                }
+            }
+        }
+        throw invalidValue(parser);
+    }
+
+    protected static boolean readBoolean(JsonParser parser)
+    throws SchemaValidationException, IOException {
+        if(parser.currentToken() == JsonToken.VALUE_TRUE) {
+            return true;
+        } else if(parser.currentToken() == JsonToken.VALUE_FALSE) {
+            return false;
+        }
+        throw invalidValue(parser);
+    }
+
+    /**
+     * Check that the parser is positioned at the start of an object
+     *
+     * @throws SchemaValidationException if it isn't
+     */
+    protected static void expectStartObject(JsonParser parser)
+    throws SchemaValidationException, IOException {
+        if(parser.currentToken() != JsonToken.START_OBJECT) {
+            throw invalidValue(parser);
+        }
+    }
+
+    /**
+     * @param seen bit i is set if the i-th field of the object type was read
+     * @return exception listing the fields of the object type that weren't read
+     */
+    protected static SchemaValidationException missingFields(NamedRpcType type, long seen) {
+        StringBuilder missing = new StringBuilder();
+        List<Field> fields = type.getContainedFields();
+        for(int ix = 0; ix < fields.size(); ++ix) {
+            if((seen & (1L << ix)) == 0) {
+                missing.append(missing.length() == 0 ? "" : ", ").append(fields.get(ix).getName());
+            }
+        }
+        return new SchemaValidationException(String.format(
+            "Schema validation error at parameter of type %s: missing %s", type.getName(), missing));
+    }
+
+    private static SchemaValidationException invalidValue(JsonParser parser) throws IOException {
+        return new SchemaValidationException(String.format(
+            "Schema validation error at parameter '%s'", parser.getText()));
+    }
+
+    private static JsonNode readTree(JsonParser parser) throws IOException {
+        return TREE_READER.readTree(parser);
+    }
+
+    /**
+     * Check whether a value conforms to the schema of its type.  By default,
+     * this interprets the type's JsonSchema definition; subclasses may
+     * override it to use validators generated for the type (see
+     * {@link org.aion.api.codegen.GenerateValidators}).  Not called for DATA
+     * and QUANTITY types that only add length constraints, which are checked
+     * while they're decoded.
+     */
+    protected boolean isValid(JsonNode node,
+                              NamedRpcType type) throws JsonProcessingException {
+        return validator.validate(type.getDefinition(), node);
+    }
+
+    // -- Tracing -----------------------------------------------------------------------
+
+    /**
+     * Have the time spent on schema validation reported to the tracer, as
+     * {@link RpcPhase#VALIDATE}.  Set by {@link RequestDeserializer#setTracer}.
+     * Validation is also traced, with a JFR RpcValidationEvent, while those
+     * events are recorded.
+     */
+    void setTracer(RpcTracer tracer) {
+        this.tracer = tracer;
+    }
+
+    /** @param method method whose params are about to be deserialized on this thread; null once they have been */
+    void setTracedMethod(String method) {
+        tracedMethod.set(method);
+    }
+
+    private boolean tracedIsValid(JsonNode node,
+                                  NamedRpcType type,
+                                  RpcTracer tracer) throws JsonProcessingException {
+        RpcValidationEvent event = RpcEvents.beginValidation();
+        long start = System.nanoTime();
+        boolean valid = false;
+        try {
+            valid = isValid(node, type);
+            return valid;
+        } finally {
+            tracer.phaseEnded(RpcPhase.VALIDATE, tracedMethod.get(), start, System.nanoTime());
+            RpcEvents.endValidation(event, tracedMethod.get(), type.getName(), valid);
+        }
+    }
+
     protected abstract Object deserializeObject(JsonNode node,
                                                 NamedRpcType expectedTypeSchema)
     throws SchemaValidationException;
@@ -5,23 +5,17 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.google.common.base.Charsets;
 import com.google.common.io.Resources;
 
+import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.net.URL;
 
 class SerializationUtils {
-    // adapted from
-    // https://stackoverflow.com/questions/140131/convert-a-string-representation-of-a-hex-dump-to-a-byte-array-using-java
     public static byte[] hexStringToByteArray(String s) {
-        if(! s.startsWith("0x")) {
+        byte[] data = HexCodec.decodeData(s);
+        if(data == null) {
             throw new IllegalArgumentException(
-                "Expecting the hex string to start with \"0x\"");
-        }
-        s = s.replaceFirst("0x", "");
-        int len = s.length();
-        byte[] data = new byte[len / 2];
-        for (int i = 0; i < len; i += 2) {
-            data[i / 2] = (byte) ((Character.digit(s.charAt(i), 16) << 4)
-                    + Character.digit(s.charAt(i+1), 16));
+                "Expecting the hex string to start with \"0x\" followed by "
+                    + "an even number of hex digits");
         }
         return data;
     }
@@ -42,6 +36,9 @@ class SerializationUtils {
     public static JsonNode loadSchemaRef(ObjectMapper om, String resource)
     throws IOException {
         URL url = SerializationUtils.class.getClassLoader().getResource(resource);
+        if(url == null) {
+            throw new FileNotFoundException("Schema resource not found: " + resource);
+        }
         String schemaTxt = Resources.toString(url, Charsets.UTF_8);
         return om.readTree(schemaTxt);
     }
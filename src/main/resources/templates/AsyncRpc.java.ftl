@@ -0,0 +1,24 @@
+package org.aion.api.server.rpc2.autogen;
+import java.util.concurrent.CompletableFuture;
+import org.aion.api.server.rpc2.autogen.pod.*;
+import org.aion.api.server.rpc2.autogen.errors.*;
+
+/******************************************************************************
+*
+* AUTO-GENERATED SOURCE FILE.  DO NOT EDIT MANUALLY -- YOUR CHANGES WILL
+* BE WIPED OUT WHEN THIS FILE GETS RE-GENERATED OR UPDATED.
+*
+*****************************************************************************/
+public interface AsyncRpc {
+
+<#list javaMethodDeclarations as decl>
+<#list decl.exceptions>
+    // may complete exceptionally with <#items as ex>${ex}RpcException<#if ex_has_next>, </#if></#items>
+</#list>
+    CompletableFuture<${decl.boxedReturnType}> ${decl.methodName}(
+<#list decl.args as arg>
+        ${arg} var${arg_index}<#if (arg_has_next)>, </#if>
+</#list>    );
+
+</#list>
+}
@@ -0,0 +1,68 @@
+package org.aion.api.server.rpc2.autogen;
+import org.aion.api.dispatch.RequestProcessor;
+import org.aion.api.server.rpc2.AbstractRpcProcessor;
+import org.aion.api.serialization.BoundCall;
+import org.aion.api.serialization.CallBinder;
+import org.aion.api.serialization.JsonRpcRequest;
+import org.aion.api.serialization.MethodTable;
+import org.aion.api.serialization.ParamReader;
+import org.aion.api.serialization.RpcSchemaLoader;
+import org.aion.api.server.rpc2.autogen.pod.*;
+import org.aion.api.RpcException;
+import java.io.IOException;
+import java.util.List;
+
+/******************************************************************************
+ *
+ * AUTO-GENERATED SOURCE FILE.  DO NOT EDIT MANUALLY -- YOUR CHANGES WILL
+ * BE WIPED OUT WHEN THIS FILE GETS RE-GENERATED OR UPDATED.
+ *
+ *****************************************************************************/
+public class FusedRpcProcessor2 extends AbstractRpcProcessor implements RequestProcessor, CallBinder {
+    /** Methods in id order, as they were when this was generated */
+    static final List<String> METHODS = List.of(
+<#list javaMethodCalls as jmc>
+        "${jmc.methodName}"<#if (jmc_has_next)>,</#if>
+</#list>
+    );
+
+    private final Rpc rpc;
+
+    public FusedRpcProcessor2(Rpc rpc) {
+        this.rpc = rpc;
+        // the switch below is on the ids the deserializer gives out
+        try {
+            if (!MethodTable.load(new RpcSchemaLoader()).getMethods().equals(METHODS)) {
+                throw new IllegalStateException(
+                    "Method list has changed since FusedRpcProcessor2 was generated; regenerate it");
+            }
+        } catch (IOException ioe) {
+            throw new IllegalStateException("Failed to load method list", ioe);
+        }
+    }
+
+    @Override
+    public BoundCall bind(int methodId, ParamReader params) throws IOException {
+        switch(methodId) {
+<#list javaMethodCalls as jmc>
+            case ${jmc_index}: { // ${jmc.methodName}
+<#list jmc.inputTypes as paramType>
+                final ${paramType} p${paramType_index} = ${jmc.paramReaders[paramType_index]};
+</#list>
+                return () -> rpc.${jmc.methodName}(<#list jmc.inputTypes as paramType>p${paramType_index}<#if (paramType_has_next)>, </#if></#list>);
+            }
+</#list>
+            default: throw new IllegalArgumentException("No method with id " + methodId);
+        }
+    }
+
+    @Override
+    public Object execute(JsonRpcRequest req) throws RpcException {
+        BoundCall call = req.getCall();
+        if (call == null) {
+            throw new IllegalArgumentException(
+                "Request for " + req.getMethod() + " wasn't deserialized with FusedRpcProcessor2");
+        }
+        return call.execute();
+    }
+}
@@ -0,0 +1,43 @@
+package org.aion.api.server.rpc2.autogen;
+import org.aion.api.dispatch.MeteredRequestProcessor;
+import org.aion.api.dispatch.RequestProcessor;
+import org.aion.api.metrics.RpcMetrics;
+import java.util.List;
+
+/******************************************************************************
+ *
+ * AUTO-GENERATED SOURCE FILE.  DO NOT EDIT MANUALLY -- YOUR CHANGES WILL
+ * BE WIPED OUT WHEN THIS FILE GETS RE-GENERATED OR UPDATED.
+ *
+ *****************************************************************************/
+public final class MeteredRpcProcessor2 {
+    /** Methods in id order, as they were when this was generated */
+    static final List<String> METHODS = List.of(
+<#list javaMethodCalls as jmc>
+        "${jmc.methodName}"<#if (jmc_has_next)>,</#if>
+</#list>
+    );
+
+    /** Codes of the errors in errors.json, which the generated *RpcExceptions have */
+    static final List<Integer> ERROR_CODES = List.of(
+<#list errors as error>
+        ${error.code?c}<#if (error_has_next)>,</#if> // ${error.name}
+</#list>
+    );
+
+    private MeteredRpcProcessor2() { }
+
+    /** @return metrics for every method, and for every error they may fail with */
+    public static RpcMetrics newMetrics() {
+        return new RpcMetrics(METHODS, ERROR_CODES);
+    }
+
+    /**
+     * @param processor RpcProcessor2, FusedRpcProcessor2 or AsyncRpcProcessor2
+     * @return processor that executes requests with the given one, recording
+     * each call into new metrics (see {@link MeteredRequestProcessor#getMetrics()})
+     */
+    public static MeteredRequestProcessor wrap(RequestProcessor processor) {
+        return MeteredRequestProcessor.wrap(processor, newMetrics());
+    }
+}
@@ -1,12 +1,17 @@
 package org.aion.api.server.rpc2.autogen.pod;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import java.io.IOException;
+import org.aion.api.schema.SchemaValidationException;
+import org.aion.api.serialization.JsonWritable;
+
 /******************************************************************************
  *
  * AUTO-GENERATED SOURCE FILE.  DO NOT EDIT MANUALLY -- YOUR CHANGES WILL
  * BE WIPED OUT WHEN THIS FILE GETS RE-GENERATED OR UPDATED.
  *
  *****************************************************************************/
-public class ${javaClassName} {
+public class ${javaClassName} implements JsonWritable {
 <#list fields as f>
     private ${f.type.javaTypeName} ${f.name};
 </#list>
@@ -27,4 +32,22 @@ public class ${javaClassName} {
     }
 
 </#list>
+    @Override
+    public void writeTo(JsonGenerator gen) throws IOException {
+        gen.writeStartObject();
+<#list writer.fields as w>
+        gen.writeFieldName("${w.name}");
+        ${w.writeStatement}
+</#list>
+        gen.writeEndObject();
+    }
+
+    @Override
+    public void validate() throws SchemaValidationException {
+<#list writer.fields as w>
+<#if w.checkStatement??>
+        ${w.checkStatement}
+</#if>
+</#list>
+    }
 }
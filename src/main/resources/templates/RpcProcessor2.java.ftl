@@ -1,8 +1,13 @@
 package org.aion.api.server.rpc2.autogen;
+import org.aion.api.dispatch.RequestProcessor;
 import org.aion.api.server.rpc2.AbstractRpcProcessor;
 import org.aion.api.serialization.JsonRpcRequest;
+import org.aion.api.serialization.MethodTable;
+import org.aion.api.serialization.RpcSchemaLoader;
 import org.aion.api.server.rpc2.autogen.pod.*;
 import org.aion.api.RpcException;
+import java.io.IOException;
+import java.util.List;
 
 /******************************************************************************
  *
@@ -10,18 +15,39 @@ import org.aion.api.RpcException;
  * BE WIPED OUT WHEN THIS FILE GETS RE-GENERATED OR UPDATED.
  *
  *****************************************************************************/
-public class RpcProcessor2 extends AbstractRpcProcessor {
+public class RpcProcessor2 extends AbstractRpcProcessor implements RequestProcessor {
+    /** Methods in id order, as they were when this was generated */
+    static final List<String> METHODS = List.of(
+<#list javaMethodCalls as jmc>
+        "${jmc.methodName}"<#if (jmc_has_next)>,</#if>
+</#list>
+    );
+
     private final Rpc rpc;
+    private final MethodTable methods;
 
     public RpcProcessor2(Rpc rpc) {
         this.rpc = rpc;
+        try {
+            this.methods = MethodTable.load(new RpcSchemaLoader());
+        } catch (IOException ioe) {
+            throw new IllegalStateException("Failed to load method list", ioe);
+        }
+        // the switch below is on the ids the deserializer gives out
+        if (!methods.getMethods().equals(METHODS)) {
+            throw new IllegalStateException(
+                "Method list has changed since RpcProcessor2 was generated; regenerate it");
+        }
     }
 
+    @Override
     public Object execute(JsonRpcRequest req) throws RpcException {
         Object[] params = req.getParams();
-        switch(req.getMethod()) {
+        // requests that weren't deserialized by a RequestDeserializer (e.g.
+        // built by hand) have no id, so theirs is looked up by name
+        switch(methods.idOf(req)) {
 <#list javaMethodCalls as jmc>
-            case "${jmc.methodName}":
+            case ${jmc_index}: // ${jmc.methodName}
                 return rpc.${jmc.methodName}(
 <#list jmc.inputTypes as paramType>
                     (${paramType}) params[${paramType_index}]<#if (paramType_has_next)>,</#if>
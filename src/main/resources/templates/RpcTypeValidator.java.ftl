@@ -0,0 +1,70 @@
+package org.aion.api.server.rpc2.autogen.validators;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+/******************************************************************************
+ *
+ * AUTO-GENERATED SOURCE FILE.  DO NOT EDIT MANUALLY -- YOUR CHANGES WILL
+ * BE WIPED OUT WHEN THIS FILE GETS RE-GENERATED OR UPDATED.
+ *
+ *****************************************************************************/
+public final class ${type.name}Validator {
+    private ${type.name}Validator() { }
+
+    public static boolean isValid(JsonNode value) {
+<#if type.rootKind == "OBJECT">
+        if (value == null || !value.isObject()) {
+            return false;
+        }
+<#list type.required as r>
+        if (!value.has("${r}")) {
+            return false;
+        }
+</#list>
+<#if type.fields?has_content>
+        JsonNode field;
+</#if>
+<#list type.fields as f>
+        field = value.get("${f.name}");
+        if (field != null<#if f.nullable> && !field.isNull()</#if> && !${f.typeName}Validator.isValid(field)) {
+            return false;
+        }
+</#list>
+        return true;
+<#elseif type.rootKind == "BOOLEAN">
+        return value != null && value.isBoolean();
+<#else>
+        return value != null && value.isTextual() && isValid(value.textValue());
+</#if>
+    }
+<#if type.rootKind == "DATA" || type.rootKind == "QUANTITY">
+
+    public static boolean isValid(String value) {
+        // lengths are in chars rather than code points; doesn't matter since
+        // anything outside of the hex alphabet is rejected below anyway
+        final int len = value.length();
+<#if type.minLength == type.maxLength>
+        if (len != ${type.minLength?c}) {
+<#else>
+        if (len < ${type.minLength?c}<#if type.maxLengthBounded> || len > ${type.maxLength?c}</#if>) {
+</#if>
+            return false;
+        }
+<#if type.rootKind == "DATA">
+        if ((len & 1) != 0) {
+            return false;
+        }
+</#if>
+        if (value.charAt(0) != '0' || value.charAt(1) != 'x') {
+            return false;
+        }
+        for (int i = 2; i < len; ++i) {
+            final char c = value.charAt(i);
+            if (!((c >= '0' && c <= '9') || (c >= 'a' && c <= 'f') || (c >= 'A' && c <= 'F'))) {
+                return false;
+            }
+        }
+        return true;
+    }
+</#if>
+}
@@ -1,6 +1,10 @@
 package org.aion.api.server.rpc2.autogen;
 
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.databind.JsonNode;
+import java.io.IOException;
 import org.aion.api.schema.NamedRpcType;
 import org.aion.api.schema.SchemaValidationException;
 import org.aion.api.schema.TypeRegistry;
@@ -8,6 +12,9 @@ import org.aion.api.serialization.RpcTypeDeserializer;
 <#list types as t>
 import org.aion.api.server.rpc2.autogen.pod.${t.name};
 </#list>
+<#list validators as v>
+import org.aion.api.server.rpc2.autogen.validators.${v.name}Validator;
+</#list>
 
 /******************************************************************************
 *
@@ -16,6 +23,19 @@ import org.aion.api.server.rpc2.autogen.pod.${t.name};
 *
 *****************************************************************************/
 public class TemplatedSerializer extends RpcTypeDeserializer {
+    @Override
+    protected boolean isValid(JsonNode value,
+                              NamedRpcType type) throws JsonProcessingException {
+        switch(type.getName()) {
+<#list validators as v>
+            case "${v.name}":
+                return ${v.name}Validator.isValid(value);
+</#list>
+            default:
+                return super.isValid(value, type);
+        }
+    }
+
     @Override
     public Object deserializeObject(JsonNode value,
                                     NamedRpcType type) throws SchemaValidationException {
@@ -24,7 +44,7 @@ public class TemplatedSerializer extends RpcTypeDeserializer {
             case "${t.name}":
                 return new ${t.name}(
 <#list t.containedFields as f>
-                    (${f.type.javaTypeName}) super.deserialize(
+                    <#if f.nullable>value.path("${f.name}").isNull() ? null : </#if>(${f.type.javaTypeName}) super.deserialize(
                         value.get("${f.name}"),
                         (NamedRpcType) type.getContainedFields().get(${f_index}).getType()
                     )<#if (f_has_next)>,</#if>
@@ -36,4 +56,56 @@ public class TemplatedSerializer extends RpcTypeDeserializer {
                     "Don't know how to handle this kind of object");
         }
     }
+
+    @Override
+    protected Object readObject(JsonParser parser,
+                                NamedRpcType type) throws SchemaValidationException, IOException {
+        switch(type.getName()) {
+<#list readers as r>
+            case "${r.name}":
+                return read${r.name}(parser, type);
+</#list>
+            default:
+                return super.readObject(parser, type);
+        }
+    }
+<#list readers as r>
+
+    private ${r.name} read${r.name}(JsonParser parser, NamedRpcType type)
+    throws SchemaValidationException, IOException {
+        expectStartObject(parser);
+<#if r.usesFieldTypes>
+        final NamedRpcType[] fieldTypes = fieldTypes(type);
+</#if>
+<#list r.fields as f>
+        ${f.javaTypeName} ${f.variableName} = ${f.defaultValue};
+</#list>
+        long seen = 0;
+
+        while(parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.getCurrentName();
+            parser.nextToken();
+            switch(field) {
+<#list r.fields as f>
+                case "${f.name}":
+                    ${f.variableName} = ${f.readExpression};
+                    seen |= 1L << ${f.index};
+                    break;
+</#list>
+                default:
+                    // not one of the properties; the schema allows those
+                    parser.skipChildren();
+            }
+        }
+        if(seen != ${r.allFieldsMask}) {
+            throw missingFields(type, seen);
+        }
+
+        return new ${r.name}(
+<#list r.fields as f>
+            ${f.variableName}<#if (f_has_next)>,</#if>
+</#list>
+        );
+    }
+</#list>
 }
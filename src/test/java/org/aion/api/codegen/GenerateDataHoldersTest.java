@@ -0,0 +1,173 @@
+package org.aion.api.codegen;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.StringWriter;
+import java.lang.reflect.Constructor;
+import java.math.BigInteger;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Set;
+import javax.tools.JavaCompiler;
+import javax.tools.ToolProvider;
+import org.aion.api.schema.Field;
+import org.aion.api.schema.JsonSchemaTypeResolver;
+import org.aion.api.schema.NamedRpcType;
+import org.aion.api.schema.SchemaValidationException;
+import org.aion.api.serialization.CachingRpcSchemaLoader;
+import org.aion.api.serialization.HexCodec;
+import org.aion.api.serialization.JsonRpcResponse;
+import org.aion.api.serialization.JsonWritable;
+import org.aion.api.serialization.ResponseSerializer;
+import org.aion.api.serialization.ResponseValidationPolicy;
+import org.junit.Test;
+
+public class GenerateDataHoldersTest {
+    private static final String POD_PACKAGE = "org.aion.api.server.rpc2.autogen.pod";
+
+    /** Fields of Transaction that are null while it's pending */
+    private static final Set<String> PENDING_FIELDS = Set.of("blockHash", "blockNumber", "transactionIndex");
+
+    private final ObjectMapper om = new ObjectMapper();
+
+    /** @return the data holder generated for the type, compiled and loaded */
+    private Class<?> compile(NamedRpcType type) throws Exception {
+        Path dir = Files.createTempDirectory("pod");
+        Path source = dir.resolve(type.getName() + ".java");
+        StringWriter out = new StringWriter();
+        GenerateDataHolders.generate(CodeGenUtils.configureFreemarker(), type, out);
+        Files.write(source, out.toString().getBytes(StandardCharsets.UTF_8));
+
+        JavaCompiler javac = ToolProvider.getSystemJavaCompiler();
+        int rc = javac.run(null, null, null,
+            "-classpath", System.getProperty("java.class.path"),
+            "-d", dir.toString(),
+            source.toString());
+        assertThat(rc, is(0));
+
+        ClassLoader loader = new URLClassLoader(new URL[] {dir.toUri().toURL()}, getClass().getClassLoader());
+        return loader.loadClass(POD_PACKAGE + "." + type.getName());
+    }
+
+    private NamedRpcType transactionType() throws Exception {
+        return CodeGenUtils.retrieveObjectDerivedRpcTypes(om, new JsonSchemaTypeResolver()).stream()
+            .filter(type -> type.getName().equals("Transaction"))
+            .findFirst()
+            .get();
+    }
+
+    private String write(JsonWritable pod) throws Exception {
+        StringWriter json = new StringWriter();
+        try (JsonGenerator gen = om.getFactory().createGenerator(json)) {
+            pod.writeTo(gen);
+        }
+        return json.toString();
+    }
+
+    @Test
+    public void pendingTransactionRoundTrips() throws Exception {
+        NamedRpcType type = transactionType();
+        Class<?> transaction = compile(type);
+        Constructor<?> constructor = transaction.getConstructors()[0];
+        Class<?>[] paramTypes = constructor.getParameterTypes();
+        List<Field> fields = type.getContainedFields();
+
+        for (Field field : fields) {
+            if (PENDING_FIELDS.contains(field.getName())) {
+                Class<?> fieldType = paramTypes[fields.indexOf(field)];
+                assertThat(field.getName() + " is nullable", fieldType.isPrimitive(), is(false));
+            }
+        }
+
+        Object[] values = new Object[fields.size()];
+        for (int ix = 0; ix < values.length; ++ix) {
+            values[ix] = PENDING_FIELDS.contains(fields.get(ix).getName())
+                ? null
+                : exampleValue(paramTypes[ix]);
+        }
+        String json = write((JsonWritable) constructor.newInstance(values));
+
+        JsonNode written = om.readTree(json);
+        for (String field : PENDING_FIELDS) {
+            assertThat(written.get(field).isNull(), is(true));
+        }
+
+        // read it back the way a client would, and write it again
+        Object[] read = new Object[fields.size()];
+        for (int ix = 0; ix < read.length; ++ix) {
+            read[ix] = readValue(written.get(fields.get(ix).getName()), paramTypes[ix]);
+        }
+        assertThat(write((JsonWritable) constructor.newInstance(read)), is(json));
+    }
+
+    @Test
+    public void pendingTransactionPassesStrictValidation() throws Exception {
+        NamedRpcType type = transactionType();
+        Class<?> transaction = compile(type);
+        Constructor<?> constructor = transaction.getConstructors()[0];
+        Class<?>[] paramTypes = constructor.getParameterTypes();
+        List<Field> fields = type.getContainedFields();
+
+        Object[] values = new Object[fields.size()];
+        for (int ix = 0; ix < values.length; ++ix) {
+            values[ix] = PENDING_FIELDS.contains(fields.get(ix).getName())
+                ? null
+                : exampleValue(paramTypes[ix]);
+        }
+        ResponseSerializer unit = new ResponseSerializer(
+            new CachingRpcSchemaLoader(), ResponseValidationPolicy.STRICT);
+        String json = unit.serialize(
+            new JsonRpcResponse(constructor.newInstance(values), "1"), "eth_getTransactionByHash2");
+
+        JsonNode result = om.readTree(json).get("result");
+        for (String field : PENDING_FIELDS) {
+            assertThat(result.get(field).isNull(), is(true));
+        }
+
+        // nullable fields are still checked when they aren't null
+        values[fields.indexOf(fields.stream()
+            .filter(field -> field.getName().equals("blockHash"))
+            .findFirst()
+            .get())] = new byte[31];
+        try {
+            unit.serialize(
+                new JsonRpcResponse(constructor.newInstance(values), "1"), "eth_getTransactionByHash2");
+            fail("Expected a blockHash of 31 bytes to be rejected");
+        } catch (SchemaValidationException sve) {
+            assertThat(sve.getMessage().contains("blockHash"), is(true));
+        }
+    }
+
+    private static Object exampleValue(Class<?> type) {
+        if (type == long.class) {
+            return 21000L;
+        } else if (type == BigInteger.class) {
+            return BigInteger.TEN.pow(18);
+        } else if (type == byte[].class) {
+            return new byte[32];
+        }
+        throw new IllegalArgumentException("No example of " + type);
+    }
+
+    private static Object readValue(JsonNode value, Class<?> type) {
+        if (value.isNull()) {
+            return null;
+        } else if (type == long.class) {
+            return HexCodec.decodeLongQuantity(value.asText());
+        } else if (type == BigInteger.class) {
+            return HexCodec.decodeQuantity(value.asText());
+        } else if (type == byte[].class) {
+            return HexCodec.decodeData(value.asText());
+        }
+        throw new IllegalArgumentException("Can't read " + type);
+    }
+}
@@ -0,0 +1,142 @@
+package org.aion.api.dispatch;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.spy;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import org.aion.api.RpcException;
+import org.aion.api.metrics.RpcMetrics;
+import org.aion.api.serialization.BoundCall;
+import org.aion.api.serialization.CallBinder;
+import org.aion.api.serialization.JsonRpcRequest;
+import org.aion.api.serialization.ParamReader;
+import org.aion.api.serialization.RequestDeserializer;
+import org.aion.api.serialization.ResponseSerializer;
+import org.aion.api.serialization.RpcSchemaLoader;
+import org.junit.Before;
+import org.junit.Test;
+
+public class MeteredRequestProcessorTest {
+    private static final String REQUEST =
+        "{\"jsonrpc\": \"2.0\", \"method\": \"testMethod\", \"params\": [%s], \"id\": \"1\"}";
+
+    private final ObjectMapper om = new ObjectMapper();
+    private final RpcSchemaLoader schemaLoader = spy(RpcSchemaLoader.class);
+    private final RpcMetrics metrics = new RpcMetrics(List.of("testMethod"), List.of(TeapotException.CODE));
+
+    @Before
+    public void setup() throws Exception {
+        // make the schema loader act as if there is a method called 'testMethod'
+        // that takes a boolean and returns a boolean
+        doReturn(om.readTree("{\"type\": \"array\", \"items\": [{\"type\": \"boolean\"}]}"))
+            .when(schemaLoader).loadRequestSchema("testMethod");
+        doReturn(om.readTree("{\"type\": \"boolean\"}"))
+            .when(schemaLoader).loadResponseSchema("testMethod");
+        doReturn(List.of("testMethod")).when(schemaLoader).loadMethodList();
+    }
+
+    private RpcDispatcher dispatcher(RequestProcessor processor) {
+        return new RpcDispatcher(
+            MeteredRequestProcessor.wrap(processor, metrics),
+            new RequestDeserializer(new TestDeserializer(), schemaLoader),
+            new ResponseSerializer(schemaLoader),
+            Runnable::run);
+    }
+
+    @Test
+    public void callsAndErrors() throws Exception {
+        RpcDispatcher unit = dispatcher(req -> {
+            if ((boolean) req.getParams()[0]) {
+                return true;
+            }
+            throw new TeapotException();
+        });
+        unit.dispatch(String.format(REQUEST, "true"));
+        unit.dispatch(String.format(REQUEST, "true"));
+        unit.dispatch(String.format(REQUEST, "false"));
+        // fails before it gets to the processor
+        unit.dispatch(String.format(REQUEST, "1"));
+
+        assertThat(metrics.getCalls("testMethod"), is(3L));
+        assertThat(metrics.getFailures("testMethod"), is(1L));
+        assertThat(metrics.getLatency("testMethod").getCount(), is(3L));
+        assertThat(metrics.getErrors(TeapotException.CODE), is(1L));
+        assertThat(metrics.getErrors(RpcException.invalidParams("").getCode()), is(0L));
+        assertThat(metrics.getErrorCounts().size(), is(7));
+
+        metrics.reset();
+        assertThat(metrics.getCalls("testMethod"), is(0L));
+        assertThat(metrics.getLatency("testMethod").getCount(), is(0L));
+        assertThat(metrics.getErrors(TeapotException.CODE), is(0L));
+    }
+
+    @Test
+    public void runtimeExceptionsAndUnknownCodes() throws Exception {
+        MeteredRequestProcessor unit = MeteredRequestProcessor.wrap(req -> {
+            throw new IllegalStateException();
+        }, metrics);
+        JsonRpcRequest req = new JsonRpcRequest("testMethod", "1", "2.0");
+        try {
+            unit.execute(req);
+        } catch (IllegalStateException expected) {
+        }
+        assertThat(metrics.getErrors(RpcMetrics.INTERNAL_ERROR), is(1L));
+        assertThat(metrics.getFailures("testMethod"), is(1L));
+
+        metrics.recordError(0, 12345, 1000);
+        assertThat(metrics.getOtherErrors(), is(1L));
+    }
+
+    @Test
+    public void keepsBinding() throws Exception {
+        RpcDispatcher unit = dispatcher(new NegatingBinder());
+        JsonNode resp = om.readTree(unit.dispatch(String.format(REQUEST, "true")));
+        assertThat(resp.get("result").asBoolean(), is(false));
+        assertThat(metrics.getCalls("testMethod"), is(1L));
+    }
+
+    @Test
+    public void asyncCallsAreRecordedOnCompletion() throws Exception {
+        CompletableFuture<Object> call = new CompletableFuture<>();
+        AsyncRequestProcessor processor = req -> call;
+        RpcDispatcher unit = dispatcher(processor);
+
+        CompletableFuture<String> response = unit.dispatchAsync(String.format(REQUEST, "true"));
+        assertThat(metrics.getCalls("testMethod"), is(0L));
+
+        call.completeExceptionally(new TeapotException());
+        JsonNode resp = om.readTree(response.get(10, TimeUnit.SECONDS));
+        assertThat(resp.get("error").get("code").asInt(), is(TeapotException.CODE));
+        assertThat(metrics.getCalls("testMethod"), is(1L));
+        assertThat(metrics.getErrors(TeapotException.CODE), is(1L));
+    }
+
+    private static class TeapotException extends RpcException {
+        static final int CODE = -32418;
+
+        TeapotException() {
+            super(CODE, "I'm a teapot", null);
+        }
+    }
+
+    /** Like the generated FusedRpcProcessor2, for testMethod */
+    private static class NegatingBinder implements RequestProcessor, CallBinder {
+        @Override
+        public BoundCall bind(int methodId, ParamReader params) throws IOException {
+            boolean value = params.nextBoolean();
+            return () -> !value;
+        }
+
+        @Override
+        public Object execute(JsonRpcRequest req) throws RpcException {
+            return req.getCall().execute();
+        }
+    }
+}
@@ -0,0 +1,297 @@
+package org.aion.api.dispatch;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.junit.Assert.assertThat;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.spy;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import org.aion.api.RpcException;
+import org.aion.api.serialization.BoundCall;
+import org.aion.api.serialization.CallBinder;
+import org.aion.api.serialization.JsonRpcRequest;
+import org.aion.api.serialization.ParamReader;
+import org.aion.api.serialization.RequestDeserializer;
+import org.aion.api.serialization.ResponseSerializer;
+import org.aion.api.serialization.RpcSchemaLoader;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class RpcDispatcherTest {
+    private final ObjectMapper om = new ObjectMapper();
+    private final RpcSchemaLoader schemaLoader = spy(RpcSchemaLoader.class);
+    private ExecutorService executor;
+
+    @Before
+    public void setup() throws Exception {
+        // make the schema loader act as if there is a method called 'testMethod'
+        // that takes a boolean and returns a boolean
+        doReturn(om.readTree("{\"type\": \"array\", \"items\": [{\"type\": \"boolean\"}]}"))
+            .when(schemaLoader).loadRequestSchema("testMethod");
+        doReturn(om.readTree("{\"type\": \"boolean\"}"))
+            .when(schemaLoader).loadResponseSchema("testMethod");
+        doReturn(List.of("testMethod")).when(schemaLoader).loadMethodList();
+        executor = Executors.newFixedThreadPool(4);
+    }
+
+    @After
+    public void teardown() {
+        executor.shutdownNow();
+    }
+
+    private RpcDispatcher dispatcher(RequestProcessor processor) {
+        return new RpcDispatcher(
+            processor,
+            new RequestDeserializer(new TestDeserializer(), schemaLoader),
+            new ResponseSerializer(schemaLoader),
+            executor);
+    }
+
+    @Test
+    public void singleRequest() throws Exception {
+        RpcDispatcher unit = dispatcher(req -> !(boolean) req.getParams()[0]);
+        JsonNode resp = om.readTree(unit.dispatch(
+            "{\"jsonrpc\": \"2.0\", \"method\": \"testMethod\", \"params\": [true], \"id\": \"1\"}"));
+
+        assertThat(resp.get("id").asText(), is("1"));
+        assertThat(resp.get("result").asBoolean(), is(false));
+    }
+
+    @Test
+    public void tracer() throws Exception {
+        RpcDispatcher unit = dispatcher(req -> !(boolean) req.getParams()[0]);
+        List<String> phases = Collections.synchronizedList(new ArrayList<>());
+        unit.setTracer((phase, method, start, end) -> phases.add(phase + " " + method));
+
+        String request = "{\"jsonrpc\": \"2.0\", \"method\": \"testMethod\", \"params\": [true], \"id\": \"1\"}";
+        unit.dispatch(request);
+        assertThat(phases, is(List.of(
+            "DESERIALIZE testMethod", "PARSE testMethod", "EXECUTE testMethod", "SERIALIZE testMethod")));
+
+        phases.clear();
+        unit.dispatchAsync(request).get(10, TimeUnit.SECONDS);
+        assertThat(phases, is(List.of(
+            "DESERIALIZE testMethod", "PARSE testMethod", "EXECUTE testMethod", "SERIALIZE testMethod")));
+    }
+
+    @Test
+    public void boundCall() throws Exception {
+        RpcDispatcher unit = dispatcher(new NegatingBinder());
+        JsonNode resp = om.readTree(unit.dispatch(
+            "{\"jsonrpc\": \"2.0\", \"method\": \"testMethod\", \"params\": [true], \"id\": \"1\"}"));
+        assertThat(resp.get("result").asBoolean(), is(false));
+
+        resp = om.readTree(unit.dispatch(
+            "[{\"jsonrpc\": \"2.0\", \"method\": \"testMethod\", \"params\": [false], \"id\": \"2\"}]"));
+        assertThat(resp.get(0).get("id").asText(), is("2"));
+        assertThat(resp.get(0).get("result").asBoolean(), is(true));
+    }
+
+    @Test
+    public void batch() throws Exception {
+        RpcDispatcher unit = dispatcher(req -> {
+            if ((boolean) req.getParams()[0]) {
+                throw RpcException.internalError("boom");
+            }
+            return true;
+        });
+        JsonNode resp = om.readTree(unit.dispatch("["
+            + "{\"jsonrpc\": \"2.0\", \"method\": \"testMethod\", \"params\": [false], \"id\": \"1\"},"
+            + "{\"jsonrpc\": \"2.0\", \"method\": \"testMethod\", \"params\": [false]},"
+            + "{\"jsonrpc\": \"2.0\", \"method\": \"testMethod\", \"params\": [true], \"id\": \"3\"},"
+            + "{\"jsonrpc\": \"2.0\", \"method\": \"testMethod\", \"params\": [\"0x1\"], \"id\": \"4\"},"
+            + "1"
+            + "]"));
+
+        // the notification (no id) gets no response
+        assertThat(resp.size(), is(4));
+        assertThat(resp.get(0).get("id").asText(), is("1"));
+        assertThat(resp.get(0).get("result").asBoolean(), is(true));
+        assertThat(resp.get(1).get("id").asText(), is("3"));
+        assertThat(resp.get(1).get("error").get("code").asInt(),
+            is(RpcException.internalError("any").getCode()));
+        assertThat(resp.get(2).get("id").asText(), is("4"));
+        assertThat(resp.get(2).get("error").get("code").asInt(),
+            is(RpcException.invalidParams("any").getCode()));
+        assertThat(resp.get(3).get("error").get("code").asInt(),
+            is(RpcException.invalidRequest("any").getCode()));
+    }
+
+    @Test
+    public void batchIsExecutedConcurrently() throws Exception {
+        // each request waits until all of them have started, which can only
+        // happen if they're executed concurrently
+        CountDownLatch started = new CountDownLatch(4);
+        RpcDispatcher unit = dispatcher(req -> {
+            started.countDown();
+            try {
+                return started.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException ie) {
+                return false;
+            }
+        });
+
+        StringBuilder batch = new StringBuilder("[");
+        for (int ix = 0; ix < 4; ++ix) {
+            batch.append(ix == 0 ? "" : ",").append(
+                "{\"jsonrpc\": \"2.0\", \"method\": \"testMethod\", \"params\": [true], \"id\": \""
+                    + ix + "\"}");
+        }
+        JsonNode resp = om.readTree(unit.dispatch(batch.append("]").toString()));
+
+        assertThat(resp.size(), is(4));
+        for (int ix = 0; ix < 4; ++ix) {
+            assertThat(resp.get(ix).get("id").asText(), is(String.valueOf(ix)));
+            assertThat(resp.get(ix).get("result").asBoolean(), is(true));
+        }
+    }
+
+    @Test
+    public void asyncRequest() throws Exception {
+        List<CompletableFuture<Object>> calls = new ArrayList<>();
+        RpcDispatcher unit = dispatcher(asyncProcessor(calls));
+
+        CompletableFuture<String> response = unit.dispatchAsync(
+            "{\"jsonrpc\": \"2.0\", \"method\": \"testMethod\", \"params\": [true], \"id\": \"1\"}");
+        // the dispatcher doesn't wait for the call
+        assertThat(response.isDone(), is(false));
+
+        executor.execute(() -> calls.get(0).complete(false));
+        JsonNode resp = om.readTree(response.get(10, TimeUnit.SECONDS));
+        assertThat(resp.get("id").asText(), is("1"));
+        assertThat(resp.get("result").asBoolean(), is(false));
+    }
+
+    @Test
+    public void asyncBatch() throws Exception {
+        List<CompletableFuture<Object>> calls = new ArrayList<>();
+        RpcDispatcher unit = dispatcher(asyncProcessor(calls));
+
+        CompletableFuture<String> response = unit.dispatchAsync("["
+            + "{\"jsonrpc\": \"2.0\", \"method\": \"testMethod\", \"params\": [true], \"id\": \"1\"},"
+            + "{\"jsonrpc\": \"2.0\", \"method\": \"testMethod\", \"params\": [true]},"
+            + "{\"jsonrpc\": \"2.0\", \"method\": \"testMethod\", \"params\": [true], \"id\": \"3\"},"
+            + "{\"jsonrpc\": \"2.0\", \"method\": \"testMethod\", \"params\": [\"0x1\"], \"id\": \"4\"}"
+            + "]");
+        // every valid request has been started before any has completed
+        assertThat(calls.size(), is(3));
+        assertThat(response.isDone(), is(false));
+
+        calls.get(2).completeExceptionally(new CompletionException(new TeapotException()));
+        calls.get(1).complete(true);
+        calls.get(0).complete(true);
+        JsonNode resp = om.readTree(response.get(10, TimeUnit.SECONDS));
+
+        assertThat(resp.size(), is(3));
+        assertThat(resp.get(0).get("id").asText(), is("1"));
+        assertThat(resp.get(0).get("result").asBoolean(), is(true));
+        // the exception the call completed with keeps its code
+        assertThat(resp.get(1).get("id").asText(), is("3"));
+        assertThat(resp.get(1).get("error").get("code").asInt(), is(TeapotException.CODE));
+        assertThat(resp.get(2).get("id").asText(), is("4"));
+        assertThat(resp.get(2).get("error").get("code").asInt(),
+            is(RpcException.invalidParams("any").getCode()));
+    }
+
+    @Test
+    public void asyncProcessorDispatchedSynchronously() throws Exception {
+        RpcDispatcher unit = dispatcher((AsyncRequestProcessor) req ->
+            CompletableFuture.failedFuture(new TeapotException()));
+        JsonNode resp = om.readTree(unit.dispatch(
+            "{\"jsonrpc\": \"2.0\", \"method\": \"testMethod\", \"params\": [true], \"id\": \"1\"}"));
+        assertThat(resp.get("error").get("code").asInt(), is(TeapotException.CODE));
+    }
+
+    @Test
+    public void internalErrorHasNoDetails() throws Exception {
+        String request = "{\"jsonrpc\": \"2.0\", \"method\": \"testMethod\", \"params\": [true], \"id\": \"1\"}";
+        RpcDispatcher unit = dispatcher(req -> {
+            throw new IllegalStateException("secret");
+        });
+        JsonNode error = om.readTree(unit.dispatch(request)).get("error");
+        assertThat(error.get("code").asInt(), is(RpcException.internalError("any").getCode()));
+        assertThat(error.has("data"), is(false));
+
+        unit = dispatcher((AsyncRequestProcessor) req ->
+            AsyncRequestProcessor.completion(CompletableFuture.failedFuture(new IllegalStateException("secret"))));
+        error = om.readTree(unit.dispatchAsync(request).get(10, TimeUnit.SECONDS)).get("error");
+        assertThat(error.get("code").asInt(), is(RpcException.internalError("any").getCode()));
+        assertThat(error.has("data"), is(false));
+    }
+
+    @Test
+    public void closeLeavesGivenExecutor() {
+        new RpcDispatcher(req -> true, new TestDeserializer()).close();
+        dispatcher(req -> true).close();
+        assertThat(executor.isShutdown(), is(false));
+    }
+
+    @Test
+    public void batchOfNotifications() throws Exception {
+        RpcDispatcher unit = dispatcher(req -> true);
+        assertThat(unit.dispatch(
+            "[{\"jsonrpc\": \"2.0\", \"method\": \"testMethod\", \"params\": [true]}]"),
+            is(nullValue()));
+    }
+
+    @Test
+    public void emptyBatch() throws Exception {
+        RpcDispatcher unit = dispatcher(req -> true);
+        JsonNode resp = om.readTree(unit.dispatch("[ ]"));
+        assertThat(resp.get("error").get("code").asInt(),
+            is(RpcException.invalidRequest("any").getCode()));
+    }
+
+    @Test
+    public void malformedBatch() throws Exception {
+        RpcDispatcher unit = dispatcher(req -> true);
+        JsonNode resp = om.readTree(unit.dispatch("[{\"jsonrpc\": \"2.0\", "));
+        assertThat(resp.get("error").get("code").asInt(),
+            is(RpcException.parseError("any").getCode()));
+    }
+
+    /** @return processor whose calls complete when the test completes them; adds each call to the list */
+    private static AsyncRequestProcessor asyncProcessor(List<CompletableFuture<Object>> calls) {
+        return req -> {
+            CompletableFuture<Object> call = new CompletableFuture<>();
+            calls.add(call);
+            return AsyncRequestProcessor.completion(call);
+        };
+    }
+
+    /** Like the generated *RpcExceptions */
+    private static class TeapotException extends RpcException {
+        static final int CODE = -32418;
+
+        TeapotException() {
+            super(CODE, "I'm a teapot", null);
+        }
+    }
+
+    /** Like the generated FusedRpcProcessor2, for testMethod */
+    private static class NegatingBinder implements RequestProcessor, CallBinder {
+        @Override
+        public BoundCall bind(int methodId, ParamReader params) throws IOException {
+            boolean value = params.nextBoolean();
+            return () -> !value;
+        }
+
+        @Override
+        public Object execute(JsonRpcRequest req) throws RpcException {
+            return req.getCall().execute();
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package org.aion.api.dispatch;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import org.aion.api.schema.NamedRpcType;
+import org.aion.api.schema.SchemaValidationException;
+import org.aion.api.serialization.RpcTypeDeserializer;
+
+/**
+ * Deserializer for tests whose methods only take scalar params, so they don't
+ * need any of the generated object types.
+ */
+public class TestDeserializer extends RpcTypeDeserializer {
+    @Override
+    protected Object deserializeObject(JsonNode value,
+                                       NamedRpcType type) throws SchemaValidationException {
+        throw new UnsupportedOperationException("Unsupported type.");
+    }
+}
@@ -0,0 +1,126 @@
+package org.aion.api.dispatch;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assume.assumeFalse;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.spy;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.aion.api.serialization.RequestDeserializer;
+import org.aion.api.serialization.ResponseSerializer;
+import org.aion.api.serialization.RpcSchemaLoader;
+import org.junit.Before;
+import org.junit.Test;
+
+public class VirtualThreadRpcDispatcherTest {
+    private static final String REQUEST =
+        "{\"jsonrpc\": \"2.0\", \"method\": \"testMethod\", \"params\": [true], \"id\": \"1\"}";
+
+    private final ObjectMapper om = new ObjectMapper();
+    private final RpcSchemaLoader schemaLoader = spy(RpcSchemaLoader.class);
+
+    @Before
+    public void setup() throws Exception {
+        // make the schema loader act as if there is a method called 'testMethod'
+        // that takes a boolean and returns a boolean
+        doReturn(om.readTree("{\"type\": \"array\", \"items\": [{\"type\": \"boolean\"}]}"))
+            .when(schemaLoader).loadRequestSchema("testMethod");
+        doReturn(om.readTree("{\"type\": \"boolean\"}"))
+            .when(schemaLoader).loadResponseSchema("testMethod");
+        doReturn(List.of("testMethod")).when(schemaLoader).loadMethodList();
+    }
+
+    private VirtualThreadRpcDispatcher dispatcher(RequestProcessor processor, int maxConcurrency) {
+        return new VirtualThreadRpcDispatcher(
+            processor,
+            new RequestDeserializer(new TestDeserializer(), schemaLoader),
+            new ResponseSerializer(schemaLoader),
+            maxConcurrency);
+    }
+
+    @Test
+    public void singleRequest() throws Exception {
+        try (VirtualThreadRpcDispatcher unit = dispatcher(req -> !(boolean) req.getParams()[0], 1)) {
+            JsonNode resp = om.readTree(unit.dispatch(REQUEST).get(10, TimeUnit.SECONDS));
+            assertThat(resp.get("id").asText(), is("1"));
+            assertThat(resp.get("result").asBoolean(), is(false));
+        }
+    }
+
+    @Test
+    public void concurrencyIsLimited() throws Exception {
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+        RequestProcessor blocking = req -> {
+            maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+            try {
+                Thread.sleep(20);
+            } catch (InterruptedException ie) {
+                Thread.currentThread().interrupt();
+            }
+            running.decrementAndGet();
+            return true;
+        };
+
+        try (VirtualThreadRpcDispatcher unit = dispatcher(blocking, 2)) {
+            StringBuilder batch = new StringBuilder("[");
+            for (int ix = 0; ix < 6; ++ix) {
+                batch.append(ix == 0 ? "" : ",").append(REQUEST);
+            }
+            List<CompletableFuture<String>> responses = new ArrayList<>();
+            responses.add(unit.dispatch(batch.append("]").toString()));
+            for (int ix = 0; ix < 6; ++ix) {
+                responses.add(unit.dispatch(REQUEST));
+            }
+
+            assertThat(om.readTree(responses.get(0).get(10, TimeUnit.SECONDS)).size(), is(6));
+            for (CompletableFuture<String> response : responses.subList(1, responses.size())) {
+                assertThat(om.readTree(response.get(10, TimeUnit.SECONDS)).get("result").asBoolean(), is(true));
+            }
+        }
+        assertThat(maxRunning.get(), is(2));
+    }
+
+    @Test
+    public void platformThreadsAreLimited() throws Exception {
+        Set<Thread> threads = ConcurrentHashMap.newKeySet();
+        RequestProcessor blocking = req -> {
+            threads.add(Thread.currentThread());
+            try {
+                Thread.sleep(5);
+            } catch (InterruptedException ie) {
+                Thread.currentThread().interrupt();
+            }
+            return true;
+        };
+
+        try (VirtualThreadRpcDispatcher unit = dispatcher(blocking, 2)) {
+            assumeFalse(unit.isVirtual());
+            List<CompletableFuture<String>> responses = new ArrayList<>();
+            for (int ix = 0; ix < 20; ++ix) {
+                responses.add(unit.dispatch(REQUEST));
+            }
+            responses.add(unit.dispatch("[" + REQUEST + "," + REQUEST + "]"));
+            for (CompletableFuture<String> response : responses) {
+                response.get(10, TimeUnit.SECONDS);
+            }
+        }
+        // requests over the limit wait in a queue rather than on threads of their own
+        assertThat(threads.size(), is(2));
+    }
+
+    @Test
+    public void virtualThreadsWhenAvailable() {
+        boolean hasVirtualThreads = Runtime.version().feature() >= 21;
+        assertThat(VirtualThreadRpcDispatcher.newVirtualThreadExecutor() != null, is(hasVirtualThreads));
+    }
+}
@@ -0,0 +1,178 @@
+package org.aion.api.jfr;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.junit.Assert.assertThat;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.spy;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import jdk.jfr.EventType;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.aion.api.RpcException;
+import org.aion.api.dispatch.RequestProcessor;
+import org.aion.api.dispatch.RpcDispatcher;
+import org.aion.api.dispatch.TestDeserializer;
+import org.aion.api.serialization.RequestDeserializer;
+import org.aion.api.serialization.ResponseSerializer;
+import org.aion.api.serialization.RpcSchemaLoader;
+import org.junit.Before;
+import org.junit.Test;
+
+public class RpcEventsTest {
+    private static final String DESERIALIZATION = "org.aion.api.RpcDeserialization";
+    private static final String VALIDATION = "org.aion.api.RpcValidation";
+    private static final String EXECUTION = "org.aion.api.RpcExecution";
+    private static final String SERIALIZATION = "org.aion.api.RpcSerialization";
+
+    private final ObjectMapper om = new ObjectMapper();
+    private final RpcSchemaLoader schemaLoader = spy(RpcSchemaLoader.class);
+
+    @Before
+    public void setup() throws Exception {
+        // make the schema loader act as if there is a method called 'testMethod'
+        // that takes a boolean and returns a boolean
+        doReturn(om.readTree("{\"type\": \"array\", \"items\": [{\"type\": \"boolean\"}]}"))
+            .when(schemaLoader).loadRequestSchema("testMethod");
+        doReturn(om.readTree("{\"type\": \"boolean\"}"))
+            .when(schemaLoader).loadResponseSchema("testMethod");
+        doReturn(List.of("testMethod")).when(schemaLoader).loadMethodList();
+    }
+
+    private RpcDispatcher dispatcher(RequestProcessor processor) {
+        return new RpcDispatcher(
+            processor,
+            new RequestDeserializer(new TestDeserializer(), schemaLoader),
+            new ResponseSerializer(schemaLoader),
+            ForkJoinPool.commonPool());
+    }
+
+    /** @return the events of each phase recorded while dispatching the payload, by event name */
+    private Map<String, RecordedEvent> record(RpcDispatcher dispatcher, String payload)
+    throws Exception {
+        Path file = Files.createTempFile("rpc-events", ".jfr");
+        try (Recording recording = new Recording()) {
+            for (String name : List.of(DESERIALIZATION, VALIDATION, EXECUTION, SERIALIZATION)) {
+                recording.enable(name).withThreshold(Duration.ZERO);
+            }
+            recording.start();
+            dispatcher.dispatch(payload);
+            recording.stop();
+            recording.dump(file);
+            return RecordingFile.readAllEvents(file).stream()
+                .collect(Collectors.toMap(event -> event.getEventType().getName(), Function.identity()));
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    /** @return request with the params first, so they get deserialized from a tree, which validates them */
+    private static String request(String param) {
+        return "{\"params\": [" + param + "], \"jsonrpc\": \"2.0\", \"method\": \"testMethod\", \"id\": \"1\"}";
+    }
+
+    @Test
+    public void eventsOfEachPhase() throws Exception {
+        String payload = request("true");
+        Map<String, RecordedEvent> events = record(dispatcher(req -> false), payload);
+
+        RecordedEvent deserialization = events.get(DESERIALIZATION);
+        assertThat(deserialization.getString("method"), is("testMethod"));
+        assertThat(deserialization.getInt("paramCount"), is(1));
+        assertThat(deserialization.getLong("payloadSize"),
+            is((long) payload.getBytes(StandardCharsets.UTF_8).length));
+        assertThat(deserialization.getString("outcome"), is("ok"));
+
+        RecordedEvent validation = events.get(VALIDATION);
+        assertThat(validation.getString("method"), is("testMethod"));
+        assertThat(validation.getString("outcome"), is("ok"));
+
+        RecordedEvent execution = events.get(EXECUTION);
+        assertThat(execution.getString("method"), is("testMethod"));
+        assertThat(execution.getInt("paramCount"), is(1));
+        assertThat(execution.getString("outcome"), is("ok"));
+
+        RecordedEvent serialization = events.get(SERIALIZATION);
+        assertThat(serialization.getString("method"), is("testMethod"));
+        assertThat(serialization.getLong("resultSize"),
+            is((long) "{\"jsonrpc\":\"2.0\",\"result\":false,\"id\":\"1\"}".length()));
+        assertThat(serialization.getString("outcome"), is("ok"));
+    }
+
+    @Test
+    public void sizesAreInUtf8Bytes() throws Exception {
+        // an id with a 2-byte char and a surrogate pair, which the response echoes
+        String payload = "{\"jsonrpc\": \"2.0\", \"method\": \"testMethod\", \"params\": [true], "
+            + "\"id\": \"\u00e9\ud83d\ude00\"}";
+        RpcDispatcher dispatcher = dispatcher(req -> false);
+        String response = dispatcher.dispatch(payload);
+        Map<String, RecordedEvent> events = record(dispatcher, payload);
+
+        assertThat(events.get(DESERIALIZATION).getLong("payloadSize"),
+            is((long) payload.getBytes(StandardCharsets.UTF_8).length));
+        assertThat(events.get(SERIALIZATION).getLong("resultSize"),
+            is((long) response.getBytes(StandardCharsets.UTF_8).length));
+    }
+
+    @Test
+    public void utf8Length() {
+        for (String text : List.of("", "abc", "\u00e9t\u00e9", "\u20ac", "\ud83d\ude00",
+                "\ud83d", "x\ude00", "\ude00\ud83d")) {
+            assertThat(text, RpcEvents.utf8Length(text),
+                is((long) text.getBytes(StandardCharsets.UTF_8).length));
+        }
+    }
+
+    @Test
+    public void outcomeIsErrorCode() throws Exception {
+        RpcDispatcher dispatcher = dispatcher(req -> {
+            throw RpcException.methodNotFound("testMethod");
+        });
+
+        Map<String, RecordedEvent> events = record(dispatcher, request("\"x\""));
+        assertThat(events.get(VALIDATION).getString("outcome"), is("-32602"));
+        assertThat(events.get(DESERIALIZATION).getString("outcome"), is("-32602"));
+        assertThat(events.containsKey(EXECUTION), is(false));
+
+        events = record(dispatcher, request("true"));
+        assertThat(events.get(EXECUTION).getString("outcome"), is("-32601"));
+        assertThat(events.containsKey(SERIALIZATION), is(false));
+
+        events = record(dispatcher, "{\"jsonrpc\": \"2.0\", \"method\": ");
+        assertThat(events.get(DESERIALIZATION).getString("method"), is((String) null));
+        assertThat(events.get(DESERIALIZATION).getString("outcome"), is("-32700"));
+    }
+
+    @Test
+    public void noEventsWithoutRecording() {
+        assertThat(RpcEvents.isDeserializationEnabled(), is(false));
+        assertThat(RpcEvents.isValidationEnabled(), is(false));
+        assertThat(RpcEvents.beginDeserialization(), is(nullValue()));
+        assertThat(RpcEvents.beginValidation(), is(nullValue()));
+        assertThat(RpcEvents.beginExecution(), is(nullValue()));
+        assertThat(RpcEvents.beginSerialization(), is(nullValue()));
+    }
+
+    @Test
+    public void defaultSettings() {
+        EventType execution = EventType.getEventType(RpcExecutionEvent.class);
+        assertThat(execution.getName(), is(EXECUTION));
+        assertThat(execution.getCategoryNames(), is(List.of("AionRpc")));
+        Map<String, String> settings = execution.getSettingDescriptors().stream()
+            .collect(Collectors.toMap(setting -> setting.getName(), setting -> setting.getDefaultValue()));
+        assertThat(settings.get("enabled"), is("true"));
+        assertThat(settings.get("threshold"), is("1 ms"));
+        assertThat(settings.get("stackTrace"), is("false"));
+    }
+}
@@ -0,0 +1,103 @@
+package org.aion.api.metrics;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import org.junit.Test;
+
+public class LatencyHistogramTest {
+
+    @Test
+    public void bucketsAreWithinThreePercent() {
+        Random random = new Random(1);
+        for (int ix = 0; ix < 100_000; ++ix) {
+            long value = random.nextLong() >>> (22 + random.nextInt(42));
+            int bucket = LatencyHistogram.bucketOf(value);
+            long highest = LatencyHistogram.highestValueIn(bucket);
+            assertThat("value " + value, highest >= value, is(true));
+            assertThat("value " + value, highest - value <= value / LatencyHistogram.SUB_BUCKETS, is(true));
+            assertThat(bucket < LatencyHistogram.BUCKETS, is(true));
+        }
+        // buckets are consecutive
+        for (int bucket = 1; bucket < LatencyHistogram.BUCKETS; ++bucket) {
+            long lowest = LatencyHistogram.highestValueIn(bucket - 1) + 1;
+            assertThat(LatencyHistogram.bucketOf(lowest), is(bucket));
+        }
+    }
+
+    @Test
+    public void percentiles() {
+        LatencyHistogram unit = new LatencyHistogram(1);
+        for (long micros = 1; micros <= 1000; ++micros) {
+            unit.record(micros * 1000);
+        }
+        LatencySnapshot snapshot = unit.snapshot();
+
+        assertThat(snapshot.getCount(), is(1000L));
+        assertThat(snapshot.getMax(), is(1_000_000L));
+        assertThat(snapshot.getMean(), is(500_500_000.0 / 1000));
+        assertWithinThreePercent(snapshot.getP50(), 500_000);
+        assertWithinThreePercent(snapshot.getP99(), 990_000);
+        assertWithinThreePercent(snapshot.getP999(), 999_000);
+        assertThat(snapshot.getValueAtPercentile(100), is(1_000_000L));
+    }
+
+    @Test
+    public void valuesOutOfRange() {
+        LatencyHistogram unit = new LatencyHistogram(1);
+        unit.record(-5);
+        unit.record(Long.MAX_VALUE);
+        LatencySnapshot snapshot = unit.snapshot();
+        assertThat(snapshot.getCount(), is(2L));
+        assertThat(snapshot.getValueAtPercentile(50), is(0L));
+        assertThat(snapshot.getMax(), is(Long.MAX_VALUE));
+        assertThat(snapshot.getP99(), is(Long.MAX_VALUE));
+    }
+
+    @Test
+    public void reset() {
+        LatencyHistogram unit = new LatencyHistogram(1);
+        unit.record(1000);
+        assertThat(unit.snapshotAndReset().getCount(), is(1L));
+        assertThat(unit.snapshot().getCount(), is(0L));
+        assertThat(unit.snapshot().getP99(), is(0L));
+
+        unit.record(2000);
+        unit.reset();
+        assertThat(unit.snapshot().getMax(), is(0L));
+    }
+
+    @Test
+    public void concurrentRecording() throws Exception {
+        LatencyHistogram unit = new LatencyHistogram(4);
+        List<Thread> threads = new ArrayList<>();
+        for (int ix = 0; ix < 8; ++ix) {
+            long value = (ix + 1) * 1000;
+            threads.add(new Thread(() -> {
+                for (int count = 0; count < 10_000; ++count) {
+                    unit.record(value);
+                }
+            }));
+        }
+        for (Thread thread : threads) {
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        LatencySnapshot snapshot = unit.snapshot();
+        assertThat(snapshot.getCount(), is(80_000L));
+        assertThat(snapshot.getMax(), is(8000L));
+        assertThat(snapshot.getMean(), is(4500.0));
+    }
+
+    private static void assertWithinThreePercent(long actual, long expected) {
+        assertThat(actual + " vs " + expected,
+            actual >= expected && actual - expected <= expected / LatencyHistogram.SUB_BUCKETS,
+            is(true));
+    }
+}
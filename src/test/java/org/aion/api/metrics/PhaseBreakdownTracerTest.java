@@ -0,0 +1,51 @@
+package org.aion.api.metrics;
+
+import static org.hamcrest.CoreMatchers.containsString;
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+import org.junit.Test;
+
+public class PhaseBreakdownTracerTest {
+
+    @Test
+    public void nestedPhasesAreSubtracted() {
+        PhaseBreakdownTracer unit = new PhaseBreakdownTracer();
+        for (int call = 0; call < 2; ++call) {
+            unit.phaseEnded(RpcPhase.VALIDATE, "getseed", 30, 40);
+            unit.phaseEnded(RpcPhase.DESERIALIZE, "getseed", 20, 60);
+            unit.phaseEnded(RpcPhase.PARSE, "getseed", 0, 100);
+            unit.phaseEnded(RpcPhase.EXECUTE, "getseed", 100, 1100);
+            unit.phaseEnded(RpcPhase.SERIALIZE, "getseed", 1100, 1300);
+        }
+
+        assertThat(unit.getCalls("getseed"), is(2L));
+        assertThat(unit.getSelfNanos("getseed", RpcPhase.PARSE), is(120L));
+        assertThat(unit.getSelfNanos("getseed", RpcPhase.DESERIALIZE), is(60L));
+        assertThat(unit.getSelfNanos("getseed", RpcPhase.VALIDATE), is(20L));
+        assertThat(unit.getSelfNanos("getseed", RpcPhase.EXECUTE), is(2000L));
+        assertThat(unit.getSelfNanos("getseed", RpcPhase.SERIALIZE), is(400L));
+    }
+
+    @Test
+    public void breakdownTable() {
+        PhaseBreakdownTracer unit = new PhaseBreakdownTracer();
+        unit.phaseEnded(RpcPhase.PARSE, "getseed", 0, 1000);
+        unit.phaseEnded(RpcPhase.EXECUTE, "getseed", 1000, 4000);
+        unit.phaseEnded(RpcPhase.PARSE, null, 0, 500);
+
+        String[] lines = unit.toString().split(System.lineSeparator());
+        assertThat(lines.length, is(3));
+        assertThat(lines[0], containsString("deserialize"));
+        // sorted by name, so the unparseable requests come first
+        assertThat(lines[1], containsString(PhaseBreakdownTracer.UNKNOWN_METHOD));
+        assertThat(lines[2], containsString("getseed"));
+        assertThat(lines[2], containsString("1.0  25%"));
+        assertThat(lines[2], containsString("3.0  75%"));
+        assertThat(lines[2], containsString("4.0 100%"));
+
+        unit.reset();
+        assertThat(unit.getCalls("getseed"), is(0L));
+        assertThat(unit.toString().split(System.lineSeparator()).length, is(1));
+    }
+}
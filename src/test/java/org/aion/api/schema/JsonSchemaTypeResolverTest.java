@@ -79,6 +79,21 @@ public class JsonSchemaTypeResolverTest {
         assertThat(result.getContainedFields().isEmpty(), is(true));
     }
 
+    @Test
+    public void testBoundedQuantityIsLong() throws Exception {
+        JsonSchemaTypeResolver unit = new JsonSchemaTypeResolver();
+
+        NamedRpcType result = unit.resolveNamedSchema(
+            om.readTree("{\"$ref\":\"derived.json#/definitions/QUANTITY_LONG\"}"));
+        assertThat(result.getName(), is("QUANTITY_LONG"));
+        assertThat(result.getJavaTypeName(), is("long"));
+
+        // too long to always fit
+        RpcType wide = unit.resolveSchema(om.readTree("{\"allOf\": ["
+            + "{\"$ref\": \"root.json#/definitions/QUANTITY\"}, {\"maxLength\": 18}]}"));
+        assertThat(wide.getJavaTypeName(), is("java.math.BigInteger"));
+    }
+
     // -- Types rooted in OBJECT ------------------------------------------------------------------
     @Test
     public void resolveObjectThrowsIfNoNameGiven() throws Exception {
@@ -176,6 +191,35 @@ public class JsonSchemaTypeResolverTest {
         unit.resolveSchema(schema, "SomeObject");
     }
 
+    @Test
+    public void resolveObjectWithNullableProperty() throws Exception {
+        JsonNode schema = om.readTree("{" +
+            "\"type\":\"object\", " +
+            "\"properties\" : { " +
+            "\"nullableProp\" : {\"anyOf\": [{\"$ref\":\"root.json#/definitions/DATA\"}, {\"type\":\"null\"}]}, " +
+            "\"otherProp\" : {\"$ref\":\"root.json#/definitions/DATA\"} " +
+            "} " +
+            "}");
+        JsonSchemaTypeResolver unit = new JsonSchemaTypeResolver();
+        RpcType result = unit.resolveSchema(schema, "MyObject");
+
+        assertThat(result.getContainedFields().get(0).getType().getJavaTypeName(), is("byte[]"));
+        assertThat(result.getContainedFields().get(0).isNullable(), is(true));
+        assertThat(result.getContainedFields().get(1).isNullable(), is(false));
+    }
+
+    @Test(expected = SchemaRestrictionException.class)
+    public void resolveObjectWithNullablePrimitiveProperty() throws Exception {
+        JsonNode schema = om.readTree("{" +
+            "\"type\":\"object\", " +
+            "\"properties\" : { " +
+            "\"nullableProp\" : {\"anyOf\": [{\"type\":\"boolean\"}, {\"type\":\"null\"}]} " +
+            "} " +
+            "}");
+        JsonSchemaTypeResolver unit = new JsonSchemaTypeResolver();
+        unit.resolveSchema(schema, "SomeObject");
+    }
+
     // -- unsupported Javascript built-in scalars ---------------------------------------
 
     @Test(expected = SchemaRestrictionException.class)
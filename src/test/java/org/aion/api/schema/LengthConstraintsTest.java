@@ -0,0 +1,46 @@
+package org.aion.api.schema;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.junit.Assert.assertThat;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.Test;
+
+public class LengthConstraintsTest {
+    private final ObjectMapper om = new ObjectMapper();
+    private final JsonSchemaTypeResolver resolver = new JsonSchemaTypeResolver();
+
+    @Test
+    public void rootTypes() {
+        LengthConstraints data = LengthConstraints.of(RootTypes.DATA);
+        assertThat(data.getMinLength(), is(2));
+        assertThat(data.hasMaxLength(), is(false));
+
+        LengthConstraints quantity = LengthConstraints.of(RootTypes.QUANTITY);
+        assertThat(quantity.getMinLength(), is(3));
+        assertThat(quantity.hasMaxLength(), is(false));
+
+        assertThat(LengthConstraints.of(RootTypes.BOOLEAN), is(nullValue()));
+        assertThat(LengthConstraints.of(RootTypes.OBJECT), is(nullValue()));
+    }
+
+    @Test
+    public void derivedType() throws Exception {
+        JsonNode ref = om.readTree("{\"$ref\" : \"derived.json#/definitions/DATA32\"}");
+        LengthConstraints lc = LengthConstraints.of(resolver.resolveNamedSchema(ref));
+        assertThat(lc.getMinLength(), is(66));
+        assertThat(lc.getMaxLength(), is(66));
+        assertThat(lc.hasMaxLength(), is(true));
+    }
+
+    @Test
+    public void unsupportedConstraint() throws Exception {
+        JsonNode schema = om.readTree("{\"allOf\": ["
+            + "{\"$ref\" : \"root.json#/definitions/DATA\"},"
+            + "{\"maxLength\": 10, \"pattern\": \"^0x00\"}"
+            + "]}");
+        assertThat(LengthConstraints.of(resolver.resolveSchema(schema)), is(nullValue()));
+    }
+}
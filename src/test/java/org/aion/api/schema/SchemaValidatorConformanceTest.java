@@ -0,0 +1,125 @@
+package org.aion.api.schema;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import org.aion.api.schema.SchemaValidator.Engine;
+import org.aion.api.serialization.MethodDescriptor;
+import org.aion.api.serialization.RpcSchemaLoader;
+import org.junit.Test;
+
+/**
+ * Checks that the {@link Engine#JACKSON} engine agrees with the {@link Engine#EVERIT}
+ * engine for all the schemas bundled with AionRpc.
+ */
+public class SchemaValidatorConformanceTest {
+    private final ObjectMapper om = new ObjectMapper();
+    private final RpcSchemaLoader loader = new RpcSchemaLoader();
+
+    @Test
+    public void jacksonEngineAgreesWithEverit() throws Exception {
+        SchemaValidator everit = new SchemaValidator(Engine.EVERIT);
+        SchemaValidator jackson = new SchemaValidator(Engine.JACKSON);
+
+        Map<String, JsonNode> schemas = bundledSchemas();
+        List<JsonNode> inputs = inputs();
+
+        // make sure we're actually testing something
+        assertThat(schemas.size() > 10, is(true));
+
+        for (Map.Entry<String, JsonNode> schema : schemas.entrySet()) {
+            for (JsonNode input : inputs) {
+                assertThat(
+                    String.format("schema %s, input %s", schema.getKey(), input),
+                    jackson.validate(schema.getValue(), input),
+                    is(everit.validate(schema.getValue(), input)));
+            }
+        }
+    }
+
+    private Map<String, JsonNode> bundledSchemas() throws Exception {
+        Map<String, JsonNode> schemas = new LinkedHashMap<>();
+        for (String file : List.of("root.json", "derived.json")) {
+            JsonNode defs = loader.loadType(new JsonSchemaRef(file + "#/definitions"));
+            for (Iterator<String> it = defs.fieldNames(); it.hasNext(); ) {
+                String name = it.next();
+                schemas.put(file + "#" + name, defs.get(name));
+            }
+        }
+        for (String method : loader.loadMethodList()) {
+            MethodDescriptor md = loader.loadMethod(method);
+            JsonNode items = md.getRequest().get("items");
+            for (int ix = 0; ix < items.size(); ++ix) {
+                schemas.put(method + "#request" + ix, items.get(ix));
+            }
+            schemas.put(method + "#response", md.getResponse());
+        }
+        return schemas;
+    }
+
+    private List<JsonNode> inputs() throws Exception {
+        List<JsonNode> inputs = new LinkedList<>();
+        for (String json : List.of(
+            "true",
+            "false",
+            "\"\"",
+            "\"hello\"",
+            "\"0x\"",
+            "\"0x0\"",
+            "\"0x00\"",
+            "\"0X00\"",
+            "\"0xzz\"",
+            "\"0xAbCdEf\"",
+            "\"0x0123456789abcdef0123456789abcdef0123456789abcdef0123456789abcde\"",
+            "\"0x0123456789abcdef0123456789abcdef0123456789abcdef0123456789abcdef\"",
+            "\"0x0123456789abcdef0123456789abcdef0123456789abcdef0123456789abcdeg\"",
+            "\"0x0123456789abcdef0123456789abcdef0123456789abcdef0123456789abcdef"
+                + "0123456789abcdef0123456789abcdef0123456789abcdef0123456789abcdef\"",
+            "{}",
+            "{\"to\": \"0x12\"}",
+            "{\"to\": true, \"value\": \"0x1\"}",
+            "{\"nonce\": \"0x\", \"input\": \"0x\"}",
+            "{\"unrelated\": 1}"
+        )) {
+            inputs.add(om.readTree(json));
+        }
+
+        // everything in the examples of the method schemas
+        for (String method : loader.loadMethodList()) {
+            MethodDescriptor md = loader.loadMethod(method);
+            addExamples(md.getRequest(), "params", inputs);
+            addExamples(md.getResponse(), "result", inputs);
+        }
+        for (String method : List.of("eth_call2", "eth_getTransactionByHash2", "eth_sendTransaction2")) {
+            MethodDescriptor md = loader.loadMethod(method);
+            addExamples(md.getRequest(), "params", inputs);
+            addExamples(md.getResponse(), "result", inputs);
+        }
+        return inputs;
+    }
+
+    private static void addExamples(JsonNode schema, String field, List<JsonNode> inputs) {
+        JsonNode examples = schema.get("examples");
+        if (examples == null) {
+            return;
+        }
+        for (JsonNode example : examples) {
+            JsonNode value = example.get(field);
+            if (value == null) {
+                continue;
+            }
+            if (value.isArray()) {
+                value.elements().forEachRemaining(inputs::add);
+            } else {
+                inputs.add(value);
+            }
+        }
+    }
+}
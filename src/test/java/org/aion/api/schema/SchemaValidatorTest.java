@@ -5,6 +5,7 @@ import static org.junit.Assert.assertThat;
 
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import org.aion.api.serialization.RpcSchemaLoader;
 import org.json.JSONObject;
 import org.junit.Test;
 
@@ -83,4 +84,65 @@ public class SchemaValidatorTest {
         input = om.readTree("\"0xa06f54954371d8352ab18c2df7a711a64eb72d5e53717f281b45fd00fe4e5985\"");
         assertThat(unit.validate(schema, input), is(true));
     }
-}
\ No newline at end of file
+
+    @Test
+    public void compiledSchemasAreCached() throws Exception {
+        JsonNode schema = om.readTree("{\"$ref\": \"derived.json#/definitions/DATA32\"}");
+        SchemaValidator unit = new SchemaValidator();
+
+        assertThat(unit.validate(schema, om.readTree("\"0x121\"")), is(false));
+        assertThat(unit.cachedSchemaCount(), is(1L));
+
+        // an equal schema, even if it's a different instance, uses the same entry
+        JsonNode sameSchema = om.readTree("{\"$ref\": \"derived.json#/definitions/DATA32\"}");
+        assertThat(unit.validate(sameSchema, om.readTree(
+            "\"0xa06f54954371d8352ab18c2df7a711a64eb72d5e53717f281b45fd00fe4e5985\"")), is(true));
+        assertThat(unit.cachedSchemaCount(), is(1L));
+    }
+
+    @Test
+    public void cacheIsBounded() throws Exception {
+        SchemaValidator unit = new SchemaValidator(1);
+
+        unit.validate(om.readTree("{\"$ref\": \"root.json#/definitions/DATA\"}"), om.readTree("\"0x12\""));
+        unit.validate(om.readTree("{\"$ref\": \"root.json#/definitions/QUANTITY\"}"), om.readTree("\"0x12\""));
+        assertThat(unit.cachedSchemaCount(), is(1L));
+    }
+
+    @Test
+    public void warmUp() throws Exception {
+        SchemaValidator unit = new SchemaValidator();
+        unit.warmUp(new RpcSchemaLoader(), new JsonSchemaTypeResolver());
+        assertThat(unit.cachedSchemaCount() > 0, is(true));
+
+        // validate the way RpcTypeDeserializer does -- against the type definition
+        long warmedUp = unit.cachedSchemaCount();
+        NamedRpcType data32 = new JsonSchemaTypeResolver().resolveNamedSchema(
+            om.readTree("{\"$ref\": \"derived.json#/definitions/DATA32\"}"));
+        unit.validate(data32.getDefinition(), om.readTree("\"0x12\""));
+        assertThat(unit.cachedSchemaCount(), is(warmedUp));
+    }
+
+    @Test
+    public void jacksonEngineValidatesArrays() throws Exception {
+        JsonNode schema = new RpcSchemaLoader().loadRequestSchema("submitsignature");
+        SchemaValidator unit = new SchemaValidator(SchemaValidator.Engine.JACKSON);
+        String data32 = "\"0xa06f54954371d8352ab18c2df7a711a64eb72d5e53717f281b45fd00fe4e5985\"";
+        String data64 = "\"0xa06f54954371d8352ab18c2df7a711a64eb72d5e53717f281b45fd00fe4e5985"
+            + "a06f54954371d8352ab18c2df7a711a64eb72d5e53717f281b45fd00fe4e5985\"";
+
+        assertThat(unit.validate(schema, om.readTree("[" + data64 + "," + data32 + "]")), is(true));
+        // wrong order
+        assertThat(unit.validate(schema, om.readTree("[" + data32 + "," + data64 + "]")), is(false));
+        // additionalItems is false
+        assertThat(unit.validate(schema, om.readTree("[" + data64 + "," + data32 + "," + data32 + "]")), is(false));
+        // not an array at all
+        assertThat(unit.validate(schema, om.readTree(data32)), is(false));
+    }
+
+    @Test(expected = SchemaRestrictionException.class)
+    public void jacksonEngineRejectsUnsupportedKeywords() throws Exception {
+        SchemaValidator unit = new SchemaValidator(SchemaValidator.Engine.JACKSON);
+        unit.validate(om.readTree("{\"type\": \"string\", \"format\": \"email\"}"), om.readTree("\"x\""));
+    }
+}
@@ -0,0 +1,61 @@
+package org.aion.api.serialization;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.junit.Assert.assertThat;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import org.aion.api.schema.JsonSchemaRef;
+import org.aion.api.schema.SchemaException;
+import org.junit.Test;
+
+public class CachingRpcSchemaLoaderTest {
+    @Test
+    public void testMethodsArePreloaded() throws Exception {
+        CachingRpcSchemaLoader unit = new CachingRpcSchemaLoader();
+        RpcSchemaLoader uncached = new RpcSchemaLoader();
+
+        for (String method : uncached.loadMethodList()) {
+            MethodDescriptor md = unit.loadMethod(method);
+            assertThat(md.getName(), is(method));
+            assertThat(md.getRequest(), is(uncached.loadRequestSchema(method)));
+            assertThat(md.getResponse(), is(uncached.loadResponseSchema(method)));
+            assertThat(unit.loadMethod(method), is(sameInstance(md)));
+        }
+
+        assertThat(unit.getMissCount(), is(0L));
+        assertThat(unit.getHitCount(), is(2L * uncached.loadMethodList().size()));
+    }
+
+    @Test
+    public void testTypesArePreloaded() throws Exception {
+        CachingRpcSchemaLoader unit = new CachingRpcSchemaLoader();
+        JsonSchemaRef ref = new JsonSchemaRef("derived.json#/definitions/DATA32");
+
+        JsonNode result = unit.loadType(ref);
+        assertThat(result, is(new RpcSchemaLoader().loadType(ref)));
+        assertThat(unit.loadType(ref), is(sameInstance(result)));
+        assertThat(unit.getHitCount(), is(2L));
+        assertThat(unit.getMissCount(), is(0L));
+    }
+
+    @Test
+    public void testNonPreloadedPointerIsCachedAfterMiss() throws Exception {
+        CachingRpcSchemaLoader unit = new CachingRpcSchemaLoader();
+        JsonSchemaRef ref = new JsonSchemaRef("root.json#/definitions/DATA/pattern");
+
+        JsonNode result = unit.loadType(ref);
+        assertThat(result.asText(), is("^0x([0-9a-fA-F][0-9a-fA-F])*$"));
+        assertThat(unit.getMissCount(), is(1L));
+
+        assertThat(unit.loadType(ref), is(sameInstance(result)));
+        assertThat(unit.getMissCount(), is(1L));
+        assertThat(unit.getHitCount(), is(1L));
+    }
+
+    @Test(expected = SchemaException.class)
+    public void testBrokenPointer() throws Exception {
+        new CachingRpcSchemaLoader().loadType(
+            new JsonSchemaRef("derived.json#/definitions/NoSuchType"));
+    }
+}
@@ -0,0 +1,153 @@
+package org.aion.api.serialization;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.junit.Assert.assertThat;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.StringWriter;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import org.junit.Test;
+
+public class HexCodecTest {
+
+    @Test
+    public void decodeValid() {
+        assertThat(HexCodec.decodeData("0x"), is(new byte[0]));
+        assertThat(HexCodec.decodeData("0x00ff7F"), is(new byte[] {0, (byte) 0xff, 0x7f}));
+        assertThat(HexCodec.decodeData("0xDeadBeef"),
+            is(new byte[] {(byte) 0xde, (byte) 0xad, (byte) 0xbe, (byte) 0xef}));
+    }
+
+    @Test
+    public void decodeInvalid() {
+        assertThat(HexCodec.decodeData(""), is(nullValue()));
+        assertThat(HexCodec.decodeData("0"), is(nullValue()));
+        assertThat(HexCodec.decodeData("00ff"), is(nullValue()));
+        assertThat(HexCodec.decodeData("0X00"), is(nullValue()));
+        assertThat(HexCodec.decodeData("0x0"), is(nullValue()));
+        assertThat(HexCodec.decodeData("0x0g"), is(nullValue()));
+        assertThat(HexCodec.decodeData("0xg0"), is(nullValue()));
+        assertThat(HexCodec.decodeData("0x 0"), is(nullValue()));
+        // chars whose low byte is a hex digit
+        assertThat(HexCodec.decodeData("0x\u0130\u0141"), is(nullValue()));
+    }
+
+    @Test
+    public void decodeCharRegion() {
+        char[] buf = "[\"0x01ab\"]".toCharArray();
+        assertThat(HexCodec.decodeData(buf, 2, 6), is(new byte[] {0x01, (byte) 0xab}));
+        assertThat(HexCodec.decodeData(buf, 2, 5), is(nullValue()));
+        assertThat(HexCodec.decodeData(buf, 1, 6), is(nullValue()));
+    }
+
+    @Test
+    public void decodeUtf8Region() {
+        byte[] buf = "[\"0x01ab\"]".getBytes(StandardCharsets.UTF_8);
+        assertThat(HexCodec.decodeData(buf, 2, 6), is(new byte[] {0x01, (byte) 0xab}));
+        assertThat(HexCodec.decodeData(buf, 2, 2), is(new byte[0]));
+        assertThat(HexCodec.decodeData(buf, 2, 5), is(nullValue()));
+
+        byte[] nonAscii = "0x0\u00e9".getBytes(StandardCharsets.UTF_8);
+        assertThat(HexCodec.decodeData(nonAscii, 0, 4), is(nullValue()));
+    }
+
+    @Test
+    public void decodeQuantity() {
+        assertThat(HexCodec.decodeQuantity("0x0"), is(BigInteger.ZERO));
+        assertThat(HexCodec.decodeQuantity("0x539"), is(BigInteger.valueOf(1337)));
+        assertThat(HexCodec.decodeQuantity("0x00Ff"), is(BigInteger.valueOf(255)));
+        // longest that's decoded as a long, and shortest that isn't
+        assertThat(HexCodec.decodeQuantity("0xfffffffffffffff"),
+            is(BigInteger.valueOf(0xfffffffffffffffL)));
+        assertThat(HexCodec.decodeQuantity("0xffffffffffffffff"),
+            is(new BigInteger("ffffffffffffffff", 16)));
+        assertThat(HexCodec.decodeQuantity("0x56bc75e2d63100000"),
+            is(new BigInteger("56bc75e2d63100000", 16)));
+    }
+
+    @Test
+    public void decodeQuantityRegions() {
+        String big = "0x56bc75e2d63100000";
+        char[] chars = ("[\"" + big + "\"]").toCharArray();
+        byte[] utf8 = ("[\"" + big + "\"]").getBytes(StandardCharsets.UTF_8);
+        assertThat(HexCodec.decodeQuantity(chars, 2, big.length()), is(HexCodec.decodeQuantity(big)));
+        assertThat(HexCodec.decodeQuantity(utf8, 2, big.length()), is(HexCodec.decodeQuantity(big)));
+        assertThat(HexCodec.decodeQuantity(chars, 2, 5), is(BigInteger.valueOf(0x56b)));
+        assertThat(HexCodec.decodeQuantity(utf8, 2, 5), is(BigInteger.valueOf(0x56b)));
+        assertThat(HexCodec.decodeQuantity(chars, 1, 5), is(nullValue()));
+        assertThat(HexCodec.decodeQuantity(utf8, 2, 2), is(nullValue()));
+    }
+
+    @Test
+    public void decodeInvalidQuantity() {
+        assertThat(HexCodec.decodeQuantity("0x"), is(nullValue()));
+        assertThat(HexCodec.decodeQuantity("539"), is(nullValue()));
+        assertThat(HexCodec.decodeQuantity("0x53g"), is(nullValue()));
+        assertThat(HexCodec.decodeQuantity("0x56bc75e2d6310000g"), is(nullValue()));
+        assertThat(HexCodec.decodeQuantity("0x-1"), is(nullValue()));
+    }
+
+    @Test
+    public void smallQuantitiesAreShared() {
+        assertThat(HexCodec.decodeQuantity("0x400") == HexCodec.decodeQuantity("0x400"), is(true));
+        assertThat(HexCodec.decodeQuantity("0x401") == HexCodec.decodeQuantity("0x401"), is(false));
+    }
+
+    @Test
+    public void encodeData() {
+        assertThat(HexCodec.toData(new byte[0]), is("0x"));
+        assertThat(HexCodec.toData(new byte[] {0, (byte) 0xff, 0x7f}), is("0x00ff7f"));
+
+        byte[] utf8 = new byte[8];
+        int len = HexCodec.encodeData(new byte[] {0x01, (byte) 0xab}, utf8, 1);
+        assertThat(len, is(6));
+        assertThat(new String(utf8, 1, len, StandardCharsets.UTF_8), is("0x01ab"));
+    }
+
+    @Test
+    public void encodeQuantity() {
+        assertThat(HexCodec.toQuantity(0), is("0x0"));
+        assertThat(HexCodec.toQuantity(0x539), is("0x539"));
+        assertThat(HexCodec.toQuantity(Long.MAX_VALUE), is("0x7fffffffffffffff"));
+        assertThat(HexCodec.toQuantity(BigInteger.ZERO), is("0x0"));
+        assertThat(HexCodec.toQuantity(BigInteger.ONE.shiftLeft(63)), is("0x8000000000000000"));
+
+        BigInteger big = new BigInteger("fedcba9876543210fedcba9876543210f", 16);
+        assertThat(HexCodec.quantityLength(big), is(2 + 33));
+        assertThat(HexCodec.toQuantity(big), is("0x" + big.toString(16)));
+
+        byte[] utf8 = new byte[40];
+        int len = HexCodec.encodeQuantity(big, utf8, 0);
+        assertThat(new String(utf8, 0, len, StandardCharsets.UTF_8), is("0x" + big.toString(16)));
+        len = HexCodec.encodeQuantity(255L, utf8, 3);
+        assertThat(new String(utf8, 3, len, StandardCharsets.UTF_8), is("0xff"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void encodeNegativeQuantity() {
+        HexCodec.toQuantity(BigInteger.valueOf(-1));
+    }
+
+    @Test
+    public void writeToGenerator() throws Exception {
+        StringWriter out = new StringWriter();
+        try (JsonGenerator gen = new JsonFactory().createGenerator(out)) {
+            gen.writeStartArray();
+            HexCodec.writeData(gen, new byte[] {0x01, (byte) 0xab});
+            HexCodec.writeData(gen, new byte[10_000]);
+            HexCodec.writeQuantity(gen, 0L);
+            HexCodec.writeQuantity(gen, BigInteger.ONE.shiftLeft(100));
+            gen.writeEndArray();
+        }
+        JsonNode written = new ObjectMapper().readTree(out.toString());
+        assertThat(written.get(0).asText(), is("0x01ab"));
+        assertThat(written.get(1).asText().length(), is(20_002));
+        assertThat(written.get(2).asText(), is("0x0"));
+        assertThat(written.get(3).asText(), is("0x1" + "0000000000000000000000000"));
+    }
+}
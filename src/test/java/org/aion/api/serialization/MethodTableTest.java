@@ -0,0 +1,79 @@
+package org.aion.api.serialization;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.junit.Assert.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.Test;
+
+public class MethodTableTest {
+
+    @Test
+    public void lookupReturnsSharedInstance() {
+        MethodTable unit = new MethodTable(List.of("getseed", "submitseed", " ", "getseed\r"));
+        assertThat(unit.getMethods(), is(List.of("getseed", "submitseed")));
+
+        String name = unit.getMethods().get(1);
+        char[] buf = "{\"method\": \"submitseed\"}".toCharArray();
+        assertThat(unit.lookup(buf, 12, 10) == name, is(true));
+        assertThat(unit.lookup(new String("submitseed")) == name, is(true));
+
+        assertThat(unit.lookup(buf, 12, 9), is(nullValue()));
+        assertThat(unit.lookup(buf, 1, 6), is(nullValue()));
+        assertThat(unit.lookup("eth_call"), is(nullValue()));
+    }
+
+    @Test
+    public void lookupWithCollisions() {
+        // "Aa" and "BB" have the same hash code
+        List<String> names = new ArrayList<>(List.of("Aa", "BB", "AaAa", "BBBB", "AaBB"));
+        for (int ix = 0; ix < 100; ++ix) {
+            names.add("method" + ix);
+        }
+        MethodTable unit = new MethodTable(names);
+        for (String name : names) {
+            char[] chars = ("x" + name).toCharArray();
+            assertThat(unit.lookup(chars, 1, name.length()), is(name));
+        }
+        assertThat(unit.lookup("BBAa"), is(nullValue()));
+    }
+
+    @Test
+    public void idsArePositionsInList() {
+        List<String> names = List.of("getseed", "submitseed", "submitsignature", "eth_call");
+        MethodTable unit = new MethodTable(names);
+        assertThat(unit.size(), is(4));
+        for (int id = 0; id < names.size(); ++id) {
+            String name = names.get(id);
+            assertThat(unit.idOf(name), is(id));
+            assertThat(unit.idOf(name.toCharArray(), 0, name.length()), is(id));
+            assertThat(unit.getMethod(id), is(name));
+        }
+        assertThat(unit.idOf("getseeds"), is(MethodTable.UNKNOWN));
+        assertThat(unit.idOf("getsee".toCharArray(), 0, 6), is(MethodTable.UNKNOWN));
+    }
+
+    @Test
+    public void idOfRequest() throws Exception {
+        MethodTable unit = new MethodTable(List.of("getseed", "submitseed"));
+
+        // built by hand, so without an id; looked up by name
+        JsonRpcRequest req = new JsonRpcRequest("submitseed", "1", "2.0");
+        assertThat(req.getMethodId(), is(MethodTable.UNKNOWN));
+        assertThat(unit.idOf(req), is(1));
+        assertThat(unit.idOf(new JsonRpcRequest("eth_call", "1", "2.0")), is(MethodTable.UNKNOWN));
+
+        // the id that the deserializer gave it is used as is
+        req.setMethodId(0);
+        assertThat(unit.idOf(req), is(0));
+    }
+
+    @Test
+    public void emptyTable() {
+        MethodTable unit = new MethodTable(List.of());
+        assertThat(unit.lookup("getseed"), is(nullValue()));
+        assertThat(unit.lookup(new char[0], 0, 0), is(nullValue()));
+    }
+}
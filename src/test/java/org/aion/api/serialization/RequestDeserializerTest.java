@@ -1,16 +1,26 @@
 package org.aion.api.serialization;
 
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.base.Strings;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
 
 import org.aion.api.RpcException;
 import org.aion.api.codegen.GenerateDeserializer;
+import org.aion.api.metrics.RpcPhase;
 import org.aion.api.schema.*;
 import org.junit.Test;
 
+import static org.hamcrest.CoreMatchers.nullValue;
 import static org.hamcrest.core.Is.is;
 import static org.junit.Assert.*;
 import static org.mockito.Mockito.*;
@@ -20,6 +30,8 @@ public class RequestDeserializerTest {
     private RpcSchemaLoader schemaLoader = spy(RpcSchemaLoader.class);
 
     public RequestDeserializerTest() throws IOException {
+        // the only method in the method table; any other is unknown
+        doReturn(List.of("testMethod")).when(schemaLoader).loadMethodList();
     }
 
     @Test
@@ -94,6 +106,37 @@ public class RequestDeserializerTest {
                         "0x123456789a123456789a123456789a123456789a123456789a123456789a1234")));
     }
 
+    @Test
+    public void testLongQuantity() throws Exception {
+        JsonNode requestSchema = om.readTree(
+            "{"
+                + "\"type\": \"array\","
+                + "\"items\" : "
+                + "[ "
+                + "{ \"$ref\" : \"derived.json#/definitions/QUANTITY_LONG\" } "
+                + "]}");
+        doReturn(requestSchema).when(
+                schemaLoader).loadRequestSchema("testMethod");
+        RequestDeserializer unit = new RequestDeserializer(
+                om,
+                schemaLoader,
+                new TestDeserializer(),
+                new JsonSchemaTypeResolver()
+        );
+
+        JsonRpcRequest result = unit.deserialize(
+            "{\"method\": \"testMethod\", \"params\": [\"0xfffffffffffffff\"], \"id\": \"1\", \"jsonrpc\": \"2.0\"}");
+        assertThat(result.getParams()[0], is(0xfffffffffffffffL));
+
+        try {
+            unit.deserialize(
+                "{\"method\": \"testMethod\", \"params\": [\"0x1000000000000000\"], \"id\": \"1\", \"jsonrpc\": \"2.0\"}");
+            fail("Expected too-long QUANTITY_LONG to be rejected");
+        } catch (RpcException rx) {
+            assertThat(rx.getCode(), is(RpcException.invalidParams("any").getCode()));
+        }
+    }
+
     @Test
     public void testFailedLengthConstraint() throws Exception {
         JsonNode requestSchema = om.readTree(
@@ -230,6 +273,157 @@ public class RequestDeserializerTest {
 
     }
 
+    @Test
+    public void testTracer() throws Exception {
+        JsonNode requestSchema = om.readTree(
+                "{"
+                        + "\"type\": \"array\","
+                        + "\"items\" : "
+                        + "[ "
+                        + "{ \"$ref\" : \"derived.json#/definitions/SomeStruct\" } "
+                        + "]}");
+        doReturn(requestSchema).when(
+                schemaLoader).loadRequestSchema("testMethod");
+        doReturn(someStructJsonSchema).when(
+                schemaLoader).loadType(new JsonSchemaRef("derived.json#/definitions/SomeStruct"));
+
+        // params first, so they get deserialized from a tree, which validates the object
+        String payload = "{\"params\": [{"
+                + "\"MyData\":\"0x80f8085aed722d176fb5cf83e94ef57261e764e335488dd2f9413b3f64d1caa7\", "
+                + "\"MyQuantity\":\"0x99\"}], "
+                + "\"method\": \"testMethod\", \"id\": \"1\", \"jsonrpc\": \"2.0\"}";
+        RequestDeserializer unit = new RequestDeserializer(
+                om,
+                schemaLoader,
+                new TestDeserializer(),
+                new JsonSchemaTypeResolver(schemaLoader)
+        );
+        List<Object[]> phases = new java.util.ArrayList<>();
+        unit.setTracer((phase, method, start, end) -> phases.add(new Object[] {phase, method, start, end}));
+
+        unit.deserialize(payload);
+        assertThat(phases.size(), is(3));
+        Object[] validate = phases.get(0);
+        Object[] deserialize = phases.get(1);
+        Object[] parse = phases.get(2);
+        assertThat(validate[0], is(RpcPhase.VALIDATE));
+        assertThat(deserialize[0], is(RpcPhase.DESERIALIZE));
+        assertThat(parse[0], is(RpcPhase.PARSE));
+        for (Object[] phase : phases) {
+            assertThat(phase[1], is("testMethod"));
+        }
+        // each is nested in the next
+        assertThat((long) parse[2] <= (long) deserialize[2], is(true));
+        assertThat((long) deserialize[2] <= (long) validate[2], is(true));
+        assertThat((long) validate[3] <= (long) deserialize[3], is(true));
+        assertThat((long) deserialize[3] <= (long) parse[3], is(true));
+
+        phases.clear();
+        try {
+            unit.deserialize("{\"method\": \"testMethod\", \"params\": [");
+            fail("Expected RpcException");
+        } catch (RpcException e) {
+            // the params were started on before the payload ran out
+            Object[] last = phases.get(phases.size() - 1);
+            assertThat(last[0], is(RpcPhase.PARSE));
+            assertThat(last[1], is(nullValue()));
+        }
+    }
+
+    @Test
+    public void testPooling() throws Exception {
+        doReturn(om.readTree("{\"type\": \"array\", \"items\": [{\"type\": \"boolean\"}]}"))
+                .when(schemaLoader).loadRequestSchema("testMethod");
+        RequestDeserializer unit = new RequestDeserializer(
+                om,
+                schemaLoader,
+                new TestDeserializer(),
+                new JsonSchemaTypeResolver(),
+                true
+        );
+
+        JsonRpcRequest first = unit.deserialize(
+                "{\"method\": \"testMethod\", \"params\": [true], \"id\": \"1\", \"jsonrpc\": \"2.0\"}");
+        Object[] params = first.getParams();
+        assertThat(params[0], is(true));
+        // known method names come from the method table rather than the payload
+        JsonRpcRequest other = unit.deserialize(
+                "{\"method\": \"testMethod\", \"params\": [true], \"id\": \"9\", \"jsonrpc\": \"2.0\"}");
+        assertThat(other == first, is(false));
+        assertThat(other.getMethod() == first.getMethod(), is(true));
+        assertThat(other.getJsonrpc() == first.getJsonrpc(), is(true));
+
+        // once released, the same instances are handed out again, and
+        // they don't keep hold of anything from before
+        unit.release(first);
+        assertThat(first.getId(), is((String) null));
+        assertThat(params[0], is((Object) null));
+        JsonRpcRequest second = unit.deserialize(
+                "{\"method\": \"testMethod\", \"params\": [false], \"id\": \"2\", \"jsonrpc\": \"2.0\"}");
+        assertThat(second == first, is(true));
+        assertThat(second.getParams() == params, is(true));
+        assertThat(second.getId(), is("2"));
+        assertThat(second.getParams()[0], is(false));
+
+        // releasing twice doesn't put the request in the pool twice
+        unit.release(second);
+        unit.release(second);
+        JsonRpcRequest third = unit.deserialize(
+                "{\"method\": \"testMethod\", \"params\": [true], \"id\": \"3\", \"jsonrpc\": \"2.0\"}");
+        JsonRpcRequest fourth = unit.deserialize(
+                "{\"method\": \"testMethod\", \"params\": [true], \"id\": \"4\", \"jsonrpc\": \"2.0\"}");
+        assertThat(third == fourth, is(false));
+    }
+
+    @Test
+    public void testObjectParamIsStreamed() throws Exception {
+        doReturn(om.readTree("{\"type\": \"array\", \"items\": ["
+                + "{\"$ref\": \"derived.json#/definitions/SomeStruct\"}, "
+                + "{\"$ref\": \"derived.json#/definitions/SomeStruct\"}]}"))
+            .when(schemaLoader).loadRequestSchema("testMethod");
+        doReturn(someStructJsonSchema).when(schemaLoader).loadType(
+                new JsonSchemaRef("derived.json#/definitions/SomeStruct"));
+        RequestDeserializer unit = new RequestDeserializer(
+                om,
+                schemaLoader,
+                new TestDeserializer(),
+                new JsonSchemaTypeResolver(schemaLoader)
+        );
+
+        // properties not in the schema are skipped over
+        String data = "\"0x80f8085aed722d176fb5cf83e94ef57261e764e335488dd2f9413b3f64d1caa7\"";
+        JsonRpcRequest result = unit.deserialize("{\"method\": \"testMethod\", \"params\": ["
+                + "{\"MyQuantity\": \"0x99\", \"other\": {\"a\": [1, {}]}, \"MyData\": " + data + "}, "
+                + "{\"MyData\": " + data + ", \"MyQuantity\": \"0x1\"}"
+                + "], \"id\": \"1\", \"jsonrpc\": \"2.0\"}");
+        assertThat(((SomeStruct) result.getParams()[0]).getMyQuantity(), is(BigInteger.valueOf(0x99)));
+        assertThat(((SomeStruct) result.getParams()[1]).getMyQuantity(), is(BigInteger.ONE));
+
+        // failing part-way through the first object doesn't throw off the
+        // rest of the payload: the id is still read and the error is about params
+        for (String first : List.of(
+                "{\"MyQuantity\": \"0xzz\", \"other\": [[]], \"MyData\": " + data + "}",
+                "{\"MyQuantity\": \"0x1\"}",
+                "[{\"MyQuantity\": \"0x1\"}]")) {
+            String payload = "{\"method\": \"testMethod\", \"params\": [" + first + ", "
+                    + "{\"MyData\": " + data + ", \"MyQuantity\": \"0x1\"}"
+                    + "], \"id\": \"1\", \"jsonrpc\": \"2.0\"}";
+            // both from text and from an already-parsed tree (i.e. batches)
+            for (int ix = 0; ix < 2; ++ix) {
+                try {
+                    if (ix == 0) {
+                        unit.deserialize(payload);
+                    } else {
+                        unit.deserialize(om.readTree(payload));
+                    }
+                    fail("Expected RpcException for " + first);
+                } catch (RpcException rx) {
+                    assertThat(rx.getCode(), is(RpcException.invalidParams("any").getCode()));
+                }
+            }
+        }
+    }
+
     @Test
     public void testParseError() throws Exception {
         RequestDeserializer unit = new RequestDeserializer(
@@ -313,6 +507,292 @@ public class RequestDeserializerTest {
         fail("exception wasn't thrown");
     }
 
+    @Test
+    public void testParamsBeforeMethod() throws Exception {
+        JsonNode requestSchema = om.readTree(
+            "{"
+                + "\"type\": \"array\","
+                + "\"items\" : "
+                + "[ "
+                + "{ \"$ref\" : \"root.json#/definitions/QUANTITY\" }, "
+                + "{ \"type\" : \"boolean\" } "
+                + "]}");
+        doReturn(requestSchema).when(
+                schemaLoader).loadRequestSchema("testMethod");
+
+        String payload = "{\"params\": [\"0xe\", false], \"id\": 7, "
+            + "\"jsonrpc\": \"2.0\", \"method\": \"testMethod\"}";
+        RequestDeserializer unit = new RequestDeserializer(
+                om,
+                schemaLoader,
+                new TestDeserializer(),
+                new JsonSchemaTypeResolver()
+        );
+        JsonRpcRequest result = unit.deserialize(payload);
+
+        assertThat(result.getMethod(), is("testMethod"));
+        assertThat(result.getId(), is("7"));
+        assertThat(result.getParams()[0], is(new BigInteger("e", 16)));
+        assertThat(result.getParams()[1], is(false));
+    }
+
+    @Test
+    public void testWrongNumberOfParams() throws Exception {
+        JsonNode requestSchema = om.readTree(
+            "{"
+                + "\"type\": \"array\","
+                + "\"items\" : "
+                + "[ "
+                + "{ \"type\" : \"boolean\" } "
+                + "]}");
+        doReturn(requestSchema).when(
+                schemaLoader).loadRequestSchema("testMethod");
+
+        String payload = "{\"method\": \"testMethod\", \"params\": [true, true], "
+            + "\"id\": \"1\", \"jsonrpc\": \"2.0\"}";
+        RequestDeserializer unit = new RequestDeserializer(
+                om,
+                schemaLoader,
+                new TestDeserializer(),
+                new JsonSchemaTypeResolver()
+        );
+        try {
+            unit.deserialize(payload);
+        } catch (RpcException e) {
+            assertThat(e.getCode(), is(RpcException.invalidParams("any").getCode()));
+            return;
+        }
+        fail("exception wasn't thrown");
+    }
+
+    @Test
+    public void testParseErrorTakesPrecedence() throws Exception {
+        JsonNode requestSchema = om.readTree(
+            "{"
+                + "\"type\": \"array\","
+                + "\"items\" : "
+                + "[ "
+                + "{ \"$ref\" : \"derived.json#/definitions/DATA32\" } "
+                + "]}");
+        doReturn(requestSchema).when(
+                schemaLoader).loadRequestSchema("testMethod");
+
+        // first param is invalid, but the payload is also malformed further along
+        String payload = "{\"method\": \"testMethod\", \"params\": [\"0x10\"], "
+            + "\"bogus\": 1, \"id\": \"1\", \"jsonrpc\": ";
+        RequestDeserializer unit = new RequestDeserializer(
+                om,
+                schemaLoader,
+                new TestDeserializer(),
+                new JsonSchemaTypeResolver()
+        );
+        try {
+            unit.deserialize(payload);
+        } catch (RpcException e) {
+            assertThat(e.getCode(), is(RpcException.parseError("any").getCode()));
+            return;
+        }
+        fail("exception wasn't thrown");
+    }
+
+    @Test
+    public void testMethodNotFound() throws Exception {
+        String payload = "{\"method\": \"noSuchMethod\", \"params\": [], "
+            + "\"id\": \"1\", \"jsonrpc\": \"2.0\"}";
+        RequestDeserializer unit = new RequestDeserializer(
+                om,
+                schemaLoader,
+                new TestDeserializer(),
+                new JsonSchemaTypeResolver()
+        );
+        try {
+            unit.deserialize(payload);
+        } catch (RpcException e) {
+            assertThat(e.getCode(), is(RpcException.methodNotFound("any").getCode()));
+            // unknown methods are rejected without looking for a schema
+            verify(schemaLoader, never()).loadRequestSchema("noSuchMethod");
+            return;
+        }
+        fail("exception wasn't thrown");
+    }
+
+    @Test
+    public void testMethodNotFoundBeforeParams() throws Exception {
+        // the params would be invalid for any method, but are never looked at
+        String payload = "{\"params\": [{\"bad\": true}], \"method\": \"noSuchMethod\", "
+            + "\"id\": \"1\", \"jsonrpc\": \"2.0\"}";
+        RequestDeserializer unit = new RequestDeserializer(
+                om,
+                schemaLoader,
+                new TestDeserializer(),
+                new JsonSchemaTypeResolver()
+        );
+        try {
+            unit.deserialize(payload);
+        } catch (RpcException e) {
+            assertThat(e.getCode(), is(RpcException.methodNotFound("any").getCode()));
+            verify(schemaLoader, never()).loadRequestSchema("noSuchMethod");
+            return;
+        }
+        fail("exception wasn't thrown");
+    }
+
+    @Test
+    public void testBindCall() throws Exception {
+        JsonNode requestSchema = om.readTree(
+            "{"
+                + "\"type\": \"array\","
+                + "\"items\" : "
+                + "[ "
+                + "{ \"$ref\" : \"derived.json#/definitions/DATA32\" }, "
+                + "{ \"$ref\" : \"root.json#/definitions/QUANTITY\" }, "
+                + "{ \"type\" : \"boolean\" } "
+                + "]}");
+        doReturn(requestSchema).when(schemaLoader).loadRequestSchema("testMethod");
+        RequestDeserializer unit = new RequestDeserializer(
+                om,
+                schemaLoader,
+                new TestDeserializer(),
+                new JsonSchemaTypeResolver()
+        );
+        String data = "0x" + Strings.repeat("ab", 32);
+        CallBinder binder = (methodId, params) -> {
+            byte[] d = params.nextData();
+            BigInteger q = params.nextQuantity();
+            boolean b = params.nextBoolean();
+            return () -> List.of(methodId, d, q, b);
+        };
+
+        // params after the method are read as they're encountered; before it, they're buffered
+        for (String payload : List.of(
+                "{\"method\": \"testMethod\", \"params\": [\"" + data + "\", \"0xe\", true], "
+                    + "\"id\": \"1\", \"jsonrpc\": \"2.0\"}",
+                "{\"params\": [\"" + data + "\", \"0xe\", true], \"method\": \"testMethod\", "
+                    + "\"id\": \"1\", \"jsonrpc\": \"2.0\"}")) {
+            JsonRpcRequest result = unit.deserialize(payload, binder);
+            assertNull(result.getParams());
+            List<?> call = (List<?>) result.getCall().execute();
+            assertThat(call.get(0), is(0));
+            assertThat(call.get(1), is(SerializationUtils.hexStringToByteArray(data)));
+            assertThat(call.get(2), is(BigInteger.valueOf(14)));
+            assertThat(call.get(3), is(true));
+        }
+    }
+
+    @Test
+    public void testBindCallInvalidParams() throws Exception {
+        JsonNode requestSchema = om.readTree(
+            "{\"type\": \"array\", \"items\": [{\"type\": \"boolean\"}, {\"type\": \"boolean\"}]}");
+        doReturn(requestSchema).when(schemaLoader).loadRequestSchema("testMethod");
+        RequestDeserializer unit = new RequestDeserializer(
+                om,
+                schemaLoader,
+                new TestDeserializer(),
+                new JsonSchemaTypeResolver()
+        );
+        CallBinder binder = (methodId, params) -> {
+            boolean first = params.nextBoolean();
+            boolean second = params.nextBoolean();
+            return () -> first && second;
+        };
+
+        for (String params : List.of("[{\"a\": [1]}, true]", "[true]", "[true, true, true]")) {
+            for (String payload : List.of(
+                    "{\"method\": \"testMethod\", \"params\": " + params + ", \"id\": \"1\", \"jsonrpc\": \"2.0\"}",
+                    "{\"params\": " + params + ", \"method\": \"testMethod\", \"id\": \"1\", \"jsonrpc\": \"2.0\"}")) {
+                try {
+                    unit.deserialize(payload, binder);
+                    fail("Expected RpcException for " + payload);
+                } catch (RpcException e) {
+                    assertThat(e.getCode(), is(RpcException.invalidParams("any").getCode()));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testMethodId() throws Exception {
+        doReturn(om.readTree("{\"type\": \"array\", \"items\": []}"))
+                .when(schemaLoader).loadRequestSchema("testMethod");
+        RequestDeserializer unit = new RequestDeserializer(
+                om,
+                schemaLoader,
+                new TestDeserializer(),
+                new JsonSchemaTypeResolver()
+        );
+        JsonRpcRequest result = unit.deserialize(
+                "{\"method\": \"testMethod\", \"params\": [], \"id\": \"1\", \"jsonrpc\": \"2.0\"}");
+        assertThat(result.getMethodId(), is(0));
+    }
+
+    @Test
+    public void testByteInputs() throws Exception {
+        JsonNode requestSchema = om.readTree(
+            "{"
+                + "\"type\": \"array\","
+                + "\"items\" : "
+                + "[ "
+                + "{ \"$ref\" : \"root.json#/definitions/DATA\" } "
+                + "]}");
+        doReturn(requestSchema).when(
+                schemaLoader).loadRequestSchema("testMethod");
+
+        String payload = "{\"method\": \"testMethod\", \"params\": [\"0x10\"], "
+            + "\"id\": \"1\", \"jsonrpc\": \"2.0\"}";
+        byte[] bytes = payload.getBytes(StandardCharsets.UTF_8);
+        // surround the payload with junk to make sure offset and length are respected
+        byte[] padded = new byte[bytes.length + 6];
+        Arrays.fill(padded, (byte) '!');
+        System.arraycopy(bytes, 0, padded, 3, bytes.length);
+
+        ByteBuffer heap = ByteBuffer.wrap(padded, 3, bytes.length).slice();
+        ByteBuffer direct = ByteBuffer.allocateDirect(bytes.length);
+        direct.put(bytes).flip();
+
+        RequestDeserializer unit = new RequestDeserializer(
+                om,
+                schemaLoader,
+                new TestDeserializer(),
+                new JsonSchemaTypeResolver()
+        );
+        for (JsonRpcRequest result : List.of(
+                unit.deserialize(padded, 3, bytes.length),
+                unit.deserialize(heap),
+                unit.deserialize(direct),
+                unit.deserialize(new ByteArrayInputStream(bytes)))) {
+            assertThat(result.getMethod(), is("testMethod"));
+            assertThat(result.getId(), is("1"));
+            assertThat(result.getParams()[0], is(new byte[] { 0x10 }));
+        }
+
+        // buffers are left as they were
+        assertThat(heap.remaining(), is(bytes.length));
+        assertThat(direct.remaining(), is(bytes.length));
+
+        assertThat(unit.idOfRequest(padded, 3, bytes.length), is("1"));
+        assertThat(unit.idOfRequest(direct), is("1"));
+    }
+
+    @Test
+    public void testByteInputParseError() throws Exception {
+        RequestDeserializer unit = new RequestDeserializer(
+                om,
+                schemaLoader,
+                new TestDeserializer(),
+                new JsonSchemaTypeResolver()
+        );
+
+        // not valid UTF-8
+        byte[] payload = new byte[] { '{', '"', (byte) 0xc3, (byte) 0x28, '"', ':', '1', '}' };
+        try {
+            unit.deserialize(payload, 0, payload.length);
+        } catch (RpcException e) {
+            assertThat(e.getCode(), is(RpcException.parseError("any").getCode()));
+            return;
+        }
+        fail("exception wasn't thrown");
+    }
+
     // -- SomeStruct set up -------------------------------------------------------------
     /**
      * @implNote We do this so we don't have to put 'SomeStruct' into the production
@@ -359,6 +839,51 @@ public class RequestDeserializerTest {
                         "Unsupported type.");
             }
         }
+
+        @Override
+        protected Object readObject(JsonParser parser,
+                                    NamedRpcType type) throws SchemaValidationException, IOException {
+            switch(type.getName()) {
+                case "SomeStruct":
+                    return readSomeStruct(parser, type);
+                default:
+                    return super.readObject(parser, type);
+            }
+        }
+
+        private SomeStruct readSomeStruct(JsonParser parser, NamedRpcType type)
+        throws SchemaValidationException, IOException {
+            expectStartObject(parser);
+            byte[] MyData = null;
+            java.math.BigInteger MyQuantity = null;
+            long seen = 0;
+
+            while(parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.getCurrentName();
+                parser.nextToken();
+                switch(field) {
+                    case "MyData":
+                        MyData = readData(parser, 66, 66);
+                        seen |= 1L << 0;
+                        break;
+                    case "MyQuantity":
+                        MyQuantity = readQuantity(parser, 3, Integer.MAX_VALUE);
+                        seen |= 1L << 1;
+                        break;
+                    default:
+                        // not one of the properties; the schema allows those
+                        parser.skipChildren();
+                }
+            }
+            if(seen != 3L) {
+                throw missingFields(type, seen);
+            }
+
+            return new SomeStruct(
+                MyData,
+                MyQuantity
+            );
+        }
     }
 
     /**
@@ -0,0 +1,102 @@
+package org.aion.api.serialization;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assume.assumeTrue;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.lang.management.ManagementFactory;
+import org.aion.api.dispatch.TestDeserializer;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Keeps the allocation of the envelope path of {@link RequestDeserializer}
+ * (a request for a method without params, deserialized and then released)
+ * within budget.  What Jackson allocates to tokenize the payload -- the
+ * parser, its IOContext, TextBuffer and symbol table, and a context per
+ * object or array -- can't be reused, so the budget is on top of that.
+ * RequestEnvelopeAllocationBenchmark gives the absolute numbers.
+ */
+public class RequestEnvelopeAllocationTest {
+    /**
+     * What the pooled path may allocate on top of Jackson: the id String
+     * (48 bytes for "1"), which is handed out with the request, and nothing
+     * else of any size.
+     */
+    private static final long BYTES_OVER_JACKSON = 64;
+
+    private static final int WARMUP = 200_000;
+    private static final int MEASURED = 100_000;
+
+    private static final String PAYLOAD =
+        "{\"jsonrpc\": \"2.0\", \"method\": \"getseed\", \"params\": [], \"id\": \"1\"}";
+
+    private com.sun.management.ThreadMXBean threads;
+
+    @FunctionalInterface
+    private interface Call {
+        void run() throws Exception;
+    }
+
+    @Before
+    public void setup() {
+        java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        assumeTrue(bean instanceof com.sun.management.ThreadMXBean);
+        threads = (com.sun.management.ThreadMXBean) bean;
+        assumeTrue(threads.isThreadAllocatedMemorySupported());
+        threads.setThreadAllocatedMemoryEnabled(true);
+    }
+
+    /** @return bytes that the current thread allocates per call, once the call is compiled */
+    private long bytesPerCall(Call call) throws Exception {
+        for (int ix = 0; ix < WARMUP; ++ix) {
+            call.run();
+        }
+        long thread = Thread.currentThread().getId();
+        long before = threads.getThreadAllocatedBytes(thread);
+        for (int ix = 0; ix < MEASURED; ++ix) {
+            call.run();
+        }
+        return (threads.getThreadAllocatedBytes(thread) - before) / MEASURED;
+    }
+
+    private static RequestDeserializer deserializer(boolean pooling) {
+        return new RequestDeserializer(new TestDeserializer(), new CachingRpcSchemaLoader(), pooling);
+    }
+
+    /** @return bytes per call of just tokenizing the payload */
+    private long jacksonBytes() throws Exception {
+        JsonFactory factory = new ObjectMapper().getFactory();
+        return bytesPerCall(() -> {
+            try (JsonParser parser = factory.createParser(PAYLOAD)) {
+                while (parser.nextToken() != null) {
+                    // just tokenize
+                }
+            }
+        });
+    }
+
+    private long envelopeBytes(RequestDeserializer unit) throws Exception {
+        return bytesPerCall(() -> unit.release(unit.deserialize(PAYLOAD)));
+    }
+
+    @Test
+    public void pooledEnvelopeWithinBudget() throws Exception {
+        long jackson = jacksonBytes();
+        long pooled = envelopeBytes(deserializer(true));
+        assertThat(String.format("Envelope path allocates %d bytes per request; Jackson alone %d",
+                pooled, jackson),
+            pooled <= jackson + BYTES_OVER_JACKSON, is(true));
+    }
+
+    @Test
+    public void poolingSavesTheRequest() throws Exception {
+        long pooled = envelopeBytes(deserializer(true));
+        long unpooled = envelopeBytes(deserializer(false));
+        assertThat(String.format("pooled %d, unpooled %d", pooled, unpooled),
+            pooled < unpooled, is(true));
+    }
+}
@@ -1,15 +1,24 @@
 package org.aion.api.serialization;
 
+import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.aion.api.RpcException;
 import org.aion.api.schema.JsonSchemaRef;
 import org.aion.api.schema.JsonSchemaTypeResolver;
+import org.aion.api.schema.SchemaException;
 import org.aion.api.schema.SchemaValidationException;
 import org.junit.Test;
 
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
 import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
 
 import static org.hamcrest.core.Is.is;
 import static org.junit.Assert.*;
@@ -109,17 +118,55 @@ public class ResponseSerializerTest {
         String result = unit.serialize(
                 new JsonRpcResponse(new SomeStruct(
                         SerializationUtils.hexStringToByteArray("0x68d1d3bffe8672cf1e9e85fbdb9f62744ccf7d7ac5848e7d46441169db99112a"),
-                        BigInteger.valueOf(1337)
+                        BigInteger.valueOf(1337),
+                        7L
                 ), "1.0"),
                 "testMethod");
 
-        // can't just compare the whole string because ordering
-        // of object fields aren't fixed
         JsonNode resultJson = om.readTree(result);
-        assertThat(resultJson.get("myQuantity").asText(), is("0x539"));
-        assertThat(resultJson.get("myData").asText(),
+        assertThat(resultJson.get("jsonrpc").asText(), is("2.0"));
+        assertThat(resultJson.get("id").asText(), is("1.0"));
+
+        // written by SomeStruct itself, so fields are in schema order
+        JsonNode struct = resultJson.get("result");
+        List<String> fields = new ArrayList<>();
+        struct.fieldNames().forEachRemaining(fields::add);
+        assertThat(fields, is(List.of("MyData", "MyQuantity", "MyNonce")));
+        assertThat(struct.get("MyQuantity").asText(), is("0x539"));
+        assertThat(struct.get("MyNonce").asText(), is("0x7"));
+        assertThat(struct.get("MyData").asText(),
                 is("0x68d1d3bffe8672cf1e9e85fbdb9f62744ccf7d7ac5848e7d46441169db99112a"));
+    }
 
+    @Test
+    public void testSerializeObjectWithoutWriter() throws Exception {
+        schemaLoader = spy(RpcSchemaLoader.class);
+        doReturn(om.readTree("{\"$ref\" : \"derived.json#/definitions/SomeStruct\"} "))
+            .when(schemaLoader).loadResponseSchema("testMethod");
+        doReturn(om.readTree("{\"type\": \"object\", \"properties\": {"
+            + "\"myData\": {\"$ref\": \"derived.json#/definitions/DATA32\"}}}"))
+            .when(schemaLoader).loadType(new JsonSchemaRef("derived.json#/definitions/SomeStruct"));
+
+        ResponseSerializer unit = new ResponseSerializer(
+                new JsonSchemaTypeResolver(schemaLoader),
+                schemaLoader, om);
+
+        // a result that isn't a JsonWritable is validated and written reflectively
+        byte[] data = SerializationUtils.hexStringToByteArray(
+            "0x68d1d3bffe8672cf1e9e85fbdb9f62744ccf7d7ac5848e7d46441169db99112a");
+        JsonNode resultJson = om.readTree(unit.serialize(
+                new JsonRpcResponse(new PlainStruct(data), "1"), "testMethod"));
+        assertThat(resultJson.get("id").asText(), is("1"));
+        assertThat(resultJson.get("result").get("myData").asText(),
+                is("0x68d1d3bffe8672cf1e9e85fbdb9f62744ccf7d7ac5848e7d46441169db99112a"));
+
+        try {
+            unit.serialize(new JsonRpcResponse(
+                new PlainStruct(new byte[] {0x68, (byte) 0xd1}), "1"), "testMethod");
+            fail("exception wasn't thrown");
+        } catch (SchemaValidationException svx) {
+            // expected
+        }
     }
 
     @Test
@@ -165,6 +212,281 @@ public class ResponseSerializerTest {
                 is(true));
     }
 
+    @Test
+    public void testSerializeToStream() throws Exception {
+        JsonNode responseSchema = om.readTree(
+            "{\"$ref\" : \"derived.json#/definitions/DATA32\"} ");
+        when(schemaLoader.loadResponseSchema("testMethod"))
+            .thenReturn(responseSchema);
+
+        ResponseSerializer unit = new ResponseSerializer(
+                new JsonSchemaTypeResolver(),
+                schemaLoader,
+                om);
+
+        String hex = "0xd6b391704355efdd37c5630638dc4d3798fc8fa98d60a0c02f45f0aa988e641f";
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        unit.serialize(new JsonRpcResponse(SerializationUtils.hexStringToByteArray(hex), "1"),
+            "testMethod",
+            out);
+        // stream is left open for the caller
+        out.write(' ');
+
+        JsonNode resultJson = om.readTree(out.toByteArray());
+        assertThat(resultJson.get("jsonrpc").asText(), is("2.0"));
+        assertThat(resultJson.get("id").asText(), is("1"));
+        assertThat(resultJson.get("result").asText(), is(hex));
+        assertThat(
+            unit.serialize(new JsonRpcResponse(SerializationUtils.hexStringToByteArray(hex), "1"),
+                "testMethod"),
+            is(new String(out.toByteArray(), StandardCharsets.UTF_8).trim()));
+    }
+
+    @Test
+    public void testSerializeQuantity() throws Exception {
+        JsonNode responseSchema = om.readTree(
+            "{\"$ref\" : \"root.json#/definitions/QUANTITY\"} ");
+        when(schemaLoader.loadResponseSchema("testMethod"))
+            .thenReturn(responseSchema);
+
+        ResponseSerializer unit = new ResponseSerializer(
+                new JsonSchemaTypeResolver(),
+                schemaLoader,
+                om);
+
+        JsonNode resultJson = om.readTree(unit.serialize(
+            new JsonRpcResponse(BigInteger.valueOf(1337), "1"), "testMethod"));
+        assertThat(resultJson.get("result").asText(), is("0x539"));
+
+        resultJson = om.readTree(unit.serialize(
+            new JsonRpcResponse(BigInteger.ZERO, "1"), "testMethod"));
+        assertThat(resultJson.get("result").asText(), is("0x0"));
+
+        BigInteger big = new BigInteger("10000000000000000000000000000000f", 16);
+        resultJson = om.readTree(unit.serialize(
+            new JsonRpcResponse(big, "1"), "testMethod"));
+        assertThat(resultJson.get("result").asText(), is("0x10000000000000000000000000000000f"));
+
+        resultJson = om.readTree(unit.serialize(
+            new JsonRpcResponse(Long.MAX_VALUE, "1"), "testMethod"));
+        assertThat(resultJson.get("result").asText(), is("0x7fffffffffffffff"));
+    }
+
+    @Test(expected = SchemaValidationException.class)
+    public void testSerializeNegativeQuantity() throws Exception {
+        when(schemaLoader.loadResponseSchema("testMethod"))
+            .thenReturn(om.readTree("{\"$ref\" : \"root.json#/definitions/QUANTITY\"} "));
+
+        new ResponseSerializer(new JsonSchemaTypeResolver(), schemaLoader, om)
+            .serialize(new JsonRpcResponse(-1L, "1"), "testMethod");
+    }
+
+    @Test
+    public void testSerializeErrorToStream() throws Exception {
+        ResponseSerializer unit = new ResponseSerializer(
+                new JsonSchemaTypeResolver(schemaLoader),
+                schemaLoader, om);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        unit.serializeError(new JsonRpcError(RpcException.invalidParams("myMessage"), null), out);
+
+        JsonNode resultJson = om.readTree(out.toByteArray());
+        assertThat(resultJson.get("jsonrpc").asText(), is("2.0"));
+        assertThat(resultJson.get("id").isNull(), is(true));
+        assertThat(resultJson.get("error").get("code").asInt(), is(RpcException.invalidParams("any").getCode()));
+        assertThat(resultJson.get("error").get("data").asText(), is("myMessage"));
+    }
+
+    @Test
+    public void testPlansForAllMethods() throws Exception {
+        RpcSchemaLoader loader = new RpcSchemaLoader();
+        ResponseSerializer unit = new ResponseSerializer(loader);
+
+        unit.verifyPlans();
+        assertThat(unit.getPlannedMethods(), is(new TreeSet<>(loader.loadMethodList())));
+    }
+
+    @Test
+    public void testVerifyPlansWithUnsupportedSchema() throws Exception {
+        when(schemaLoader.loadMethodList()).thenReturn(List.of("goodMethod", "badMethod"));
+        when(schemaLoader.loadResponseSchema("goodMethod"))
+            .thenReturn(om.readTree("{\"type\" : \"boolean\"}"));
+        when(schemaLoader.loadResponseSchema("badMethod"))
+            .thenReturn(om.readTree("{\"type\" : \"string\"}"));
+
+        ResponseSerializer unit = new ResponseSerializer(
+                new JsonSchemaTypeResolver(schemaLoader),
+                schemaLoader, om);
+        assertThat(unit.getPlannedMethods(), is(Set.of("goodMethod")));
+
+        try {
+            unit.verifyPlans();
+        } catch (SchemaException sx) {
+            assertThat(sx.getMessage().contains("badMethod"), is(true));
+            return;
+        }
+        fail("exception wasn't thrown");
+    }
+
+    @Test
+    public void testValidationModes() throws Exception {
+        JsonNode responseSchema = om.readTree(
+            "{\"$ref\" : \"derived.json#/definitions/DATA32\"} ");
+        when(schemaLoader.loadMethodList()).thenReturn(List.of("strictMethod", "offMethod"));
+        when(schemaLoader.loadResponseSchema("strictMethod")).thenReturn(responseSchema);
+        when(schemaLoader.loadResponseSchema("offMethod")).thenReturn(responseSchema);
+
+        ResponseSerializer unit = new ResponseSerializer(
+                new JsonSchemaTypeResolver(),
+                schemaLoader,
+                om,
+                ResponseValidationPolicy.of(ResponseValidationMode.STRICT)
+                    .withMethod("offMethod", ResponseValidationMode.OFF));
+
+        // too short for DATA32, but not checked
+        byte[] invalid = SerializationUtils.hexStringToByteArray("0x12");
+        JsonNode resultJson = om.readTree(unit.serialize(
+            new JsonRpcResponse(invalid, "1"), "offMethod"));
+        assertThat(resultJson.get("result").asText(), is("0x12"));
+
+        try {
+            unit.serialize(new JsonRpcResponse(invalid, "1"), "strictMethod");
+            fail("exception wasn't thrown");
+        } catch (SchemaValidationException svx) {
+            // expected
+        }
+
+        ResponseValidationStats strict = unit.getValidationStats().get("strictMethod");
+        assertThat(strict.getValidated(), is(1L));
+        assertThat(strict.getViolations(), is(1L));
+        ResponseValidationStats off = unit.getValidationStats().get("offMethod");
+        assertThat(off.getValidated(), is(0L));
+        assertThat(off.getSkipped(), is(1L));
+    }
+
+    @Test
+    public void testAsyncValidation() throws Exception {
+        JsonNode responseSchema = om.readTree(
+            "{\"$ref\" : \"derived.json#/definitions/DATA32\"} ");
+        when(schemaLoader.loadResponseSchema("testMethod")).thenReturn(responseSchema);
+
+        ResponseSerializer unit = new ResponseSerializer(
+                new JsonSchemaTypeResolver(),
+                schemaLoader,
+                om,
+                ResponseValidationPolicy.of(ResponseValidationMode.ASYNC));
+
+        // the response goes out even though it's invalid...
+        byte[] invalid = SerializationUtils.hexStringToByteArray("0x12");
+        JsonNode resultJson = om.readTree(unit.serialize(
+            new JsonRpcResponse(invalid, "1"), "testMethod"));
+        assertThat(resultJson.get("result").asText(), is("0x12"));
+
+        // ...and the violation is recorded eventually
+        ResponseValidationStats stats = unit.getValidationStats().get("testMethod");
+        for (int i = 0; i < 500 && stats.getValidated() == 0; ++i) {
+            Thread.sleep(10);
+        }
+        assertThat(stats.getValidated(), is(1L));
+        assertThat(stats.getViolations(), is(1L));
+        assertThat(stats.getLastViolation(), is("0x12"));
+    }
+
+    @Test(expected = SchemaValidationException.class)
+    public void testObjectValidation() throws Exception {
+        schemaLoader = spy(RpcSchemaLoader.class);
+        doReturn(om.readTree("{\"$ref\" : \"derived.json#/definitions/SomeStruct\"} "))
+            .when(schemaLoader).loadResponseSchema("testMethod");
+        doReturn(om.readTree("{\"type\": \"object\", \"properties\": {"
+            + "\"MyData\": {\"$ref\": \"derived.json#/definitions/DATA32\"}}}"))
+            .when(schemaLoader).loadType(new JsonSchemaRef("derived.json#/definitions/SomeStruct"));
+
+        ResponseSerializer unit = new ResponseSerializer(
+                new JsonSchemaTypeResolver(schemaLoader),
+                schemaLoader, om);
+        unit.serialize(
+                new JsonRpcResponse(new SomeStruct(
+                        SerializationUtils.hexStringToByteArray("0x68d1"),
+                        BigInteger.valueOf(1337),
+                        7L
+                ), "1.0"),
+                "testMethod");
+    }
+
+    @Test
+    public void testObjectInlineValidation() throws Exception {
+        schemaLoader = spy(RpcSchemaLoader.class);
+        doReturn(om.readTree("{\"$ref\" : \"derived.json#/definitions/SomeStruct\"} "))
+            .when(schemaLoader).loadResponseSchema("testMethod");
+        doReturn(someStructJsonSchema)
+            .when(schemaLoader).loadType(new JsonSchemaRef("derived.json#/definitions/SomeStruct"));
+
+        ResponseSerializer unit = new ResponseSerializer(
+                new JsonSchemaTypeResolver(schemaLoader),
+                schemaLoader, om);
+        byte[] data = SerializationUtils.hexStringToByteArray(
+            "0x68d1d3bffe8672cf1e9e85fbdb9f62744ccf7d7ac5848e7d46441169db99112a");
+
+        // missing field, negative QUANTITY, QUANTITY_LONG too long
+        for (SomeStruct invalid : List.of(
+                new SomeStruct(data, null, 7L),
+                new SomeStruct(data, BigInteger.valueOf(-1), 7L),
+                new SomeStruct(data, BigInteger.ONE, 1L << 60))) {
+            try {
+                unit.serialize(new JsonRpcResponse(invalid, "1"), "testMethod");
+                fail("exception wasn't thrown");
+            } catch (SchemaValidationException svx) {
+                // expected
+            }
+        }
+        ResponseValidationStats stats = unit.getValidationStats().get("testMethod");
+        assertThat(stats.getValidated(), is(3L));
+        assertThat(stats.getViolations(), is(3L));
+    }
+
+    @Test
+    public void testNullObjectResult() throws Exception {
+        schemaLoader = spy(RpcSchemaLoader.class);
+        doReturn(om.readTree("{\"$ref\" : \"derived.json#/definitions/SomeStruct\"} "))
+            .when(schemaLoader).loadResponseSchema("testMethod");
+        doReturn(someStructJsonSchema)
+            .when(schemaLoader).loadType(new JsonSchemaRef("derived.json#/definitions/SomeStruct"));
+
+        // validated right away: a violation like any other
+        for (ResponseValidationPolicy policy : List.of(
+                ResponseValidationPolicy.STRICT, ResponseValidationPolicy.sampled(1))) {
+            ResponseSerializer unit = new ResponseSerializer(
+                    new JsonSchemaTypeResolver(schemaLoader), schemaLoader, om, policy);
+            try {
+                unit.serialize(new JsonRpcResponse(null, "1"), "testMethod");
+                fail("exception wasn't thrown");
+            } catch (SchemaValidationException svx) {
+                // expected
+            }
+            ResponseValidationStats stats = unit.getValidationStats().get("testMethod");
+            assertThat(stats.getViolations(), is(1L));
+            assertThat(stats.getLastViolation(), is("null"));
+        }
+
+        // validated later, or not at all: the null goes out
+        ResponseSerializer async = new ResponseSerializer(
+                new JsonSchemaTypeResolver(schemaLoader), schemaLoader, om,
+                ResponseValidationPolicy.of(ResponseValidationMode.ASYNC));
+        JsonNode resultJson = om.readTree(async.serialize(new JsonRpcResponse(null, "1"), "testMethod"));
+        assertThat(resultJson.get("result").isNull(), is(true));
+        ResponseValidationStats stats = async.getValidationStats().get("testMethod");
+        for (int i = 0; i < 500 && stats.getValidated() == 0; ++i) {
+            Thread.sleep(10);
+        }
+        assertThat(stats.getViolations(), is(1L));
+        assertThat(stats.getLastViolation(), is("null"));
+
+        ResponseSerializer off = new ResponseSerializer(
+                new JsonSchemaTypeResolver(schemaLoader), schemaLoader, om,
+                ResponseValidationPolicy.of(ResponseValidationMode.OFF));
+        resultJson = om.readTree(off.serialize(new JsonRpcResponse(null, "1"), "testMethod"));
+        assertThat(resultJson.get("result").isNull(), is(true));
+    }
+
     // -- SomeStruct set up -------------------------------------------------------------
     /**
      * @implNote We do this so we don't have to put 'SomeStruct' into the production
@@ -178,7 +500,8 @@ public class ResponseSerializerTest {
                     "      \"type\": \"object\",\n" +
                     "      \"properties\": {\n" +
                     "        \"MyData\": {\"$ref\": \"derived.json#/definitions/DATA32\"},\n" +
-                    "        \"MyQuantity\": {\"$ref\": \"root.json#/definitions/QUANTITY\"}\n" +
+                    "        \"MyQuantity\": {\"$ref\": \"root.json#/definitions/QUANTITY\"},\n" +
+                    "        \"MyNonce\": {\"$ref\": \"derived.json#/definitions/QUANTITY_LONG\"}\n" +
                     "      }\n" +
                     "    }"
     );
@@ -189,16 +512,19 @@ public class ResponseSerializerTest {
      * for unit testing and also serves as a reference for what that program should
      * output and how it interacts with {@link RequestDeserializer}.
      */
-    private static class SomeStruct {
+    private static class SomeStruct implements JsonWritable {
         private byte[] MyData;
         private java.math.BigInteger MyQuantity;
+        private long MyNonce;
 
         public SomeStruct(
                 byte[] MyData,
-                java.math.BigInteger MyQuantity
+                java.math.BigInteger MyQuantity,
+                long MyNonce
         ) {
             this.MyData = MyData;
             this.MyQuantity = MyQuantity;
+            this.MyNonce = MyNonce;
         }
 
         public byte[] getMyData() {
@@ -208,5 +534,41 @@ public class ResponseSerializerTest {
         public java.math.BigInteger getMyQuantity() {
             return this.MyQuantity;
         }
+
+        public long getMyNonce() {
+            return this.MyNonce;
+        }
+
+        @Override
+        public void writeTo(JsonGenerator gen) throws IOException {
+            gen.writeStartObject();
+            gen.writeFieldName("MyData");
+            JsonWritable.writeData(gen, this.MyData);
+            gen.writeFieldName("MyQuantity");
+            JsonWritable.writeQuantity(gen, this.MyQuantity);
+            gen.writeFieldName("MyNonce");
+            JsonWritable.writeQuantity(gen, this.MyNonce);
+            gen.writeEndObject();
+        }
+
+        @Override
+        public void validate() throws SchemaValidationException {
+            JsonWritable.checkData("MyData", this.MyData, 66, 66);
+            JsonWritable.checkQuantity("MyQuantity", this.MyQuantity, 3, Integer.MAX_VALUE);
+            JsonWritable.checkQuantity("MyNonce", this.MyNonce, 3, 17);
+        }
+    }
+
+    /** An object result that doesn't implement JsonWritable */
+    private static class PlainStruct {
+        private byte[] myData;
+
+        public PlainStruct(byte[] myData) {
+            this.myData = myData;
+        }
+
+        public byte[] getMyData() {
+            return this.myData;
+        }
     }
 }
\ No newline at end of file
@@ -0,0 +1,60 @@
+package org.aion.api.serialization;
+
+import static org.hamcrest.core.Is.is;
+import static org.junit.Assert.assertThat;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Properties;
+import org.junit.Test;
+
+public class ResponseValidationPolicyTest {
+    @Test
+    public void fromProperties() throws Exception {
+        String props = "validation.default = sampled:1000\n"
+            + "validation.method.submitseed = STRICT\n"
+            + "validation.method.getseed = off\n"
+            + "validation.method.eth_call2 = async\n"
+            + "validation.method.eth_sendTransaction2 = sampled\n"
+            + "unrelated = 1\n";
+        ResponseValidationPolicy policy = ResponseValidationPolicy.load(
+            new ByteArrayInputStream(props.getBytes(StandardCharsets.UTF_8)));
+
+        assertThat(policy.getMode("someOtherMethod"), is(ResponseValidationMode.SAMPLED));
+        assertThat(policy.getSampleRate("someOtherMethod"), is(1000));
+        assertThat(policy.getMode("submitseed"), is(ResponseValidationMode.STRICT));
+        assertThat(policy.getMode("getseed"), is(ResponseValidationMode.OFF));
+        assertThat(policy.getMode("eth_call2"), is(ResponseValidationMode.ASYNC));
+        assertThat(policy.getMode("eth_sendTransaction2"), is(ResponseValidationMode.SAMPLED));
+        assertThat(policy.getSampleRate("eth_sendTransaction2"),
+            is(ResponseValidationPolicy.DEFAULT_SAMPLE_RATE));
+    }
+
+    @Test
+    public void defaultIsStrict() {
+        ResponseValidationPolicy policy = ResponseValidationPolicy.fromProperties(new Properties());
+        assertThat(policy.getMode("anything"), is(ResponseValidationMode.STRICT));
+    }
+
+    @Test
+    public void withMethod() {
+        ResponseValidationPolicy base = ResponseValidationPolicy.of(ResponseValidationMode.OFF);
+        ResponseValidationPolicy policy = base
+            .withMethod("a", ResponseValidationMode.STRICT)
+            .withSampledMethod("b", 10);
+
+        assertThat(policy.getMode("a"), is(ResponseValidationMode.STRICT));
+        assertThat(policy.getMode("b"), is(ResponseValidationMode.SAMPLED));
+        assertThat(policy.getSampleRate("b"), is(10));
+        assertThat(policy.getMode("c"), is(ResponseValidationMode.OFF));
+        // original is unchanged
+        assertThat(base.getMode("a"), is(ResponseValidationMode.OFF));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void invalidValue() {
+        Properties props = new Properties();
+        props.setProperty("validation.method.a", "sampled:0");
+        ResponseValidationPolicy.fromProperties(props);
+    }
+}